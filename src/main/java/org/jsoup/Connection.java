@@ -1,6 +1,11 @@
 package org.jsoup;
 
+import org.jsoup.helper.ConnectionPool;
+import org.jsoup.helper.ContentDecoder;
+import org.jsoup.helper.HttpCache;
 import org.jsoup.helper.RequestAuthenticator;
+import org.jsoup.helper.RequestListener;
+import org.jsoup.helper.RetryPolicy;
 import org.jsoup.nodes.Document;
 import org.jsoup.parser.Parser;
 import org.jsoup.parser.StreamParser;
@@ -18,6 +23,7 @@ import java.net.URL;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  The Connection interface is a convenient HTTP client and session object to fetch content from the web, and parse them
@@ -28,8 +34,9 @@ import java.util.Map;
  <p>To start a new request from the session, use {@link #newRequest()}.</p>
  <p>Cookies are stored in memory for the duration of the session. For that reason, do not use one single session for all
  requests in a long-lived application, or you are likely to run out of memory, unless care is taken to clean up the
- cookie store. The cookie store for the session is available via {@link #cookieStore()}. You may provide your own
- implementation via {@link #cookieStore(java.net.CookieStore)} before making requests.</p>
+ cookie store. The cookie store for the session (by default, a {@link org.jsoup.helper.CookieJar}) is available via
+ {@link #cookieStore()}. You may provide your own implementation via {@link #cookieStore(java.net.CookieStore)} before
+ making requests.</p>
  <p>Request configuration can be made using either the shortcut methods in Connection (e.g. {@link #userAgent(String)}),
  or by methods in the {@link Connection.Request} object directly. All request configuration must be made before the request is
  executed. When used as an ongoing session, initialize all defaults prior to making multi-threaded {@link
@@ -437,6 +444,66 @@ public interface Connection {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     Use a shared {@link ConnectionPool} for requests made by this Connection (session), so that open connections and
+     HTTP clients are reused between this and other sessions using the same pool. Setting a pool selects the
+     HttpClient implementation, if available.
+     @param pool the pool to use; or {@code null} to use a connection specific client
+     @return this Connection, for chaining
+     @since 1.21.1
+     */
+    default Connection pool(@Nullable ConnectionPool pool) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     Add a decoder for responses sent with the specified {@code Content-Encoding}, and advertise that encoding in the
+     request's {@code Accept-Encoding} header. {@code gzip} and {@code deflate} are supported without a decoder; use
+     this to add e.g. Brotli ({@code br}) or Zstandard ({@code zstd}) support from a compression library. See
+     {@link ContentDecoder} for an example.
+     @param encoding the content encoding name, e.g. {@code br}
+     @param decoder the decoder for that encoding
+     @return this Connection, for chaining
+     @since 1.21.1
+     */
+    default Connection decoder(String encoding, ContentDecoder decoder) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     Use an {@link HttpCache} for GET requests made by this Connection (session): fresh stored responses are used without
+     a request to the server, and stale ones are revalidated with a conditional request. A cache may be shared between
+     sessions.
+     @param cache the cache to use; or {@code null} to not cache responses (the default)
+     @return this Connection, for chaining
+     @since 1.21.1
+     */
+    default Connection cache(@Nullable HttpCache cache) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     Retry requests made by this Connection (session) that fail with a transient error, such as a timeout or a
+     {@code 503} response, per the {@link RetryPolicy}. Optionally, slow requests may be hedged with a second attempt.
+     @param policy the policy to use; or {@code null} to not retry (the default)
+     @return this Connection, for chaining
+     @since 1.21.1
+     */
+    default Connection retry(@Nullable RetryPolicy policy) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     Set a listener to be told the time and bytes of each phase of the requests made by this Connection (session): DNS,
+     connect, time to first byte, download, decompress, and parse.
+     @param listener the listener; or {@code null} for none (the default)
+     @return this Connection, for chaining
+     @since 1.21.1
+     */
+    default Connection listener(@Nullable RequestListener listener) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Execute the request as a GET, and parse the result.
      * @return parsed Document
@@ -470,6 +537,32 @@ public interface Connection {
      */
     Response execute() throws IOException;
 
+    /**
+     Execute the request asynchronously, without blocking the calling thread. The returned future completes once the
+     response has been received and its body read in to memory (up to the {@link #maxBodySize(int) max body size}), so
+     that the response can be parsed without further I/O.
+     <p>When the HttpClient implementation is in use, the request is sent with its non-blocking API; otherwise, the
+     request is executed on a shared pool of worker threads.</p>
+     <p>Errors that would be thrown by {@link #execute()}, such as a {@link HttpStatusException}, complete the future
+     exceptionally.</p>
+     @return a future of the executed {@link Response}
+     @see #getAsync()
+     @since 1.21.1
+     */
+    default CompletableFuture<Response> executeAsync() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     Execute the request asynchronously as a GET, and parse the result once it has been received.
+     @return a future of the parsed Document
+     @see #executeAsync()
+     @since 1.21.1
+     */
+    default CompletableFuture<Document> getAsync() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Get the request object associated with this connection
      * @return request
@@ -0,0 +1,366 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.jsoup.helper.HttpConnection.Response;
+import static org.jsoup.internal.Normalizer.lowerCase;
+
+/**
+ Wraps the HttpURLConnection or HttpClient executor for a request with an {@link HttpCache}. Fresh stored responses are
+ served without executing the request; stale ones are revalidated with a conditional request; and cacheable responses
+ are stored once their body has been read.
+ */
+class CachingExecutor extends RequestExecutor {
+    private static final String IfNoneMatch = "If-None-Match";
+    private static final String IfModifiedSince = "If-Modified-Since";
+    private static final int MaxDrain = 8 * 1024; // bytes to read on close to complete a stored body (e.g. a gzip trailer)
+
+    private final RequestExecutor delegate;
+    private final HttpCache cache;
+    private HttpCache.@Nullable Entry served; // the entry the response is served from
+    private HttpCache.@Nullable Entry pending; // the entry to store (with an empty body) once the body is read
+    private boolean loaded = false; // if the stored entry has been looked up; once per request
+    private HttpCache.@Nullable Entry stored; // the stored entry that matches the request, if any
+    private boolean fresh = false; // if the stored entry can be served without a request
+
+    CachingExecutor(RequestExecutor delegate, HttpCache cache) {
+        super(delegate.req, delegate.prevRes);
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    Response execute() throws IOException {
+        String key = req.url().toExternalForm();
+        if (!isCacheable()) {
+            Response res = passThrough();
+            if (!isSafe(req.method()) && res.statusCode < 400) remove(key); // a change invalidates the stored response
+            return res;
+        }
+
+        HttpCache.Entry entry = lookup();
+        if (entry != null && fresh) {
+            cache.hit();
+            return serve(entry);
+        }
+
+        boolean conditional = entry != null && entry.hasValidator();
+        if (conditional) addConditions(entry);
+        Response res;
+        try {
+            res = delegate.execute();
+        } finally {
+            if (conditional) removeConditions();
+        }
+        return received(res, key, entry, conditional);
+    }
+
+    /**
+     As {@link #execute()}, without blocking: a fresh hit is served as a completed future, and otherwise the delegate
+     executes the request asynchronously. As the delegate reads the body in full, a storable response is stored from
+     that buffered body.
+     */
+    @Override
+    CompletableFuture<Response> executeAsync(long startTime) {
+        String key = req.url().toExternalForm();
+        if (!isCacheable()) {
+            return delegate.executeAsync(startTime).thenApply(res -> {
+                adopt(res);
+                if (!isSafe(req.method()) && res.statusCode < 400) remove(key);
+                return res;
+            });
+        }
+
+        HttpCache.Entry entry = lookup();
+        if (entry != null && fresh) {
+            cache.hit();
+            CompletableFuture<Response> served = new CompletableFuture<>();
+            try {
+                served.complete(serve(entry));
+            } catch (IOException e) {
+                served.completeExceptionally(e);
+            }
+            return served;
+        }
+
+        boolean conditional = entry != null && entry.hasValidator();
+        if (conditional) addConditions(entry);
+        return delegate.executeAsync(startTime).whenComplete((res, err) -> {
+            if (conditional) removeConditions(); // once sent
+        }).thenApply(res -> {
+            try {
+                Response received = received(res, key, entry, conditional);
+                HttpCache.Entry toStore = pending;
+                if (toStore != null && bufferedBody != null) {
+                    pending = null;
+                    int max = req.maxBodySize();
+                    if (max <= 0 || bufferedBody.limit() < max) // else may have been truncated
+                        storeBody(toStore, Arrays.copyOf(bufferedBody.array(), bufferedBody.limit()));
+                }
+                return received;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private void addConditions(HttpCache.Entry entry) {
+        String etag = entry.header("ETag");
+        String lastModified = entry.header("Last-Modified");
+        if (etag != null) req.header(IfNoneMatch, etag);
+        if (lastModified != null) req.header(IfModifiedSince, lastModified);
+    }
+
+    private void removeConditions() {
+        req.removeHeader(IfNoneMatch);
+        req.removeHeader(IfModifiedSince);
+    }
+
+    /**
+     Handle the response from the delegate: a 304 revalidates and serves the stored entry; otherwise the response is
+     used, and its entry is pending until its body has been read.
+     */
+    private Response received(Response res, String key, HttpCache.@Nullable Entry entry, boolean conditional) throws IOException {
+        if (conditional && res.statusCode == 304) {
+            delegate.safeClose(); // no body
+            entry = entry.revalidated(res.multiHeaders(), System.currentTimeMillis());
+            store(key, entry);
+            cache.revalidated();
+            return serve(entry);
+        }
+
+        cache.miss();
+        adopt(res);
+        pending = storable(res, key);
+        if (pending == null && entry != null) remove(key);
+        return res;
+    }
+
+    /** A fresh hit is served without a request, so doesn't take a permit from the pool, or wait for its rate. */
+    @Override
+    void acquirePermit() throws IOException {
+        if (!isFreshHit()) super.acquirePermit();
+    }
+
+    @Override
+    CompletableFuture<Void> acquirePermitAsync() {
+        return isFreshHit() ? CompletableFuture.completedFuture(null) : super.acquirePermitAsync();
+    }
+
+    private boolean isFreshHit() {
+        return isCacheable() && lookup() != null && fresh;
+    }
+
+    /** Look up the stored entry for the request, and if it is fresh; once, so the decision holds through execute. */
+    private HttpCache.@Nullable Entry lookup() {
+        if (!loaded) {
+            loaded = true;
+            HttpCache.Entry entry = load(req.url().toExternalForm());
+            if (entry != null && !entry.matches(req)) entry = null;
+            stored = entry;
+            fresh = entry != null && !HttpCache.cacheControl(req.multiHeaders()).containsKey("no-cache")
+                && entry.isFresh(System.currentTimeMillis());
+        }
+        return stored;
+    }
+
+    @Override
+    InputStream responseBody() throws IOException {
+        if (served != null) return new ByteArrayInputStream(served.body);
+        InputStream body = delegate.responseBody();
+        return pending != null ? new StoringStream(body, pending) : body;
+    }
+
+    @Override
+    void safeClose() {
+        delegate.safeClose();
+        releasePermit();
+    }
+
+    private Response passThrough() throws IOException {
+        Response res = delegate.execute();
+        res.executor = this;
+        return res;
+    }
+
+    /** Take over the delegate's response, and its body if read by {@link #executeAsync(long)}. */
+    private void adopt(Response res) {
+        res.executor = this;
+        bufferedBody = delegate.bufferedBody;
+    }
+
+    /** Create a response from the stored entry. */
+    private Response serve(HttpCache.Entry entry) throws IOException {
+        served = entry;
+        Response res = new Response(req);
+        res.executor = this;
+        res.method = Connection.Method.GET;
+        res.url = new URL(entry.url);
+        res.statusCode = entry.statusCode;
+        res.statusMessage = entry.statusMessage;
+        res.contentType = entry.header(HttpConnection.CONTENT_TYPE);
+        res.contentLength = entry.body.length;
+        res.prepareResponse(entry.headers, prevRes);
+        return res;
+    }
+
+    /** Only GETs are served from the cache, and not if the request makes its own conditions. */
+    private boolean isCacheable() {
+        return req.method() == Connection.Method.GET
+            && !req.hasHeader(IfNoneMatch) && !req.hasHeader(IfModifiedSince)
+            && !req.hasHeader("Range") && !req.hasHeader("Authorization")
+            && !HttpCache.cacheControl(req.multiHeaders()).containsKey("no-store");
+    }
+
+    private static boolean isSafe(Connection.Method method) {
+        return method == Connection.Method.GET || method == Connection.Method.HEAD
+            || method == Connection.Method.OPTIONS || method == Connection.Method.TRACE;
+    }
+
+    /**
+     If the response may be stored, create its entry (without its body, which is read later). It must be a 200 with a
+     freshness lifetime or a validator, and not marked no-store or vary by all headers.
+     */
+    private HttpCache.@Nullable Entry storable(Response res, String key) {
+        if (res.statusCode != 200) return null;
+        Map<String, List<String>> resHeaders = res.multiHeaders();
+        Map<String, String> cacheControl = HttpCache.cacheControl(resHeaders);
+        if (cacheControl.containsKey("no-store")) return null;
+
+        if (!cacheControl.containsKey("max-age") && !res.hasHeader("Expires")
+            && !res.hasHeader("ETag") && !res.hasHeader("Last-Modified"))
+            return null;
+
+        Map<String, String> vary = new LinkedHashMap<>();
+        String varyHeader = res.header("Vary");
+        if (varyHeader != null) {
+            for (String name : varyHeader.split(",")) {
+                name = lowerCase(name.trim());
+                if (name.isEmpty()) continue;
+                if (name.equals("*")) return null;
+                String value = req.header(name);
+                vary.put(name, value != null ? value : "");
+            }
+        }
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : resHeaders.entrySet()) {
+            if (!header.getKey().equalsIgnoreCase("Set-Cookie")) headers.put(header.getKey(), header.getValue());
+        }
+        return new HttpCache.Entry(key, res.statusCode, res.statusMessage != null ? res.statusMessage : "", headers,
+            vary, new byte[0], System.currentTimeMillis());
+    }
+
+    private HttpCache.@Nullable Entry load(String key) {
+        try {
+            return cache.load(key);
+        } catch (IOException e) {
+            return null; // treated as a miss
+        }
+    }
+
+    private void store(String key, HttpCache.Entry entry) {
+        try {
+            cache.store(key, entry);
+        } catch (IOException ignored) {
+            // the response is still used; it just won't be served next time
+        }
+    }
+
+    /** Store the pending entry, now that its body has been read in full. */
+    private void storeBody(HttpCache.Entry entry, byte[] body) {
+        store(entry.url, new HttpCache.Entry(entry.url, entry.statusCode, entry.statusMessage, entry.headers,
+            entry.vary, body, entry.responseTime));
+    }
+
+    private void remove(String key) {
+        try {
+            cache.remove(key);
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     Copies the raw body as it is read, and stores the entry once the body is read in full. If the body exceeds the
+     request's max body size, it is not stored.
+     */
+    private final class StoringStream extends FilterInputStream {
+        private final HttpCache.Entry entry;
+        private @Nullable ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private final int max = req.maxBodySize();
+
+        StoringStream(InputStream in, HttpCache.Entry entry) {
+            super(in);
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (copy == null) return n;
+            if (n == -1) {
+                complete();
+            } else {
+                copy.write(b, off, n);
+                if (max > 0 && copy.size() > max) copy = null; // too large to store
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            copy = null; // skipped bytes aren't copied
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (copy != null) { // the reader may stop before EOF, e.g. at the end of a gzip stream
+                    byte[] buf = new byte[1024];
+                    int drained = 0;
+                    while (copy != null && drained < MaxDrain) {
+                        int n = read(buf, 0, buf.length);
+                        if (n == -1) break;
+                        drained += n;
+                    }
+                }
+            } catch (IOException ignored) {
+                // not stored
+            } finally {
+                copy = null;
+                super.close();
+            }
+        }
+
+        private void complete() {
+            ByteArrayOutputStream body = copy;
+            copy = null;
+            if (body != null) storeBody(entry, body.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.jsoup.helper;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ Scans the first bytes of an HTML or XML input for a declared charset, without parsing it: a {@code <meta charset>} or
+ {@code <meta http-equiv=content-type content="...; charset=...">} element, or an {@code <?xml encoding?>} declaration.
+ Follows the outline of the HTML spec's byte stream prescan: comments are skipped, and attributes are read from other
+ tags so that a quoted {@code <meta} in one is not mistaken for an element.
+ */
+final class CharsetScanner {
+    private final byte[] bytes;
+    private final int len;
+    private int pos = 0;
+
+    // attributes of the current meta tag:
+    private @Nullable String httpEquiv;
+    private @Nullable String content;
+    private @Nullable String charset;
+    private @Nullable String encoding; // of an xml declaration
+
+    private CharsetScanner(byte[] bytes, int len) {
+        this.bytes = bytes;
+        this.len = len;
+    }
+
+    /**
+     Scan the bytes for a declared charset.
+     @param bytes the start of the input
+     @param len the count of bytes to scan
+     @return the declared charset name (unvalidated), or null if none was found
+     */
+    static @Nullable String scan(byte[] bytes, int len) {
+        return new CharsetScanner(bytes, len).scan();
+    }
+
+    private @Nullable String scan() {
+        skipWhitespace();
+        String xmlEncoding = null; // a meta charset takes precedence
+        if (matches("<?xml")) {
+            pos += 5;
+            if (readAttributes("?>")) xmlEncoding = encoding;
+        }
+
+        while (pos < len) {
+            if (matches("<!--")) {
+                int end = indexOf("-->", pos + 4);
+                if (end == -1) break;
+                pos = end + 3;
+            } else if (matches("<meta") && pos + 5 < len && (isWhitespace(bytes[pos + 5]) || bytes[pos + 5] == '/')) {
+                pos += 5;
+                if (!readAttributes(">")) break;
+                String found = metaCharset();
+                if (found != null) return found;
+            } else if (bytes[pos] == '<' && pos + 1 < len && (isAsciiLetter(bytes[pos + 1])
+                || bytes[pos + 1] == '/' && pos + 2 < len && isAsciiLetter(bytes[pos + 2]))) {
+                // another tag; skip its name and attributes
+                while (pos < len && !isWhitespace(bytes[pos]) && bytes[pos] != '>') pos++;
+                if (!readAttributes(">")) break;
+            } else if (matches("<!") || matches("</") || matches("<?")) {
+                int end = indexOf(">", pos + 2);
+                if (end == -1) break;
+                pos = end + 1;
+            } else {
+                pos++;
+            }
+        }
+        return xmlEncoding;
+    }
+
+    /** Get the charset from the meta tag's attributes; as from a DOM query for the same. */
+    private @Nullable String metaCharset() {
+        String found = null;
+        if (httpEquiv != null) {
+            if (!httpEquiv.equalsIgnoreCase("content-type") && charset == null) return null;
+            found = DataUtil.getCharsetFromContentType(content);
+        }
+        if (found == null) found = charset;
+        return found;
+    }
+
+    /**
+     Read the tag's attributes, to its end. The http-equiv, content, charset, and encoding values are retained.
+     @return true if the tag end was found; false if the bytes ran out first
+     */
+    private boolean readAttributes(String end) {
+        httpEquiv = content = charset = encoding = null;
+        while (true) {
+            while (pos < len && (isWhitespace(bytes[pos]) || bytes[pos] == '/' || bytes[pos] == '?' && !matches(end)))
+                pos++;
+            if (pos >= len) return false;
+            if (matches(end)) {
+                pos += end.length();
+                return true;
+            }
+
+            int nameStart = pos;
+            while (pos < len && bytes[pos] != '=' && bytes[pos] != '>' && bytes[pos] != '/' && !isWhitespace(bytes[pos]))
+                pos++;
+            if (pos == nameStart && (pos >= len || bytes[pos] != '=')) { // a stray char, e.g. '>' in an xml declaration
+                pos++;
+                continue;
+            }
+            String name = string(nameStart, pos);
+            skipWhitespace();
+            String value = "";
+            if (pos < len && bytes[pos] == '=') {
+                pos++;
+                skipWhitespace();
+                if (pos >= len) return false;
+                byte quote = bytes[pos];
+                if (quote == '"' || quote == '\'') {
+                    int valueEnd = indexOf(quote == '"' ? "\"" : "'", pos + 1);
+                    if (valueEnd == -1) return false;
+                    value = string(pos + 1, valueEnd);
+                    pos = valueEnd + 1;
+                } else {
+                    int valueStart = pos;
+                    while (pos < len && bytes[pos] != '>' && !isWhitespace(bytes[pos])) pos++;
+                    value = string(valueStart, pos);
+                }
+            }
+
+            if (name.equalsIgnoreCase("http-equiv") && httpEquiv == null) httpEquiv = value;
+            else if (name.equalsIgnoreCase("content") && content == null) content = value;
+            else if (name.equalsIgnoreCase("charset") && charset == null) charset = value;
+            else if (name.equalsIgnoreCase("encoding") && encoding == null) encoding = value;
+        }
+    }
+
+    private boolean matches(String seq) {
+        if (pos + seq.length() > len) return false;
+        for (int i = 0; i < seq.length(); i++) {
+            byte b = bytes[pos + i];
+            char c = seq.charAt(i);
+            if (b != c && !(isAsciiLetter(b) && (b | 0x20) == c)) return false; // seq is lower case
+        }
+        return true;
+    }
+
+    private int indexOf(String seq, int from) {
+        int saved = pos;
+        try {
+            for (pos = from; pos < len; pos++) {
+                if (matches(seq)) return pos;
+            }
+            return -1;
+        } finally {
+            pos = saved;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < len && isWhitespace(bytes[pos])) pos++;
+    }
+
+    private String string(int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+    }
+
+    private static boolean isAsciiLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+}
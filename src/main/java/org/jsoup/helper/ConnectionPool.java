@@ -0,0 +1,508 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+import org.jsoup.internal.Normalizer;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ A ConnectionPool holds HTTP clients and their open connections, so that they can be shared between sessions and
+ requests. Attach a pool to a session with {@link Connection#pool(ConnectionPool)}; requests made from any session
+ using the same pool will reuse its TLS connections and HTTP/2 streams to the same origins.
+ <p>Example:</p>
+ <pre>{@code
+ ConnectionPool pool = new ConnectionPool()
+     .maxConnections(16)
+     .rateLimit(10, 20)
+     .host("example.com", host -> host.maxConnections(64))
+     .host("legacy.example.com", host -> host.http2(false).rateLimit(1, 1));
+
+ Connection session = Jsoup.newSession().pool(pool);
+ }</pre>
+ <p>Requests with a pool use the {@code java.net.http.HttpClient} implementation when it is available (Java 11+),
+ which multiplexes concurrent requests to an HTTP/2 origin over one connection. Otherwise (or if the request sets a
+ {@link org.jsoup.Connection#sslSocketFactory(javax.net.ssl.SSLSocketFactory) custom SSL socket factory}, which
+ HttpClient can't use), the {@code HttpURLConnection} implementation is used, and only the
+ {@link #maxConnections(int) max connections} setting applies.</p>
+ <p>Keep-alive is managed by the JDK: idle HttpClient connections are closed after the time set by the
+ {@code jdk.httpclient.keepalive.timeout} system property (default 20 minutes for HTTP/1.1), and HttpURLConnection by
+ {@code http.keepAlive} and {@code http.maxConnections}. These settings apply to all clients in the JVM.</p>
+ <p>Each host may be given a maximum number of concurrent requests and a rate limit, and the pool may limit the total
+ concurrent requests. Requests that are waiting on the total are started in turn across hosts, so that one busy host
+ does not hold up the others. A redirect is limited as a new request to its location's host. If a host responds
+ {@code 429 Too Many Requests} or {@code 503 Service Unavailable} with a {@code Retry-After} header, further requests
+ to it wait until that time (when the host has a rate limit).</p>
+ <p>Configure a pool before it is first used. A pool is thread-safe.</p>
+ @since 1.21.1
+ */
+public class ConnectionPool {
+    private static final int MinSweep = 64;
+    static final long IdleNanos = TimeUnit.SECONDS.toNanos(60); // a limiter unused for this long may be dropped
+    private final HostSettings defaults = new HostSettings();
+    private final Map<String, HostSettings> hosts = new HashMap<>(); // by lower-cased host
+    private final Map<String, Limiter> limiters = new HashMap<>(); // by lower-cased host; idle ones are swept
+    private int sweepAt = MinSweep; // the count of limiters at which to next sweep idle ones
+    private final Scheduler scheduler = new Scheduler();
+    private final Map<ClientKey, Object> clients = new HashMap<>(); // HttpClients, by their settings
+
+    /**
+     Create a new, empty ConnectionPool.
+     */
+    public ConnectionPool() {}
+
+    /**
+     Set the default maximum number of concurrent requests to each host. When a host is at its maximum, further
+     requests wait (in order) until an earlier one completes. With HTTP/1.1, this is the maximum number of connections
+     to the host; with HTTP/2, the maximum number of concurrent streams. A request is complete once its response body
+     has been read, or it has been parsed.
+     @param max the maximum, or {@code 0} (the default) for unlimited
+     @return this pool, for chaining
+     */
+    public ConnectionPool maxConnections(int max) {
+        defaults.maxConnections(max);
+        return this;
+    }
+
+    /**
+     Set the default rate limit for requests to each host, as a token bucket: a host may be sent up to {@code burst}
+     requests at once, and then {@code perSecond} requests a second. Requests over the rate wait (in order) until they
+     may start.
+     @param perSecond the sustained rate, in requests per second; or {@code 0} (the default) for unlimited
+     @param burst the number of requests that may be made at once, at least 1
+     @return this pool, for chaining
+     */
+    public ConnectionPool rateLimit(double perSecond, int burst) {
+        defaults.rateLimit(perSecond, burst);
+        return this;
+    }
+
+    /**
+     Set the maximum number of concurrent requests across all hosts. When the pool is at its maximum, waiting requests
+     are started in turn across the hosts they are for, rather than in the order they were made.
+     @param max the maximum, or {@code 0} (the default) for unlimited
+     @return this pool, for chaining
+     */
+    public ConnectionPool maxTotalConnections(int max) {
+        Validate.isTrue(max >= 0, "max connections must be 0 (unlimited) or larger");
+        synchronized (scheduler) {
+            scheduler.maxTotal = max;
+        }
+        return this;
+    }
+
+    /**
+     Set if requests should prefer HTTP/2 by default, and fall back to HTTP/1.1 if the server does not support it.
+     Defaults to {@code true}.
+     @param http2 {@code false} to only use HTTP/1.1
+     @return this pool, for chaining
+     */
+    public ConnectionPool http2(boolean http2) {
+        defaults.http2(http2);
+        return this;
+    }
+
+    /**
+     Configure the settings for a specific host, which will otherwise use this pool's defaults. The host's settings
+     start from the defaults as set when this method is called.
+     @param host the host name, e.g. {@code example.com}
+     @param settings a callback to configure the host settings
+     @return this pool, for chaining
+     */
+    public ConnectionPool host(String host, Consumer<HostSettings> settings) {
+        Validate.notEmptyParam(host, "host");
+        Validate.notNullParam(settings, "settings");
+        synchronized (this) {
+            HostSettings hostSettings = hosts.get(Normalizer.lowerCase(host));
+            if (hostSettings == null) {
+                hostSettings = defaults.copy();
+                hosts.put(Normalizer.lowerCase(host), hostSettings);
+            }
+            settings.accept(hostSettings);
+        }
+        return this;
+    }
+
+    /** Get the settings that apply to the host. */
+    synchronized HostSettings settings(String host) {
+        HostSettings settings = hosts.get(Normalizer.lowerCase(host));
+        return settings != null ? settings : defaults;
+    }
+
+    /** Get the request limiter for the host; or null if the host and the pool are unlimited. */
+    synchronized @Nullable Limiter limiter(String host) {
+        HostSettings settings = settings(host);
+        boolean total;
+        synchronized (scheduler) {
+            total = scheduler.maxTotal > 0;
+        }
+        if (settings.maxConnections == 0 && settings.perSecond == 0 && !total) return null;
+        String key = Normalizer.lowerCase(host);
+        long now = System.nanoTime();
+        Limiter limiter = limiters.get(key);
+        if (limiter == null) {
+            if (limiters.size() >= sweepAt) sweep(now);
+            limiter = new Limiter(scheduler, settings.maxConnections,
+                settings.perSecond > 0 ? new TokenBucket(settings.perSecond, settings.burst) : null);
+            limiters.put(key, limiter);
+        }
+        limiter.used(now);
+        return limiter;
+    }
+
+    /**
+     Drop the limiters that are idle: with no active or waiting requests, not recently used, and with their rate limit
+     refilled and not paused; so a new one would limit the same. Keeps the map from growing with every host seen.
+     */
+    synchronized void sweep(long now) {
+        synchronized (scheduler) {
+            Iterator<Limiter> it = limiters.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isIdle(now)) it.remove();
+            }
+        }
+        sweepAt = Math.max(MinSweep, limiters.size() * 2);
+    }
+
+    /** Complete the future after the delay, without holding a thread. */
+    static CompletableFuture<Void> delay(long nanos) {
+        CompletableFuture<Void> delayed = new CompletableFuture<>();
+        Timer.Scheduler.schedule(() -> delayed.complete(null), nanos, TimeUnit.NANOSECONDS);
+        return delayed;
+    }
+
+    /**
+     Get a shared client for the HTTP version and authenticator, or create one. The client type is opaque here so that
+     this class does not depend on the Java 11 HttpClient.
+     */
+    synchronized Object client(boolean http2, @Nullable RequestAuthenticator authenticator, Supplier<Object> create) {
+        ClientKey key = new ClientKey(http2, authenticator);
+        Object client = clients.get(key);
+        if (client == null) {
+            client = create.get();
+            clients.put(key, client);
+        }
+        return client;
+    }
+
+    /**
+     Settings for requests to a specific host. See {@link ConnectionPool#host(String, Consumer)}.
+     */
+    public static class HostSettings {
+        int maxConnections = 0;
+        boolean http2 = true;
+        double perSecond = 0;
+        int burst = 1;
+
+        HostSettings() {}
+
+        /**
+         Set the maximum number of concurrent requests to this host.
+         @param max the maximum, or {@code 0} for unlimited
+         @return these settings, for chaining
+         @see ConnectionPool#maxConnections(int)
+         */
+        public HostSettings maxConnections(int max) {
+            Validate.isTrue(max >= 0, "max connections must be 0 (unlimited) or larger");
+            maxConnections = max;
+            return this;
+        }
+
+        /**
+         Set if requests to this host should prefer HTTP/2.
+         @param http2 {@code false} to only use HTTP/1.1
+         @return these settings, for chaining
+         @see ConnectionPool#http2(boolean)
+         */
+        public HostSettings http2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        /**
+         Set the rate limit for requests to this host.
+         @param perSecond the sustained rate, in requests per second; or {@code 0} for unlimited
+         @param burst the number of requests that may be made at once, at least 1
+         @return these settings, for chaining
+         @see ConnectionPool#rateLimit(double, int)
+         */
+        public HostSettings rateLimit(double perSecond, int burst) {
+            Validate.isTrue(perSecond >= 0, "rate must be 0 (unlimited) or larger");
+            Validate.isTrue(burst >= 1, "burst must be 1 or larger");
+            this.perSecond = perSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        HostSettings copy() {
+            HostSettings copy = new HostSettings();
+            copy.maxConnections = maxConnections;
+            copy.http2 = http2;
+            copy.perSecond = perSecond;
+            copy.burst = burst;
+            return copy;
+        }
+    }
+
+    /**
+     Limits the requests to a host: the number of concurrent requests, and their rate. Permits are handed to waiting
+     requests in the order they asked, subject to the pool's total limit. All limiters in a pool lock on its scheduler.
+     */
+    static final class Limiter {
+        private final Scheduler scheduler;
+        private final int max; // 0 for unlimited
+        private int active = 0;
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+        private final @Nullable TokenBucket rate;
+        private long lastUsed = System.nanoTime(); // when last looked up, or a reserved start time; for the sweep
+
+        Limiter(int max) {
+            this(new Scheduler(), max, null);
+        }
+
+        Limiter(Scheduler scheduler, int max, @Nullable TokenBucket rate) {
+            this.scheduler = scheduler;
+            this.max = max;
+            this.rate = rate;
+        }
+
+        /**
+         Try to take a permit. If one is not available, the callback is queued, and will be run (on the releasing
+         thread) once a permit has been handed to it. Any rate limit delay is not applied; see {@link #reserve()}.
+         @return true if the permit was taken now; false if the callback was queued
+         */
+        boolean acquire(Runnable onAcquired) {
+            synchronized (scheduler) {
+                if (waiting.isEmpty() && canStart()) {
+                    start();
+                    return true;
+                }
+                waiting.add(onAcquired);
+                scheduler.waiting(this);
+                return false;
+            }
+        }
+
+        /**
+         Take a permit, blocking until the rate limit allows and one is available. The rate wait comes first, so that a
+         request waiting on its host's rate doesn't hold a permit (or a slot of the pool's total) from other requests.
+         Both waits count toward the request's timeout.
+         @param startTime the nanoTime the request started
+         @param timeoutMillis the request's total timeout; 0 for none
+         @throws SocketTimeoutException if a permit was not available before the timeout
+         */
+        void acquire(long startTime, int timeoutMillis) throws IOException {
+            long delay = reserve();
+            if (delay > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+
+            CountDownLatch latch = new CountDownLatch(1);
+            Runnable onAcquired = latch::countDown;
+            try {
+                if (acquire(onAcquired)) return;
+                if (timeoutMillis == 0) {
+                    latch.await();
+                    return;
+                }
+                long remaining = startTime + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - System.nanoTime();
+                if (latch.await(remaining, TimeUnit.NANOSECONDS)) return;
+                if (dequeue(onAcquired)) // else was handed the permit as the wait expired, so keep it
+                    throw new SocketTimeoutException("Timed out waiting for a connection from the pool");
+            } catch (InterruptedException e) {
+                if (!dequeue(onAcquired)) release(); // was handed the permit in the meantime
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        /** Remove a waiting request's callback. @return true if it was still queued; false if it has taken a permit */
+        private boolean dequeue(Runnable onAcquired) {
+            synchronized (scheduler) {
+                return waiting.remove(onAcquired);
+            }
+        }
+
+        /**
+         Reserve the next start time under the rate limit.
+         @return the nanos to wait before starting the request, or 0 to start now
+         */
+        long reserve() {
+            if (rate == null) return 0;
+            synchronized (scheduler) {
+                long now = System.nanoTime();
+                long wait = rate.reserve(now);
+                used(now + wait); // the request will acquire then
+                return wait;
+            }
+        }
+
+        /** Mark the limiter as used at the time, so it isn't swept until idle after then. */
+        void used(long time) {
+            synchronized (scheduler) {
+                if (time - lastUsed > 0) lastUsed = time;
+            }
+        }
+
+        /** Test if the limiter is idle, and so may be dropped. Called under the scheduler lock. */
+        boolean isIdle(long now) {
+            return active == 0 && waiting.isEmpty() && now - lastUsed > IdleNanos && (rate == null || rate.isIdle(now));
+        }
+
+        /** Hold further requests until the time (per {@link System#nanoTime()}), e.g. from a Retry-After. */
+        void pause(long until) {
+            if (rate == null) return; // an unlimited rate can't be paused; and is not expected to be
+            synchronized (scheduler) {
+                rate.pause(until);
+            }
+        }
+
+        /** Release a permit, handing it (or the pool's) to the next waiting request if there is one. */
+        void release() {
+            List<Runnable> next;
+            synchronized (scheduler) {
+                active--;
+                scheduler.active--;
+                next = scheduler.dispatch();
+            }
+            for (Runnable onAcquired : next) onAcquired.run();
+        }
+
+        int active() {
+            synchronized (scheduler) {
+                return active;
+            }
+        }
+
+        private boolean canStart() {
+            return (max == 0 || active < max) && (scheduler.maxTotal == 0 || scheduler.active < scheduler.maxTotal);
+        }
+
+        private void start() {
+            active++;
+            scheduler.active++;
+        }
+    }
+
+    /**
+     Tracks the total requests in a pool, and hands released permits to hosts with waiting requests in turn. Guards the
+     state of its limiters.
+     */
+    static final class Scheduler {
+        int maxTotal = 0; // 0 for unlimited
+        int active = 0;
+        private final ArrayDeque<Limiter> queue = new ArrayDeque<>(); // hosts with waiting requests, in turn order
+
+        void waiting(Limiter limiter) {
+            if (!queue.contains(limiter)) queue.add(limiter);
+        }
+
+        /** Start waiting requests while permits are available, taking one from each host in turn. */
+        List<Runnable> dispatch() {
+            List<Runnable> started = new ArrayList<>();
+            int skipped = 0; // hosts that are at their own max
+            while (!queue.isEmpty() && skipped < queue.size() && (maxTotal == 0 || active < maxTotal)) {
+                Limiter limiter = queue.poll();
+                if (limiter.waiting.isEmpty()) continue; // its waiter was interrupted
+                if (limiter.max != 0 && limiter.active >= limiter.max) {
+                    queue.add(limiter);
+                    skipped++;
+                    continue;
+                }
+                skipped = 0;
+                limiter.start();
+                started.add(limiter.waiting.poll());
+                if (!limiter.waiting.isEmpty()) queue.add(limiter); // back of the line
+            }
+            return started;
+        }
+    }
+
+    /**
+     A token bucket rate limit. Tokens may go negative, as they are reserved by requests waiting to start; each waits
+     for the time until its token would have accrued.
+     */
+    static final class TokenBucket {
+        private final double perNano;
+        private final int burst;
+        private double tokens;
+        private long last = System.nanoTime();
+        private long pausedUntil = 0;
+        private boolean paused = false;
+
+        TokenBucket(double perSecond, int burst) {
+            this.perNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        long reserve(long now) {
+            tokens = Math.min(burst, tokens + (now - last) * perNano);
+            last = now;
+            tokens -= 1;
+            long wait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / perNano);
+            if (paused && pausedUntil - now > wait) wait = pausedUntil - now;
+            return wait;
+        }
+
+        void pause(long until) {
+            if (!paused || until - pausedUntil > 0) pausedUntil = until;
+            paused = true;
+        }
+
+        /** Test if the bucket has refilled to its burst and is not paused; so is the same as a new bucket. */
+        boolean isIdle(long now) {
+            return tokens + (now - last) * perNano >= burst && (!paused || now - pausedUntil > 0);
+        }
+    }
+
+    /** A daemon timer for delayed async requests. Lazily initialized on first use. */
+    private static final class Timer {
+        static final ScheduledExecutorService Scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jsoup-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class ClientKey {
+        final boolean http2;
+        final @Nullable RequestAuthenticator authenticator; // by identity
+
+        ClientKey(boolean http2, @Nullable RequestAuthenticator authenticator) {
+            this.http2 = http2;
+            this.authenticator = authenticator;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ClientKey)) return false;
+            ClientKey other = (ClientKey) o;
+            return http2 == other.http2 && authenticator == other.authenticator;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (http2 ? 1 : 0) + System.identityHashCode(authenticator);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ A {@code ContentDecoder} decodes a response body that has been sent with a {@code Content-Encoding}. jsoup decodes
+ {@code gzip} and {@code deflate} itself; add decoders for other encodings, such as Brotli ({@code br}) or Zstandard
+ ({@code zstd}), with {@link Connection#decoder(String, ContentDecoder)}. E.g., using the Brotli4j and zstd-jni
+ libraries:
+ <pre>{@code
+ Connection session = Jsoup.newSession()
+     .decoder("br", BrotliInputStream::new)
+     .decoder("zstd", ZstdInputStream::new);
+ }</pre>
+ @since 1.21.1
+ */
+@FunctionalInterface
+public interface ContentDecoder {
+    /**
+     Wrap the encoded input stream with a stream that decodes it.
+     @param in the encoded response body
+     @return a stream of the decoded body. Closing it should close the encoded stream.
+     @throws IOException if the stream cannot be decoded (e.g. its header is invalid)
+     */
+    InputStream decode(InputStream in) throws IOException;
+}
@@ -0,0 +1,335 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+import org.jsoup.internal.Normalizer;
+import org.jsoup.internal.StringUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.net.CookieStore;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ A concurrent {@link CookieStore}, used by default for a {@link Connection} session. Cookies are indexed by their domain,
+ so finding the cookies for a request is a lookup of each of its host's parent domains, rather than a scan of every
+ cookie. The {@code Cookie} request header for each host is built once, and reused until a cookie that applies to that
+ host is changed or expires.
+ <p>Cookies are matched to requests per RFC 6265: by domain, path, and the {@code Secure} attribute. A jar is
+ thread-safe, and may be shared between sessions via {@link Connection#cookieStore(CookieStore)}.</p>
+ @since 1.21.1
+ */
+public class CookieJar implements CookieStore {
+    private static final int MaxCachedHosts = 10_000;
+    final Map<String, Bucket> buckets = new ConcurrentHashMap<>(); // by lower-cased domain, without leading dot
+    private final Map<String, HostCookies> hosts = new ConcurrentHashMap<>(); // by scheme and host
+    private final AtomicInteger bucketsAdded = new AtomicInteger(); // invalidates cached hosts that had no such bucket
+
+    /**
+     Create a new, empty CookieJar.
+     */
+    public CookieJar() {}
+
+    @Override
+    public void add(@Nullable URI uri, HttpCookie cookie) {
+        Validate.notNullParam(cookie, "cookie");
+        String domain = cookie.getDomain();
+        if (domain == null) {
+            if (uri == null || uri.getHost() == null) return;
+            domain = uri.getHost();
+        }
+        bucket(domain).add(cookie);
+    }
+
+    /**
+     Get the cookies that apply to requests to the URI: those for its host or a parent domain, and its path, and only
+     {@code Secure} cookies if the URI is {@code https}. Expired cookies are removed. Cookies are ordered with longer
+     paths first.
+     */
+    @Override
+    public List<HttpCookie> get(URI uri) {
+        Validate.notNullParam(uri, "uri");
+        List<HttpCookie> cookies = new ArrayList<>();
+        String path = path(uri);
+        for (Stored stored : hostCookies(uri).cookies) {
+            if (pathMatches(path, stored.path)) cookies.add(stored.cookie);
+        }
+        return cookies;
+    }
+
+    /**
+     Get the value for the {@code Cookie} request header for a request to the URI.
+     @param uri the request URI
+     @return the header value, or an empty string if no cookies apply
+     */
+    public String header(URI uri) {
+        HostCookies host = hostCookies(uri);
+        if (host.rootHeader != null) return host.rootHeader; // all cookies are for every path
+        String path = path(uri);
+        StringBuilder header = StringUtil.borrowBuilder();
+        for (Stored stored : host.cookies) {
+            if (!pathMatches(path, stored.path)) continue;
+            if (header.length() > 0) header.append("; ");
+            header.append(stored.header);
+        }
+        return StringUtil.releaseBuilder(header);
+    }
+
+    @Override
+    public List<HttpCookie> getCookies() {
+        List<HttpCookie> cookies = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Bucket bucket : buckets.values()) {
+            for (Stored stored : bucket.cookies(now)) cookies.add(stored.cookie);
+        }
+        return Collections.unmodifiableList(cookies);
+    }
+
+    @Override
+    public List<URI> getURIs() {
+        List<URI> uris = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            if (entry.getValue().cookies(now).length == 0) continue;
+            try {
+                uris.add(new URI("http", entry.getKey(), null, null));
+            } catch (URISyntaxException ignored) {}
+        }
+        return Collections.unmodifiableList(uris);
+    }
+
+    @Override
+    public boolean remove(@Nullable URI uri, HttpCookie cookie) {
+        Validate.notNullParam(cookie, "cookie");
+        String domain = cookie.getDomain();
+        if (domain == null) {
+            if (uri == null || uri.getHost() == null) return false;
+            domain = uri.getHost();
+        }
+        Bucket bucket = buckets.get(normalizeDomain(domain));
+        return bucket != null && bucket.remove(cookie);
+    }
+
+    @Override
+    public boolean removeAll() {
+        boolean removed = false;
+        for (Bucket bucket : buckets.values()) {
+            removed |= bucket.clear();
+        }
+        return removed;
+    }
+
+    /** Get the bucket to add a cookie to. Reads use {@code buckets.get} instead, so that lookups don't add buckets. */
+    private Bucket bucket(String domain) {
+        String key = normalizeDomain(domain);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, d -> new Bucket());
+            bucketsAdded.incrementAndGet(); // after the bucket is visible, so a host read after this sees it
+        }
+        return bucket;
+    }
+
+    /** Get the cookies for the scheme and host; from the cache if none of its domains have changed. */
+    private HostCookies hostCookies(URI uri) {
+        String host = uri.getHost() != null ? Normalizer.lowerCase(uri.getHost()) : "";
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        String key = (secure ? "s:" : ":") + host;
+        long now = System.currentTimeMillis();
+
+        int added = bucketsAdded.get(); // read before the buckets, so a concurrently added bucket invalidates
+        HostCookies cached = hosts.get(key);
+        if (cached != null && cached.isValid(now, added)) return cached;
+
+        List<String> domains = domains(host);
+        Bucket[] hostBuckets = new Bucket[domains.size()];
+        int[] versions = new int[hostBuckets.length];
+        List<Stored> cookies = new ArrayList<>();
+        for (int i = 0; i < hostBuckets.length; i++) {
+            Bucket bucket = buckets.get(domains.get(i));
+            if (bucket == null) continue; // no cookies for that domain
+            hostBuckets[i] = bucket;
+            versions[i] = bucket.version; // read before the cookies, so a concurrent change invalidates
+            for (Stored stored : bucket.cookies(now)) {
+                if (stored.hostOnly && i > 0) continue; // a cookie without a domain is only for its host
+                if (!stored.cookie.getSecure() || secure) cookies.add(stored);
+            }
+        }
+        // longer paths first, as the Cookie header should be ordered; stable, so otherwise in order added
+        Collections.sort(cookies, (a, b) -> b.path.length() - a.path.length());
+        HostCookies hostCookies = new HostCookies(cookies, hostBuckets, versions, added);
+        if (hosts.size() >= MaxCachedHosts) hosts.clear();
+        hosts.put(key, hostCookies);
+        return hostCookies;
+    }
+
+    /**
+     Get the domains whose cookies may apply to the host: the host and each of its parent domains. Following
+     {@link HttpCookie#domainMatches}, a host without dots also matches {@code host.local} and {@code local}.
+     */
+    static List<String> domains(String host) {
+        List<String> domains = new ArrayList<>();
+        if (host.isEmpty()) return domains;
+        domains.add(host);
+        if (host.indexOf('.') == -1) {
+            domains.add(host + ".local");
+            domains.add("local");
+            return domains;
+        }
+        if (isIpAddress(host)) return domains; // no parent domains
+        int dot = host.indexOf('.');
+        while (dot != -1 && dot < host.length() - 1) {
+            domains.add(host.substring(dot + 1));
+            dot = host.indexOf('.', dot + 1);
+        }
+        return domains;
+    }
+
+    private static boolean isIpAddress(String host) {
+        if (host.indexOf(':') != -1 || host.startsWith("[")) return true; // ipv6
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c != '.' && (c < '0' || c > '9')) return false;
+        }
+        return true;
+    }
+
+    private static String normalizeDomain(String domain) {
+        String normal = Normalizer.lowerCase(domain);
+        return normal.startsWith(".") ? normal.substring(1) : normal;
+    }
+
+    private static String path(URI uri) {
+        String path = uri.getPath();
+        return path == null || path.isEmpty() ? "/" : path;
+    }
+
+    /** RFC 6265 path-match: the cookie path is the request path, or a prefix of it ending at a {@code /}. */
+    static boolean pathMatches(String path, String cookiePath) {
+        if (!path.startsWith(cookiePath)) return false;
+        return path.length() == cookiePath.length() || cookiePath.endsWith("/") || path.charAt(cookiePath.length()) == '/';
+    }
+
+    /** A stored cookie, with its expiry time and header form. */
+    private static final class Stored {
+        final HttpCookie cookie;
+        final String path;
+        final String header;
+        final long expires; // millis; Long.MAX_VALUE for a session cookie
+        final boolean hostOnly;
+
+        Stored(HttpCookie cookie) {
+            this.cookie = cookie;
+            this.hostOnly = cookie.getDomain() == null;
+            this.path = cookie.getPath() != null ? cookie.getPath() : "/";
+            // as CookieManager: a version 0 cookie is name=value, version 1 includes its attributes
+            this.header = cookie.getVersion() == 0 ? cookie.getName() + "=" + cookie.getValue() : cookie.toString();
+            long maxAge = cookie.getMaxAge();
+            this.expires = maxAge < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + maxAge * 1000;
+        }
+    }
+
+    /** The cookies for a domain. Reads are lock-free; changes copy the array, and bump the version. */
+    private static final class Bucket {
+        private static final Stored[] Empty = new Stored[0];
+        private volatile Stored[] cookies = Empty;
+        volatile int version = 0;
+
+        synchronized void add(HttpCookie cookie) {
+            List<Stored> updated = new ArrayList<>(cookies.length + 1);
+            for (Stored stored : cookies) {
+                if (!stored.cookie.equals(cookie)) updated.add(stored); // same name, domain, and path
+            }
+            if (cookie.getMaxAge() != 0) updated.add(new Stored(cookie)); // max-age 0 deletes the cookie
+            update(updated);
+        }
+
+        synchronized boolean remove(HttpCookie cookie) {
+            List<Stored> updated = new ArrayList<>(cookies.length);
+            for (Stored stored : cookies) {
+                if (!stored.cookie.equals(cookie)) updated.add(stored);
+            }
+            if (updated.size() == cookies.length) return false;
+            update(updated);
+            return true;
+        }
+
+        synchronized boolean clear() {
+            if (cookies.length == 0) return false;
+            update(Collections.emptyList());
+            return true;
+        }
+
+        /** Get the unexpired cookies; removing any that have expired. */
+        Stored[] cookies(long now) {
+            Stored[] current = cookies;
+            for (Stored stored : current) {
+                if (stored.expires <= now) {
+                    expire(now);
+                    return cookies;
+                }
+            }
+            return current;
+        }
+
+        private synchronized void expire(long now) {
+            List<Stored> updated = new ArrayList<>(cookies.length);
+            for (Stored stored : cookies) {
+                if (stored.expires > now) updated.add(stored);
+            }
+            if (updated.size() != cookies.length) update(updated);
+        }
+
+        private void update(List<Stored> updated) {
+            cookies = updated.toArray(Empty);
+            version++;
+        }
+    }
+
+    /**
+     The cookies that apply to a scheme and host, and the bucket versions they were read from. Domains without a bucket
+     have a null entry; the count of buckets added to the jar detects if one has since been added.
+     */
+    private static final class HostCookies {
+        final List<Stored> cookies;
+        final @Nullable String rootHeader; // the header, if all cookies have the root path
+        private final @Nullable Bucket[] buckets;
+        private final int[] versions;
+        private final int bucketsAdded;
+        private final long expires; // the first expiry of the cookies
+
+        HostCookies(List<Stored> cookies, @Nullable Bucket[] buckets, int[] versions, int bucketsAdded) {
+            this.cookies = cookies;
+            this.buckets = buckets;
+            this.versions = versions;
+            this.bucketsAdded = bucketsAdded;
+            long expires = Long.MAX_VALUE;
+            boolean allRoot = true;
+            StringBuilder header = StringUtil.borrowBuilder();
+            for (Stored stored : cookies) {
+                expires = Math.min(expires, stored.expires);
+                if (!stored.path.equals("/")) allRoot = false;
+                if (header.length() > 0) header.append("; ");
+                header.append(stored.header);
+            }
+            String built = StringUtil.releaseBuilder(header);
+            this.rootHeader = allRoot ? built : null;
+            this.expires = expires;
+        }
+
+        boolean isValid(long now, int bucketsAdded) {
+            if (now >= expires || bucketsAdded != this.bucketsAdded) return false;
+            for (int i = 0; i < buckets.length; i++) {
+                Bucket bucket = buckets[i];
+                if (bucket != null && bucket.version != versions[i]) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -40,7 +40,18 @@ class CookieUtil {
         Set<String> cookieSet = requestCookieSet(req);
         Set<String> cookies2 = null;
 
-        // stored:
+        // stored; from the jar's prebuilt header if available:
+        if (req.cookieManager().getCookieStore() instanceof CookieJar) {
+            String header = ((CookieJar) req.cookieManager().getCookieStore()).header(asUri(req.url));
+            if (cookieSet.isEmpty()) {
+                if (!header.isEmpty()) setter.accept(CookieName, header);
+                return;
+            }
+            if (!header.isEmpty()) Collections.addAll(cookieSet, header.split(Sep));
+            setter.accept(CookieName, StringUtil.join(cookieSet, Sep));
+            return;
+        }
+
         Map<String, List<String>> storedCookies = req.cookieManager().get(asUri(req.url), EmptyRequestHeaders);
         for (Map.Entry<String, List<String>> entry : storedCookies.entrySet()) {
             // might be Cookie: name=value; name=value\nCookie2: name=value; name=value
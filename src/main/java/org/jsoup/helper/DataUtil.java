@@ -5,16 +5,9 @@ import org.jsoup.internal.ControllableInputStream;
 import org.jsoup.internal.Normalizer;
 import org.jsoup.internal.SimpleStreamReader;
 import org.jsoup.internal.StringUtil;
-import org.jsoup.nodes.Comment;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.nodes.Node;
-import org.jsoup.nodes.XmlDeclaration;
 import org.jsoup.parser.Parser;
 import org.jsoup.parser.StreamParser;
-import org.jsoup.select.Elements;
-import org.jsoup.select.Evaluator;
-import org.jsoup.select.Selector;
 import org.jspecify.annotations.Nullable;
 
 import java.io.File;
@@ -140,7 +133,7 @@ public final class DataUtil {
         StreamParser streamer = new StreamParser(parser);
         String charsetName = charset != null? charset.name() : null;
         try {
-            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(openStream(path), charsetName, baseUri, parser);
+            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(openStream(path), charsetName);
             Reader reader = new SimpleStreamReader(charsetDoc.input, charsetDoc.charset);
             streamer.parse(reader, baseUri); // initializes the parse and the document, but does not step() it
         } catch (IOException e) {
@@ -197,26 +190,28 @@ public final class DataUtil {
      * Writes the input stream to the output stream. Doesn't close them.
      * @param in input stream to read from
      * @param out output stream to write to
+     * @return the number of bytes copied
      * @throws IOException on IO error
      */
-    static void crossStreams(final InputStream in, final OutputStream out) throws IOException {
+    static long crossStreams(final InputStream in, final OutputStream out) throws IOException {
         final byte[] buffer = new byte[DefaultBufferSize];
+        long total = 0;
         int len;
         while ((len = in.read(buffer)) != -1) {
             out.write(buffer, 0, len);
+            total += len;
         }
+        return total;
     }
 
     /** A struct to return a detected charset, and a document (if fully read). */
     static class CharsetDoc {
         Charset charset;
         InputStream input;
-        @Nullable Document doc;
 
-        CharsetDoc(Charset charset, @Nullable Document doc, InputStream input) {
+        CharsetDoc(Charset charset, InputStream input) {
             this.charset = charset;
             this.input = input;
-            this.doc = doc;
         }
     }
 
@@ -226,7 +221,7 @@ public final class DataUtil {
         final Document doc;
         CharsetDoc charsetDoc = null;
         try {
-            charsetDoc = detectCharset(input, charsetName, baseUri, parser);
+            charsetDoc = detectCharset(input, charsetName);
             doc = parseInputStream(charsetDoc, baseUri, parser);
         } finally {
             if (charsetDoc != null)
@@ -235,68 +230,19 @@ public final class DataUtil {
         return doc;
     }
 
-    private static final Evaluator metaCharset = Selector.evaluatorOf("meta[http-equiv=content-type], meta[charset]");
-
-    static CharsetDoc detectCharset(ControllableInputStream input, @Nullable String charsetName, String baseUri, Parser parser) throws IOException {
-        Document doc = null;
+    static CharsetDoc detectCharset(ControllableInputStream input, @Nullable String charsetName) throws IOException {
         // read the start of the stream and look for a BOM or meta charset:
         // look for BOM - overrides any other header or input
         String bomCharset = detectCharsetFromBom(input); // resets / consumes appropriately
         if (bomCharset != null)
             charsetName = bomCharset;
 
-        if (charsetName == null) { // read ahead and determine from meta. safe first parse as UTF-8
-            int origMax = input.max();
-            input.max(firstReadBufferSize);
-            input.mark(firstReadBufferSize);
-            input.allowClose(false); // ignores closes during parse, in case we need to rewind
-            try (Reader reader = new SimpleStreamReader(input, UTF_8)) { // input is currently capped to firstReadBufferSize
-                doc = parser.parseInput(reader, baseUri);
-                input.reset();
-                input.max(origMax); // reset for a full read if required
-            } catch (UncheckedIOException e) {
-                throw e.getCause();
-            } finally {
-                input.allowClose(true);
-            }
-
+        if (charsetName == null) { // peek at the first bytes, and scan for a meta charset or xml encoding; then rewind
             // look for <meta http-equiv="Content-Type" content="text/html;charset=gb2312"> or HTML5 <meta charset="gb2312">
-            Elements metaElements = doc.select(metaCharset);
-            String foundCharset = null; // if not found, will keep utf-8 as best attempt
-            for (Element meta : metaElements) {
-                if (meta.hasAttr("http-equiv"))
-                    foundCharset = getCharsetFromContentType(meta.attr("content"));
-                if (foundCharset == null && meta.hasAttr("charset"))
-                    foundCharset = meta.attr("charset");
-                if (foundCharset != null)
-                    break;
-            }
-
-            // look for <?xml encoding='ISO-8859-1'?>
-            if (foundCharset == null && doc.childNodeSize() > 0) {
-                Node first = doc.childNode(0);
-                XmlDeclaration decl = null;
-                if (first instanceof XmlDeclaration)
-                    decl = (XmlDeclaration) first;
-                else if (first instanceof Comment) {
-                    Comment comment = (Comment) first;
-                    if (comment.isXmlDeclaration())
-                        decl = comment.asXmlDeclaration();
-                }
-                if (decl != null && decl.name().equalsIgnoreCase("xml")) {
-                    foundCharset = decl.attr("encoding");
-                }
-            }
-            foundCharset = validateCharset(foundCharset);
-            if (foundCharset != null && !foundCharset.equalsIgnoreCase(defaultCharsetName)) { // need to re-decode. (case-insensitive check here to match how validate works)
-                foundCharset = foundCharset.trim().replaceAll("[\"']", "");
+            ByteBuffer start = peek(input);
+            String foundCharset = validateCharset(CharsetScanner.scan(start.array(), start.limit())); // if not found, will keep utf-8 as best attempt
+            if (foundCharset != null && !foundCharset.equalsIgnoreCase(defaultCharsetName)) // (case-insensitive check here to match how validate works)
                 charsetName = foundCharset;
-                doc = null;
-            } else if (input.baseReadFully()) { // if we have read fully, and the charset was correct, keep that current parse
-                input.close(); // the parser tried to close it
-            } else {
-                doc = null;
-            }
         } else { // specified by content type header (or by user on file load)
             Validate.notEmpty(charsetName, "Must set charset arg to character set of file to parse. Set to null to attempt to detect from HTML");
         }
@@ -305,14 +251,24 @@ public final class DataUtil {
         if (charsetName == null)
             charsetName = defaultCharsetName;
         Charset charset = charsetName.equals(defaultCharsetName) ? UTF_8 : Charset.forName(charsetName);
-        return new CharsetDoc(charset, doc, input);
+        return new CharsetDoc(charset, input);
     }
 
-    static Document parseInputStream(CharsetDoc charsetDoc, String baseUri, Parser parser) throws IOException {
-        // if doc != null it was fully parsed during charset detection; so just return that
-        if (charsetDoc.doc != null)
-            return charsetDoc.doc;
+    /**
+     Read the first bytes of the input (up to its max size), and rewind it. The read is subject to the input's timeout.
+     */
+    private static ByteBuffer peek(ControllableInputStream input) throws IOException {
+        int max = input.max();
+        int peekSize = max > 0 ? Math.min(max, firstReadBufferSize) : firstReadBufferSize;
+        input.mark(peekSize);
+        try {
+            return ControllableInputStream.readToByteBuffer(input, peekSize);
+        } finally {
+            input.reset();
+        }
+    }
 
+    static Document parseInputStream(CharsetDoc charsetDoc, String baseUri, Parser parser) throws IOException {
         final InputStream input = charsetDoc.input;
         Validate.notNull(input);
         final Document doc;
@@ -0,0 +1,526 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+import org.jsoup.internal.Normalizer;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ An HttpCache stores responses to GET requests, and serves repeat requests from the store while they are fresh, per the
+ {@code Cache-Control}, {@code Expires}, and {@code Last-Modified} response headers. Once a stored response is stale,
+ the request is sent with {@code If-None-Match} and {@code If-Modified-Since} headers from the stored {@code ETag} and
+ {@code Last-Modified} headers; if the server replies {@code 304 Not Modified}, the stored response is used.
+ <p>Attach a cache to a session with {@link Connection#cache(HttpCache)}:</p>
+ <pre>{@code
+ HttpCache cache = HttpCache.memory(32 * 1024 * 1024); // up to 32MB
+ Connection session = Jsoup.newSession().cache(cache);
+ Document doc = session.newRequest("https://example.com/").get();
+ }</pre>
+ <p>This is a private cache: responses with {@code Cache-Control: private} are stored, but those with
+ {@code no-store} are not, nor are responses to requests with an {@code Authorization} header. {@code Set-Cookie}
+ headers are not stored. A response is stored once its body has been read in full. Implement {@link #load(String)},
+ {@link #store(String, Entry)}, and {@link #remove(String)} to use a different store. A cache is thread-safe, and may be
+ shared between sessions.</p>
+ @since 1.21.1
+ */
+public abstract class HttpCache {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     Create a new HttpCache.
+     */
+    protected HttpCache() {}
+
+    /**
+     Create a cache that holds responses in memory, evicting the least recently used when the total size of the stored
+     bodies and headers would exceed the max size.
+     @param maxSize the maximum size of the cache, in bytes
+     @return a new memory cache
+     */
+    public static HttpCache memory(long maxSize) {
+        Validate.isTrue(maxSize > 0, "max size must be larger than 0");
+        return new MemoryCache(maxSize);
+    }
+
+    /**
+     Create a cache that stores responses as files in a directory, evicting the least recently used when the total size
+     of the files would exceed the max size. Eviction frees space down to 90% of the max size, so that it runs only
+     occasionally. The directory is created if it does not exist. It should not be used for other files, but may be
+     shared by caches in other processes.
+     @param directory the cache directory
+     @param maxSize the maximum size of the cache, in bytes
+     @return a new disk cache
+     @throws IOException if the directory could not be created
+     */
+    public static HttpCache disk(Path directory, long maxSize) throws IOException {
+        Validate.notNullParam(directory, "directory");
+        Validate.isTrue(maxSize > 0, "max size must be larger than 0");
+        Files.createDirectories(directory);
+        return new DiskCache(directory, maxSize);
+    }
+
+    /**
+     Load the stored entry for the key.
+     @param key the cache key (the request URL)
+     @return the entry, or {@code null} if there is none
+     @throws IOException if the entry could not be read; the request will be treated as a cache miss
+     */
+    protected abstract @Nullable Entry load(String key) throws IOException;
+
+    /**
+     Store the entry for the key, replacing any existing entry.
+     @param key the cache key (the request URL)
+     @param entry the entry to store
+     @throws IOException if the entry could not be stored; the response is still returned
+     */
+    protected abstract void store(String key, Entry entry) throws IOException;
+
+    /**
+     Remove any stored entry for the key.
+     @param key the cache key (the request URL)
+     @throws IOException if the entry could not be removed
+     */
+    protected abstract void remove(String key) throws IOException;
+
+    /**
+     Get the number of requests served from the cache without contacting the server.
+     @return the fresh hit count
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     Get the number of requests served from the cache after the server confirmed the stored response with a
+     {@code 304 Not Modified}.
+     @return the revalidated hit count
+     */
+    public long revalidatedCount() {
+        return revalidated.get();
+    }
+
+    /**
+     Get the number of cacheable requests that could not be served from the cache.
+     @return the miss count
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
+    /**
+     Get the ratio of cacheable requests that were served from the cache, whether fresh or revalidated.
+     @return the hit ratio, between 0 and 1; or 0 if there have been no cacheable requests
+     */
+    public double hitRatio() {
+        long hit = hits.get() + revalidated.get();
+        long total = hit + misses.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    void hit() { hits.incrementAndGet(); }
+    void revalidated() { revalidated.incrementAndGet(); }
+    void miss() { misses.incrementAndGet(); }
+
+    /**
+     A stored response: its status, headers, and body, the time it was received, and the values of any request headers
+     it varies by. Entries are immutable. Use {@link #write(OutputStream)} and {@link #read(InputStream)} to serialize
+     them to a custom store.
+     */
+    public static final class Entry {
+        private static final int Version = 1;
+        private static final long HeuristicMaxAge = 24 * 60 * 60 * 1000L; // a day
+
+        final String url;
+        final int statusCode;
+        final String statusMessage;
+        final Map<String, List<String>> headers;
+        final Map<String, String> vary; // lower-cased request header name -> value ("" if absent)
+        final byte[] body;
+        final long responseTime; // millis
+
+        Entry(String url, int statusCode, String statusMessage, Map<String, List<String>> headers,
+              Map<String, String> vary, byte[] body, long responseTime) {
+            this.url = url;
+            this.statusCode = statusCode;
+            this.statusMessage = statusMessage;
+            this.headers = headers;
+            this.vary = vary;
+            this.body = body;
+            this.responseTime = responseTime;
+        }
+
+        /**
+         Get the URL of the stored response.
+         @return the URL
+         */
+        public String url() {
+            return url;
+        }
+
+        /**
+         Get the approximate size of this entry, in bytes.
+         @return the size
+         */
+        public long size() {
+            long size = body.length + url.length() + 64;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                for (String value : header.getValue())
+                    size += header.getKey().length() + value.length() + 4;
+            }
+            return size;
+        }
+
+        /**
+         Write this entry to the stream.
+         @param out the output stream; not closed
+         @throws IOException if the entry could not be written
+         */
+        public void write(OutputStream out) throws IOException {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(Version);
+            data.writeUTF(url);
+            data.writeInt(statusCode);
+            data.writeUTF(statusMessage);
+            data.writeLong(responseTime);
+            data.writeInt(headers.size());
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                data.writeUTF(header.getKey());
+                data.writeInt(header.getValue().size());
+                for (String value : header.getValue()) data.writeUTF(value);
+            }
+            data.writeInt(vary.size());
+            for (Map.Entry<String, String> entry : vary.entrySet()) {
+                data.writeUTF(entry.getKey());
+                data.writeUTF(entry.getValue());
+            }
+            data.writeInt(body.length);
+            data.write(body);
+            data.flush();
+        }
+
+        /**
+         Read an entry, as written by {@link #write(OutputStream)}.
+         @param in the input stream; not closed
+         @return the entry
+         @throws IOException if the entry could not be read, or is not in the expected format
+         */
+        public static Entry read(InputStream in) throws IOException {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readInt() != Version) throw new IOException("Unsupported cache entry version");
+            String url = data.readUTF();
+            int statusCode = data.readInt();
+            String statusMessage = data.readUTF();
+            long responseTime = data.readLong();
+            int numHeaders = data.readInt();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int i = 0; i < numHeaders; i++) {
+                String name = data.readUTF();
+                int numValues = data.readInt();
+                List<String> values = new ArrayList<>(numValues);
+                for (int j = 0; j < numValues; j++) values.add(data.readUTF());
+                headers.put(name, values);
+            }
+            int numVary = data.readInt();
+            Map<String, String> vary = new LinkedHashMap<>();
+            for (int i = 0; i < numVary; i++) vary.put(data.readUTF(), data.readUTF());
+            byte[] body = new byte[data.readInt()];
+            data.readFully(body);
+            return new Entry(url, statusCode, statusMessage, headers, vary, body, responseTime);
+        }
+
+        /** Get the first value of the (case-insensitive) header, or null. */
+        @Nullable String header(String name) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty())
+                    return header.getValue().get(0);
+            }
+            return null;
+        }
+
+        /** Test if this entry may be used without revalidation at the time. */
+        boolean isFresh(long now) {
+            Map<String, String> cacheControl = cacheControl(headers);
+            if (cacheControl.containsKey("no-cache")) return false;
+            return age(now) < freshnessLifetime(cacheControl);
+        }
+
+        /** Test if this entry has a validator, so can be revalidated with a conditional request. */
+        boolean hasValidator() {
+            return header("ETag") != null || header("Last-Modified") != null;
+        }
+
+        /** Test if the request's values of the headers this entry varies by are the same as when stored. */
+        boolean matches(Connection.Request req) {
+            for (Map.Entry<String, String> entry : vary.entrySet()) {
+                String value = req.header(entry.getKey());
+                if (!entry.getValue().equals(value != null ? value : "")) return false;
+            }
+            return true;
+        }
+
+        /** Create a copy of this entry updated by the headers of a 304 response, received at the time. */
+        Entry revalidated(Map<String, List<String>> notModified, long now) {
+            Map<String, List<String>> updated = new LinkedHashMap<>(headers);
+            for (Map.Entry<String, List<String>> header : notModified.entrySet()) {
+                String name = header.getKey();
+                if (name == null || name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Set-Cookie"))
+                    continue;
+                updated.keySet().removeIf(existing -> existing.equalsIgnoreCase(name));
+                updated.put(name, header.getValue());
+            }
+            return new Entry(url, statusCode, statusMessage, updated, vary, body, now);
+        }
+
+        private long age(long now) {
+            long age = Math.max(0, now - responseTime);
+            String ageHeader = header("Age");
+            if (ageHeader != null) {
+                try {
+                    age += Math.max(0, Long.parseLong(ageHeader.trim())) * 1000;
+                } catch (NumberFormatException ignored) {}
+            }
+            return age;
+        }
+
+        private long freshnessLifetime(Map<String, String> cacheControl) {
+            String maxAge = cacheControl.get("max-age");
+            if (maxAge != null) {
+                try {
+                    return Long.parseLong(maxAge) * 1000;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+
+            long date = parseDate(header("Date"), responseTime);
+            String expires = header("Expires");
+            if (expires != null) return parseDate(expires, 0) - date; // an invalid date is in the past
+
+            // heuristic freshness: a tenth of the time since last modified
+            long lastModified = parseDate(header("Last-Modified"), -1);
+            if (lastModified != -1 && lastModified < date)
+                return Math.min((date - lastModified) / 10, HeuristicMaxAge);
+            return 0;
+        }
+    }
+
+    /** Parse the Cache-Control directives in the headers to a map of lower-cased name to (unquoted) value. */
+    static Map<String, String> cacheControl(Map<String, List<String>> headers) {
+        Map<String, String> directives = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() == null || !header.getKey().equalsIgnoreCase("Cache-Control")) continue;
+            for (String value : header.getValue()) {
+                for (String directive : value.split(",")) {
+                    int eq = directive.indexOf('=');
+                    String name = Normalizer.normalize(eq == -1 ? directive : directive.substring(0, eq));
+                    if (name.isEmpty()) continue;
+                    String arg = eq == -1 ? "" : directive.substring(eq + 1).trim();
+                    if (arg.length() >= 2 && arg.startsWith("\"") && arg.endsWith("\""))
+                        arg = arg.substring(1, arg.length() - 1);
+                    directives.put(name, arg);
+                }
+            }
+        }
+        return directives;
+    }
+
+    /** Parse an HTTP date, or return the default if null or invalid. */
+    static long parseDate(@Nullable String date, long defaultValue) {
+        if (date == null) return defaultValue;
+        try {
+            return dateFormat().parse(date.trim()).getTime();
+        } catch (ParseException e) {
+            return defaultValue;
+        }
+    }
+
+    /** Format a time as an HTTP date. */
+    static String formatDate(long time) {
+        return dateFormat().format(new Date(time));
+    }
+
+    private static SimpleDateFormat dateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+    /** Holds entries in memory, in least to most recently used order. */
+    private static final class MemoryCache extends HttpCache {
+        private final long maxSize;
+        private long size = 0;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        MemoryCache(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override protected synchronized @Nullable Entry load(String key) {
+            return entries.get(key);
+        }
+
+        @Override protected synchronized void store(String key, Entry entry) {
+            if (entry.size() > maxSize) return;
+            Entry prev = entries.put(key, entry);
+            if (prev != null) size -= prev.size();
+            size += entry.size();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (size > maxSize && eldest.hasNext()) {
+                size -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+
+        @Override protected synchronized void remove(String key) {
+            Entry prev = entries.remove(key);
+            if (prev != null) size -= prev.size();
+        }
+    }
+
+    /**
+     Stores each entry in a file named by the hash of its key. A file's modified time is updated when it is used, so
+     that the least recently used are evicted.
+     */
+    private static final class DiskCache extends HttpCache {
+        private static final String Suffix = ".entry";
+        private static final double LowWater = 0.9; // evict down to this fraction of the max, so not on every store
+        private final Path directory;
+        private final long maxSize;
+        private final long evictTo;
+        private long size = -1; // of the files, or -1 if not yet counted
+        private final AtomicLong tempCount = new AtomicLong();
+
+        DiskCache(Path directory, long maxSize) {
+            this.directory = directory;
+            this.maxSize = maxSize;
+            this.evictTo = (long) (maxSize * LowWater);
+        }
+
+        @Override protected @Nullable Entry load(String key) throws IOException {
+            Path file = file(key);
+            Entry entry;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                entry = Entry.read(in);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+            if (!entry.url.equals(key)) return null; // a hash collision
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return entry;
+        }
+
+        @Override protected void store(String key, Entry entry) throws IOException {
+            if (entry.size() > maxSize) return;
+            Path file = file(key);
+            Path temp = directory.resolve(file.getFileName() + "." + tempCount.incrementAndGet() + ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                entry.write(out);
+            }
+            long prevSize = Files.exists(file) ? Files.size(file) : 0;
+            long newSize = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                if (size == -1) {
+                    size = countSize();
+                } else {
+                    size += newSize - prevSize;
+                }
+                if (size > maxSize) evict(file);
+            }
+        }
+
+        @Override protected void remove(String key) throws IOException {
+            Path file = file(key);
+            synchronized (this) {
+                long prevSize = Files.exists(file) ? Files.size(file) : 0;
+                if (Files.deleteIfExists(file) && size != -1) size -= prevSize;
+            }
+        }
+
+        /**
+         Delete the least recently used files until the cache is under its low-water mark, so the next stores don't need
+         to evict. Keeps the just stored file.
+         */
+        private void evict(Path keep) throws IOException {
+            List<Path> files = entryFiles();
+            Map<Path, FileTime> times = new HashMap<>(files.size());
+            size = 0;
+            for (Path file : files) {
+                times.put(file, lastModified(file));
+                size += Files.size(file);
+            }
+            Collections.sort(files, (a, b) -> times.get(a).compareTo(times.get(b)));
+            for (Path file : files) {
+                if (size <= evictTo) break;
+                if (file.equals(keep)) continue;
+                long fileSize = Files.size(file);
+                if (Files.deleteIfExists(file)) size -= fileSize;
+            }
+        }
+
+        private long countSize() throws IOException {
+            long total = 0;
+            for (Path file : entryFiles()) total += Files.size(file);
+            return total;
+        }
+
+        private List<Path> entryFiles() throws IOException {
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + Suffix)) {
+                for (Path file : stream) files.add(file);
+            }
+            return files;
+        }
+
+        private static FileTime lastModified(Path file) {
+            try {
+                return Files.getLastModifiedTime(file);
+            } catch (IOException e) {
+                return FileTime.fromMillis(0);
+            }
+        }
+
+        private Path file(String key) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+                StringBuilder name = new StringBuilder(hash.length * 2 + Suffix.length());
+                for (int i = 0; i < 20; i++) // 160 bits is plenty for a file name
+                    name.append(Character.forDigit((hash[i] >> 4) & 0xf, 16)).append(Character.forDigit(hash[i] & 0xf, 16));
+                return directory.resolve(name.append(Suffix).toString());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e); // SHA-256 is a required algorithm
+            }
+        }
+    }
+}
@@ -14,13 +14,10 @@ import org.jspecify.annotations.Nullable;
 import javax.net.ssl.SSLSocketFactory;
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
 import java.net.CookieManager;
 import java.net.CookieStore;
@@ -28,7 +25,6 @@ import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
-import java.net.URLEncoder;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
@@ -40,11 +36,15 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
 import static org.jsoup.Connection.Method.HEAD;
 import static org.jsoup.helper.DataUtil.UTF_8;
@@ -65,6 +65,7 @@ public class HttpConnection implements Connection {
     public static final String DEFAULT_UA =
         "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/79.0.3945.130 Safari/537.36";
     private static final String USER_AGENT = "User-Agent";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
     public static final String CONTENT_TYPE = "Content-Type";
     public static final String MULTIPART_FORM_DATA = "multipart/form-data";
     public static final String FORM_URL_ENCODED = "application/x-www-form-urlencoded";
@@ -73,7 +74,7 @@ public class HttpConnection implements Connection {
     private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
 
     private HttpConnection.Request req;
-    private Connection.@Nullable Response res;
+    private volatile Connection.@Nullable Response res; // may be set by an async request's completing thread
     @Nullable Object client; // The HttpClient for this Connection, if via the HttpClientExecutor
     @Nullable RequestAuthenticator lastAuth; // The previous Authenticator used by this Connection, if via the HttpClientExecutor
 
@@ -359,6 +360,26 @@ public class HttpConnection implements Connection {
         return res;
     }
 
+    @Override
+    public CompletableFuture<Connection.Response> executeAsync() {
+        return Response.executeAsync(req).thenApply(executed -> {
+            res = executed;
+            return executed;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Document> getAsync() {
+        req.method(Method.GET);
+        return executeAsync().thenApply(executed -> {
+            try {
+                return executed.parse();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
     @Override
     public Connection.Request request() {
         return req;
@@ -395,6 +416,31 @@ public class HttpConnection implements Connection {
         return this;
     }
 
+    @Override public Connection pool(@Nullable ConnectionPool pool) {
+        req.pool = pool;
+        return this;
+    }
+
+    @Override public Connection decoder(String encoding, ContentDecoder decoder) {
+        req.decoder(encoding, decoder);
+        return this;
+    }
+
+    @Override public Connection cache(@Nullable HttpCache cache) {
+        req.cache = cache;
+        return this;
+    }
+
+    @Override public Connection retry(@Nullable RetryPolicy policy) {
+        req.retryPolicy = policy;
+        return this;
+    }
+
+    @Override public Connection listener(@Nullable RequestListener listener) {
+        req.listener = listener;
+        return this;
+    }
+
     @Override public Connection onResponseProgress(Progress<Connection.Response> handler) {
         req.responseProgress = handler;
         return this;
@@ -610,7 +656,7 @@ public class HttpConnection implements Connection {
         private int maxBodySizeBytes;
         private boolean followRedirects;
         private final Collection<Connection.KeyVal> data;
-        private @Nullable Object body = null; // String or InputStream
+        @Nullable Object body = null; // String or InputStream
         @Nullable String mimeBoundary;
         private boolean ignoreHttpErrors = false;
         private boolean ignoreContentType = false;
@@ -620,9 +666,14 @@ public class HttpConnection implements Connection {
         private @Nullable SSLSocketFactory sslSocketFactory;
         private CookieManager cookieManager;
         @Nullable RequestAuthenticator authenticator;
+        @Nullable ConnectionPool pool;
+        @Nullable HttpCache cache;
+        @Nullable RetryPolicy retryPolicy;
+        @Nullable RequestListener listener;
+        private final Map<String, ContentDecoder> decoders; // added decoders, by lower-cased encoding
         private @Nullable Progress<Connection.Response> responseProgress;
 
-        private final ReentrantLock executing = new ReentrantLock(); // detects and warns if same request used concurrently
+        private final AtomicBoolean executing = new AtomicBoolean(); // detects and warns if same request used concurrently
 
         Request() {
             super();
@@ -630,11 +681,12 @@ public class HttpConnection implements Connection {
             maxBodySizeBytes = 1024 * 1024 * 2; // 2MB
             followRedirects = true;
             data = new ArrayList<>();
+            decoders = new LinkedHashMap<>();
             method = Method.GET;
-            addHeader("Accept-Encoding", "gzip");
+            addHeader(ACCEPT_ENCODING, "gzip");
             addHeader(USER_AGENT, DEFAULT_UA);
             parser = Parser.htmlParser();
-            cookieManager = new CookieManager(); // creates a default InMemoryCookieStore
+            cookieManager = new CookieManager(new CookieJar(), null);
         }
 
         Request(Request copy) {
@@ -654,6 +706,11 @@ public class HttpConnection implements Connection {
             sslSocketFactory = copy.sslSocketFactory; // these are all synchronized so safe to share
             cookieManager = copy.cookieManager;
             authenticator = copy.authenticator;
+            pool = copy.pool;
+            cache = copy.cache;
+            retryPolicy = copy.retryPolicy;
+            listener = copy.listener;
+            decoders = new LinkedHashMap<>(copy.decoders);
             responseProgress = copy.responseProgress;
         }
 
@@ -770,6 +827,11 @@ public class HttpConnection implements Connection {
             return this;
         }
 
+        /** Test if the request body is a stream, so can only be sent once. */
+        boolean hasBodyStream() {
+            return body instanceof InputStream;
+        }
+
         @Override
         public Request parser(Parser parser) {
             this.parser = parser;
@@ -807,6 +869,40 @@ public class HttpConnection implements Connection {
         @Override @Nullable public RequestAuthenticator auth() {
             return authenticator;
         }
+
+        /** Add a decoder for the encoding, and advertise it in the Accept-Encoding header if not already. */
+        void decoder(String encoding, ContentDecoder decoder) {
+            Validate.notEmptyParam(encoding, "encoding");
+            Validate.notNullParam(decoder, "decoder");
+            String name = lowerCase(encoding.trim());
+            decoders.put(name, decoder);
+
+            String accepts = header(ACCEPT_ENCODING);
+            if (accepts == null) {
+                header(ACCEPT_ENCODING, name);
+                return;
+            }
+            for (String accept : accepts.split(",")) {
+                if (lowerCase(accept.trim()).equals(name)) return;
+            }
+            header(ACCEPT_ENCODING, accepts + ", " + name);
+        }
+
+        /** Get the decoder for the content encoding; an added decoder, or the built-in gzip and deflate decoders. */
+        @Nullable ContentDecoder decoder(String encoding) {
+            String name = lowerCase(encoding);
+            ContentDecoder decoder = decoders.get(name);
+            if (decoder != null) return decoder;
+            switch (name) {
+                case "gzip":
+                case "x-gzip":
+                    return InflaterStreams.Gzip;
+                case "deflate":
+                    return InflaterStreams.Deflate;
+                default:
+                    return null;
+            }
+        }
     }
 
     public static class Response extends HttpConnection.Base<Connection.Response> implements Connection.Response {
@@ -816,6 +912,8 @@ public class HttpConnection implements Connection {
         @Nullable String statusMessage;
         private @Nullable ByteBuffer byteData;
         private @Nullable ControllableInputStream bodyStream;
+        private RequestExecutor.@Nullable TimedInputStream downloadTimer; // if listened, times the raw body reads
+        private RequestExecutor.@Nullable TimedInputStream decodeTimer; // and the decoded body reads, if encoded
         @Nullable RequestExecutor executor;
         private @Nullable String charset;
         @Nullable String contentType;
@@ -843,12 +941,216 @@ public class HttpConnection implements Connection {
         }
 
         static Response execute(HttpConnection.Request req) throws IOException {
-            return execute(req, null);
+            acquire(req);
+            try {
+                return execute(req, null);
+            } finally {
+                req.executing.set(false);
+            }
         }
 
         static Response execute(HttpConnection.Request req, @Nullable Response prevRes) throws IOException {
-            Validate.isTrue(req.executing.tryLock(), "Multiple threads were detected trying to execute the same request concurrently. Make sure to use Connection#newRequest() and do not share an executing request between threads.");
+            prepareRequest(req);
+            RetryPolicy retry = req.retryPolicy != null && req.retryPolicy.canRetry(req) ? req.retryPolicy : null;
+            for (int attempt = 1; ; attempt++) {
+                long startTime = System.nanoTime();
+                Response res = null;
+                try {
+                    res = retry != null && retry.canHedge(req) ? attemptHedged(req, prevRes, retry) : attempt(req, prevRes);
+                    long delay = retry != null ? retry.delay(attempt, res) : -1;
+                    if (delay >= 0) {
+                        res.safeClose();
+                        RetryPolicy.sleep(delay);
+                        continue;
+                    }
+                    if (res.prepareRedirect()) {
+                        res.safeClose(); // frees the connection for the redirect
+                        return execute(res.req, res); // the request of a winning hedge is a copy
+                    }
+                    Validate.notNull(res.executor);
+                    res.prepareBody(res.executor, startTime);
+                } catch (IOException e) {
+                    if (res != null) {
+                        res.safeClose(); // will be non-null if got to conn
+                        throw e;
+                    }
+                    long delay = retry != null ? retry.delay(attempt, e) : -1;
+                    if (delay < 0) throw e;
+                    RetryPolicy.sleep(delay);
+                    continue;
+                } finally {
+                    // detach any thread local auth delegate
+                    if (req.authenticator != null)
+                        AuthenticationHandler.handler.remove();
+                }
+
+                res.executed = true;
+                return res;
+            }
+        }
+
+        /** Make one attempt at the request, to its response headers. */
+        private static Response attempt(HttpConnection.Request req, @Nullable Response prevRes) throws IOException {
+            RequestExecutor executor = RequestDispatch.get(req, prevRes);
+            executor.acquirePermit(); // waits if the pool's host is at its max connections or rate
+            try {
+                Response res = executor.execute();
+                executor.retryAfter(res);
+                return res;
+            } catch (IOException e) {
+                executor.safeClose(); // releases the permit
+                throw e;
+            }
+        }
+
+        /**
+         Make an attempt, and if it has not responded by the policy's hedge delay, a second attempt with a copy of the
+         request. The first response is used, and the other closed.
+         */
+        private static Response attemptHedged(HttpConnection.Request req, @Nullable Response prevRes, RetryPolicy retry) throws IOException {
+            long hedgeDelay = retry.hedgeDelay();
+            long start = System.nanoTime();
+            if (hedgeDelay < 0) { // not enough samples yet
+                Response res = attempt(req, prevRes);
+                retry.recordLatency(System.nanoTime() - start);
+                return res;
+            }
+
+            CompletableFuture<Response> first = attemptAsync(req, prevRes);
+            try {
+                Response res = first.get(hedgeDelay, TimeUnit.NANOSECONDS);
+                retry.recordLatency(System.nanoTime() - start);
+                return res;
+            } catch (TimeoutException e) {
+                // hedge below
+            } catch (InterruptedException e) {
+                first.thenAccept(Response::safeClose);
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+
+            CompletableFuture<Response> second = attemptAsync(new Request(req), prevRes);
+            CompletableFuture<Response> winner = new CompletableFuture<>();
+            AtomicInteger failures = new AtomicInteger();
+            BiConsumer<Response, Throwable> race = (res, err) -> {
+                if (err == null) {
+                    if (!winner.complete(res)) res.safeClose(); // the other won
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(err);
+                }
+            };
+            first.whenComplete(race);
+            second.whenComplete(race);
+            try {
+                Response res = winner.get();
+                retry.recordLatency(System.nanoTime() - start);
+                return res;
+            } catch (InterruptedException e) {
+                winner.thenAccept(Response::safeClose);
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        /** Run {@link #attempt} on a worker thread. */
+        private static CompletableFuture<Response> attemptAsync(HttpConnection.Request req, @Nullable Response prevRes) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return attempt(req, prevRes);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    if (req.authenticator != null)
+                        AuthenticationHandler.handler.remove();
+                }
+            }, RequestExecutor.Workers.Pool);
+        }
+
+        private static IOException unwrap(ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) return (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            return new IOException(cause);
+        }
+
+        /**
+         Execute the request without blocking, following redirects as they complete. The returned response has its
+         body read in full.
+         */
+        static CompletableFuture<Connection.Response> executeAsync(HttpConnection.Request req) {
+            acquire(req);
+            try {
+                return executeAsync(req, null).whenComplete((res, e) -> req.executing.set(false));
+            } catch (RuntimeException e) {
+                req.executing.set(false);
+                throw e;
+            }
+        }
+
+        private static CompletableFuture<Connection.Response> executeAsync(HttpConnection.Request req, @Nullable Response prevRes) {
+            try {
+                prepareRequest(req);
+            } catch (IOException e) {
+                return failed(e);
+            }
+            RetryPolicy retry = req.retryPolicy != null && req.retryPolicy.canRetry(req) ? req.retryPolicy : null;
+            return executeAsync(req, prevRes, retry, 1);
+        }
+
+        /** Execute an attempt at the request, and retry it after a delay if the policy allows. */
+        private static CompletableFuture<Connection.Response> executeAsync(HttpConnection.Request req, @Nullable Response prevRes, @Nullable RetryPolicy retry, int attempt) {
+            long startTime = System.nanoTime();
+            RequestExecutor executor = RequestDispatch.get(req, prevRes, true);
+            return executor.acquirePermitAsync().thenCompose(acquired -> executor.executeAsync(startTime)).handle((res, err) -> {
+                if (err != null) {
+                    executor.safeClose(); // releases the permit
+                    Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+                    long delay = retry != null && cause instanceof IOException ? retry.delay(attempt, (IOException) cause) : -1;
+                    if (delay < 0) return failed(cause);
+                    return ConnectionPool.delay(TimeUnit.MILLISECONDS.toNanos(delay))
+                        .thenCompose(a -> executeAsync(req, prevRes, retry, attempt + 1));
+                }
+
+                try {
+                    executor.retryAfter(res);
+                    long delay = retry != null ? retry.delay(attempt, res) : -1;
+                    if (delay >= 0) {
+                        res.safeClose();
+                        return ConnectionPool.delay(TimeUnit.MILLISECONDS.toNanos(delay))
+                            .thenCompose(a -> executeAsync(req, prevRes, retry, attempt + 1));
+                    }
+                    if (res.prepareRedirect()) {
+                        res.safeClose();
+                        return executeAsync(req, res);
+                    }
+                    res.prepareBody(executor, startTime);
+                    res.executed = true;
+                    res.readFully(); // from the buffered body, so won't block
+                    return CompletableFuture.<Connection.Response>completedFuture(res);
+                } catch (IOException e) {
+                    res.safeClose();
+                    return failed(e);
+                }
+            }).thenCompose(future -> future);
+        }
+
+        private static CompletableFuture<Connection.Response> failed(Throwable e) {
+            CompletableFuture<Connection.Response> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+
+        private static void acquire(HttpConnection.Request req) {
             Validate.notNullParam(req, "req");
+            Validate.isTrue(req.executing.compareAndSet(false, true), "Multiple threads were detected trying to execute the same request concurrently. Make sure to use Connection#newRequest() and do not share an executing request between threads.");
+        }
+
+        /** Validates the request, and sets up its URL and content type for execution. */
+        private static void prepareRequest(HttpConnection.Request req) throws IOException {
             URL url = req.url();
             Validate.notNull(url, "URL must be specified to connect");
             String protocol = url.getProtocol();
@@ -864,79 +1166,99 @@ public class HttpConnection implements Connection {
                 serialiseRequestUrl(req);
             else if (supportsBody)
                 setOutputContentType(req);
+        }
 
-            long startTime = System.nanoTime();
-            RequestExecutor executor = RequestDispatch.get(req, prevRes);
-            Response res = null;
-            try {
-                res = executor.execute();
-
-                // redirect if there's a location header (from 3xx, or 201 etc)
-                if (res.hasHeader(LOCATION) && req.followRedirects()) {
-                    if (res.statusCode != HTTP_TEMP_REDIR) {
-                        req.method(Method.GET); // always redirect with a get. any data param from original req are dropped.
-                        req.data().clear();
-                        req.requestBody(null);
-                        req.removeHeader(CONTENT_TYPE);
-                    }
+        /**
+         If this response redirects (and the request follows redirects), update the request to the redirect location.
+         @return true if the request should be executed again
+         */
+        private boolean prepareRedirect() throws MalformedURLException {
+            // redirect if there's a location header (from 3xx, or 201 etc)
+            if (!hasHeader(LOCATION) || !req.followRedirects())
+                return false;
+            if (statusCode != HTTP_TEMP_REDIR) {
+                req.method(Method.GET); // always redirect with a get. any data param from original req are dropped.
+                req.data().clear();
+                req.requestBody(null);
+                req.removeHeader(CONTENT_TYPE);
+            }
 
-                    String location = res.header(LOCATION);
-                    Validate.notNull(location);
-                    if (location.startsWith("http:/") && location.charAt(6) != '/') // fix broken Location: http:/temp/AAG_New/en/index.php
-                        location = location.substring(6);
-                    URL redir = StringUtil.resolve(req.url(), location);
-                    req.url(redir);
+            String location = header(LOCATION);
+            Validate.notNull(location);
+            if (location.startsWith("http:/") && location.charAt(6) != '/') // fix broken Location: http:/temp/AAG_New/en/index.php
+                location = location.substring(6);
+            URL redir = StringUtil.resolve(req.url(), location);
+            req.url(redir);
+            return true;
+        }
+
+        /** Checks the response status and content type, and sets up the body stream. */
+        private void prepareBody(RequestExecutor executor, long startTime) throws IOException {
+            if ((statusCode < 200 || statusCode >= 400) && !req.ignoreHttpErrors())
+                    throw new HttpStatusException("HTTP error fetching URL", statusCode, req.url().toString());
+
+            // check that we can handle the returned content type; if not, abort before fetching it
+            String contentType = contentType();
+            if (contentType != null
+                    && !req.ignoreContentType()
+                    && !contentType.startsWith("text/")
+                    && !xmlContentTypeRxp.matcher(contentType).matches()
+                    )
+                throw new UnsupportedMimeTypeException("Unhandled content type. Must be text/*, */xml, or */*+xml",
+                        contentType, req.url().toString());
+
+            // switch to the XML parser if content type is xml and not parser not explicitly set
+            if (contentType != null && xmlContentTypeRxp.matcher(contentType).matches()) {
+                if (!req.parserDefined) req.parser(Parser.xmlParser());
+            }
 
-                    return execute(req, res);
+            charset = DataUtil.getCharsetFromContentType(contentType); // may be null, readInputStream deals with it
+            if (hasBody()) {
+                InputStream stream = executor.body();
+                if (req.listener != null) {
+                    downloadTimer = new RequestExecutor.TimedInputStream(stream);
+                    stream = downloadTimer;
                 }
-                if ((res.statusCode < 200 || res.statusCode >= 400) && !req.ignoreHttpErrors())
-                        throw new HttpStatusException("HTTP error fetching URL", res.statusCode, req.url().toString());
-
-                // check that we can handle the returned content type; if not, abort before fetching it
-                String contentType = res.contentType();
-                if (contentType != null
-                        && !req.ignoreContentType()
-                        && !contentType.startsWith("text/")
-                        && !xmlContentTypeRxp.matcher(contentType).matches()
-                        )
-                    throw new UnsupportedMimeTypeException("Unhandled content type. Must be text/*, */xml, or */*+xml",
-                            contentType, req.url().toString());
-
-                // switch to the XML parser if content type is xml and not parser not explicitly set
-                if (contentType != null && xmlContentTypeRxp.matcher(contentType).matches()) {
-                    if (!req.parserDefined) req.parser(Parser.xmlParser());
+                long decodeStart = System.nanoTime();
+                InputStream decoded = decode(stream);
+                if (req.listener != null && decoded != stream) {
+                    decodeTimer = new RequestExecutor.TimedInputStream(decoded);
+                    decodeTimer.nanos = System.nanoTime() - decodeStart; // the decoder reads the (e.g. gzip) header when created
+                    decoded = decodeTimer;
                 }
+                stream = decoded;
 
-                res.charset = DataUtil.getCharsetFromContentType(res.contentType); // may be null, readInputStream deals with it
-                if (res.contentLength != 0 && req.method() != HEAD) { // -1 means unknown, chunked. sun throws an IO exception on 500 response with no content when trying to read body
-                    InputStream stream = executor.responseBody();
-                    if (res.hasHeaderWithValue(CONTENT_ENCODING, "gzip"))
-                        stream = new GZIPInputStream(stream);
-                    else if (res.hasHeaderWithValue(CONTENT_ENCODING, "deflate"))
-                        stream = new InflaterInputStream(stream, new Inflater(true));
-                    
-                    res.bodyStream = ControllableInputStream.wrap(
-                        stream, DefaultBufferSize, req.maxBodySize())
-                        .timeout(startTime, req.timeout());
-
-                    if (req.responseProgress != null) // set response progress listener
-                        res.bodyStream.onProgress(res.contentLength, req.responseProgress, res);
-                } else {
-                    res.byteData = DataUtil.emptyByteBuffer();
-                }
-            } catch (IOException e) {
-                if (res != null) res.safeClose(); // will be non-null if got to conn
-                throw e;
-            } finally {
-                req.executing.unlock();
+                bodyStream = ControllableInputStream.wrap(
+                    stream, DefaultBufferSize, req.maxBodySize())
+                    .timeout(startTime, req.timeout());
 
-                // detach any thread local auth delegate
-                if (req.authenticator != null)
-                    AuthenticationHandler.handler.remove();
+                if (req.responseProgress != null) // set response progress listener
+                    bodyStream.onProgress(contentLength, req.responseProgress, this);
+            } else {
+                byteData = DataUtil.emptyByteBuffer();
+                executor.releasePermit();
             }
+        }
 
-            res.executed = true;
-            return res;
+        /**
+         Wrap the body with decoders for its content encodings; in reverse of the order they were applied. Unknown
+         encodings are left as is.
+         */
+        private InputStream decode(InputStream stream) throws IOException {
+            String encodings = header(CONTENT_ENCODING);
+            if (encodings == null) return stream;
+            String[] names = encodings.split(",");
+            for (int i = names.length - 1; i >= 0; i--) {
+                ContentDecoder decoder = req.decoder(names[i].trim());
+                if (decoder != null) stream = decoder.decode(stream);
+            }
+            return stream;
+        }
+
+        /** If this response may have a body to read. */
+        boolean hasBody() {
+            // -1 means unknown, chunked. sun throws an IO exception on 500 response with no content when trying to read body
+            return contentLength != 0 && req.method() != HEAD;
         }
 
         @Override
@@ -981,19 +1303,33 @@ public class HttpConnection implements Connection {
         }
 
         @Override public Document parse() throws IOException {
+            // if listened, the parse time is that not spent reading the body stream
+            RequestExecutor.TimedInputStream timer = byteData == null ? (decodeTimer != null ? decodeTimer : downloadTimer) : null;
+            long readNanos = timer != null ? timer.nanos : 0;
+            long readBytes = timer != null ? timer.bytes : 0;
+            long start = System.nanoTime();
+
             ControllableInputStream stream = prepareParse();
             Document doc = DataUtil.parseInputStream(stream, charset, url.toExternalForm(), req.parser());
             doc.connection(new HttpConnection(req, this)); // because we're static, don't have the connection obj. // todo - maybe hold in the req?
             charset = doc.outputSettings().charset().name(); // update charset from meta-equiv, possibly
-            safeClose();
+
+            long parseNanos = System.nanoTime() - start;
+            long parsedBytes = byteData != null ? byteData.limit() : 0;
+            if (timer != null) {
+                parseNanos -= timer.nanos - readNanos;
+                parsedBytes = timer.bytes - readBytes;
+            }
+            safeClose(); // reports the download
+            if (executor != null)
+                executor.phase(RequestListener.Phase.Parse, start, parseNanos, parsedBytes);
             return doc;
         }
 
         @Override public StreamParser streamParser() throws IOException {
             ControllableInputStream stream = prepareParse();
             String baseUri = url.toExternalForm();
-            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(stream, charset, baseUri, req.parser());
-            // note that there may be a document in CharsetDoc as a result of scanning meta-data -- but as requires a stream parse, it is not used here. todo - revisit.
+            DataUtil.CharsetDoc charsetDoc = DataUtil.detectCharset(stream, charset);
 
             // set up the stream parser and rig this connection up to the parsed doc:
             StreamParser streamer = new StreamParser(req.parser());
@@ -1100,6 +1436,7 @@ public class HttpConnection implements Connection {
          * keep-alives to work (as the underlying connection is actually held open, despite the name).
          */
         private void safeClose() {
+            if (executor != null) reportBodyPhases(executor);
             if (bodyStream != null) {
                 try {
                     bodyStream.close();
@@ -1117,6 +1454,17 @@ public class HttpConnection implements Connection {
             this.req = request;
         }
 
+        /** Report the download and decompress phases of the body to the listener, once the body is closed. */
+        private void reportBodyPhases(RequestExecutor executor) {
+            RequestExecutor.TimedInputStream download = downloadTimer, decode = decodeTimer;
+            downloadTimer = null;
+            decodeTimer = null;
+            if (download != null && executor.bufferedBody == null) // else reported when buffered
+                executor.phase(RequestListener.Phase.Download, download.start, download.nanos, download.bytes);
+            if (download != null && decode != null)
+                executor.phase(RequestListener.Phase.Decompress, decode.start, decode.nanos - download.nanos, decode.bytes);
+        }
+
         // set up url, method, header, cookies
         void prepareResponse(Map<String, List<String>> resHeaders, HttpConnection.@Nullable Response previousResponse) throws IOException {
             processResponseHeaders(resHeaders); // includes cookie key/val read during header scan
@@ -1237,62 +1585,6 @@ public class HttpConnection implements Connection {
             req.mimeBoundary = bound;
         }
 
-        static void writePost(final HttpConnection.Request req, final OutputStream outputStream) throws IOException {
-            final Collection<Connection.KeyVal> data = req.data();
-            final BufferedWriter w = new BufferedWriter(new OutputStreamWriter(outputStream, req.postDataCharset()));
-            final String boundary = req.mimeBoundary;
-
-            if (boundary != null) { // a multipart post
-                for (Connection.KeyVal keyVal : data) {
-                    w.write("--");
-                    w.write(boundary);
-                    w.write("\r\n");
-                    w.write("Content-Disposition: form-data; name=\"");
-                    w.write(encodeMimeName(keyVal.key())); // encodes " to %22
-                    w.write("\"");
-                    final InputStream input = keyVal.inputStream();
-                    if (input != null) {
-                        w.write("; filename=\"");
-                        w.write(encodeMimeName(keyVal.value()));
-                        w.write("\"\r\nContent-Type: ");
-                        String contentType = keyVal.contentType();
-                        w.write(contentType != null ? contentType : DefaultUploadType);
-                        w.write("\r\n\r\n");
-                        w.flush();
-                        DataUtil.crossStreams(input, outputStream);
-                        outputStream.flush();
-                    } else {
-                        w.write("\r\n\r\n");
-                        w.write(keyVal.value());
-                    }
-                    w.write("\r\n");
-                }
-                w.write("--");
-                w.write(boundary);
-                w.write("--");
-            } else if (req.body != null) { // a single body (bytes or plain text);  data will be in query string
-                if (req.body instanceof String) {
-                    w.write((String) req.body);
-                } else if (req.body instanceof InputStream) {
-                    DataUtil.crossStreams((InputStream) req.body, outputStream);
-                    outputStream.flush();
-                } else {
-                    throw new IllegalStateException();
-                }
-            } else { // regular form data (application/x-www-form-urlencoded)
-                boolean first = true;
-                for (Connection.KeyVal keyVal : data) {
-                    if (!first) w.append('&');
-                    else first = false;
-
-                    w.write(URLEncoder.encode(keyVal.key(), req.postDataCharset()));
-                    w.write('=');
-                    w.write(URLEncoder.encode(keyVal.value(), req.postDataCharset()));
-                }
-            }
-            w.close();
-        }
-
         // for get url reqs, serialise the data map into the url
         private static void serialiseRequestUrl(Connection.Request req) throws IOException {
             UrlBuilder in = new UrlBuilder(req.url());
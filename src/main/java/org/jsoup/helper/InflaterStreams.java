@@ -0,0 +1,173 @@
+package org.jsoup.helper;
+
+import org.jsoup.internal.SoftPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ The built-in {@code gzip} and {@code deflate} decoders. Rather than allocating native zlib state for each response (as
+ {@link java.util.zip.GZIPInputStream} does), the streams borrow an {@link Inflater} from a pool, and return it on
+ close.
+ */
+final class InflaterStreams {
+    static final ContentDecoder Gzip = GzipStream::new;
+    static final ContentDecoder Deflate = PooledStream::new;
+
+    private static final SoftPool<Inflater> InflaterPool = new SoftPool<>(() -> new Inflater(true)); // raw deflate
+
+    private InflaterStreams() {}
+
+    /** An inflating stream that returns its Inflater to the pool when closed. */
+    static class PooledStream extends InflaterInputStream {
+        private boolean closed = false;
+
+        PooledStream(InputStream in) {
+            super(in, InflaterPool.borrow());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                super.close(); // doesn't end() the inflater, as we supplied it
+            } finally {
+                inf.reset();
+                InflaterPool.release(inf);
+            }
+        }
+    }
+
+    /**
+     A gzip stream (per RFC 1952), as {@link java.util.zip.GZIPInputStream} but with a pooled Inflater. The body is a
+     series of members, each a header, the deflated data, and a trailer holding the CRC-32 and length of that data. Each
+     member's trailer is verified, and the data of consecutive members is read as one stream.
+     */
+    static final class GzipStream extends PooledStream {
+        private static final int Id1 = 0x1f, Id2 = 0x8b; // the first bytes of each member
+        private static final int MethodDeflate = 8;
+        private static final int FlagHcrc = 1 << 1, FlagExtra = 1 << 2, FlagName = 1 << 3, FlagComment = 1 << 4;
+
+        private final CRC32 crc = new CRC32(); // of the member's header as it is read, and then of its data
+        private int unusedPos = 0, unused = 0; // bytes left in buf after the member's deflated data, read before 'in'
+        private boolean ended = false;
+
+        GzipStream(InputStream in) throws IOException {
+            super(in);
+            try {
+                if (nextByte() != Id1 || nextByte() != Id2) throw new ZipException("Not in GZIP format");
+                readHeader();
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (!ended) {
+                int n = super.read(b, off, len);
+                if (n != -1) {
+                    crc.update(b, off, n);
+                    return n;
+                }
+                // the member's data is complete. The inflater may have been given more than that, so read on from there
+                unused = inf.getRemaining();
+                unusedPos = this.len - unused;
+                readTrailer();
+                ended = !startNextMember();
+            }
+            return -1;
+        }
+
+        /**
+         Reads a member's header, after its ID bytes, and readies the inflater for its data. The optional fields are
+         skipped, but the header's CRC is checked if present.
+         */
+        private void readHeader() throws IOException {
+            crc.reset();
+            crc.update(Id1);
+            crc.update(Id2);
+            if (headerByte() != MethodDeflate) throw new ZipException("Unsupported GZIP compression method");
+            int flags = headerByte();
+            for (int i = 0; i < 6; i++) headerByte(); // modification time (4), extra flags, operating system
+            if ((flags & FlagExtra) != 0) {
+                int extraLen = headerByte();
+                extraLen |= headerByte() << 8;
+                for (int i = 0; i < extraLen; i++) headerByte();
+            }
+            if ((flags & FlagName) != 0) skipString();
+            if ((flags & FlagComment) != 0) skipString();
+            if ((flags & FlagHcrc) != 0) {
+                int headerCrc = (int) crc.getValue() & 0xffff; // the low two bytes of the CRC-32 of the header so far
+                if (readLittleEndian(2) != headerCrc) throw new ZipException("Corrupt GZIP header");
+            }
+
+            crc.reset();
+            inf.reset();
+            if (unused > 0) {
+                inf.setInput(buf, unusedPos, unused);
+                unused = 0;
+            }
+        }
+
+        /** Reads the member's trailer, and checks the CRC-32 and length (modulo 2^32) of the data against it. */
+        private void readTrailer() throws IOException {
+            long expectedCrc = readLittleEndian(4);
+            long expectedSize = readLittleEndian(4);
+            if (expectedCrc != crc.getValue() || expectedSize != (inf.getBytesWritten() & 0xffffffffL))
+                throw new ZipException("Corrupt GZIP trailer");
+        }
+
+        /**
+         After a member's trailer, starts the next member, if there is one. Anything after the last member that does not
+         start with the member ID is not gzip data, and is disregarded.
+         @return true if another member was started; false at the end of the gzip data
+         */
+        private boolean startNextMember() throws IOException {
+            int b = nextByte();
+            if (b != Id1) return false;
+            if (nextByte() != Id2) return false;
+            readHeader();
+            return true;
+        }
+
+        private void skipString() throws IOException {
+            while (headerByte() != 0) {} // zero terminated
+        }
+
+        private int headerByte() throws IOException {
+            int b = requiredByte();
+            crc.update(b);
+            return b;
+        }
+
+        private long readLittleEndian(int bytes) throws IOException {
+            long value = 0;
+            for (int i = 0; i < bytes; i++)
+                value |= (long) requiredByte() << (8 * i);
+            return value;
+        }
+
+        private int requiredByte() throws IOException {
+            int b = nextByte();
+            if (b == -1) throw new EOFException("Unexpected end of GZIP stream");
+            return b;
+        }
+
+        /** The next byte after the deflated data: from the unused input in buf, and then the underlying stream. */
+        private int nextByte() throws IOException {
+            if (unused > 0) {
+                unused--;
+                return buf[unusedPos++] & 0xff;
+            }
+            return in.read();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.jsoup.helper.HttpConnection.DefaultUploadType;
+import static org.jsoup.helper.HttpConnection.encodeMimeName;
+
+/**
+ A request body: form data, a multipart upload, or a single body; as a sequence of encoded byte parts and the request's
+ InputStreams. The streams are read only as the body is sent, so large uploads are not held in memory.
+ */
+final class RequestBody {
+    private final List<Object> parts = new ArrayList<>(); // byte[] or InputStream
+    private final ByteArrayOutputStream text = new ByteArrayOutputStream(); // the current byte part
+    private final Writer w;
+    private boolean hasStreams = false;
+
+    private RequestBody(HttpConnection.Request req) throws IOException {
+        w = new OutputStreamWriter(text, req.postDataCharset());
+    }
+
+    /** Build the body for the request, as per its data, body, and content type. */
+    static RequestBody of(HttpConnection.Request req) throws IOException {
+        RequestBody body = new RequestBody(req);
+        body.build(req);
+        return body;
+    }
+
+    private void build(HttpConnection.Request req) throws IOException {
+        final String boundary = req.mimeBoundary;
+        if (boundary != null) { // a multipart post
+            for (Connection.KeyVal keyVal : req.data()) {
+                w.write("--");
+                w.write(boundary);
+                w.write("\r\n");
+                w.write("Content-Disposition: form-data; name=\"");
+                w.write(encodeMimeName(keyVal.key())); // encodes " to %22
+                w.write("\"");
+                final InputStream input = keyVal.inputStream();
+                if (input != null) {
+                    w.write("; filename=\"");
+                    w.write(encodeMimeName(keyVal.value()));
+                    w.write("\"\r\nContent-Type: ");
+                    String contentType = keyVal.contentType();
+                    w.write(contentType != null ? contentType : DefaultUploadType);
+                    w.write("\r\n\r\n");
+                    add(input);
+                } else {
+                    w.write("\r\n\r\n");
+                    w.write(keyVal.value());
+                }
+                w.write("\r\n");
+            }
+            w.write("--");
+            w.write(boundary);
+            w.write("--");
+        } else if (req.body != null) { // a single body (bytes or plain text);  data will be in query string
+            if (req.body instanceof String) {
+                w.write((String) req.body);
+            } else if (req.body instanceof InputStream) {
+                add((InputStream) req.body);
+            } else {
+                throw new IllegalStateException();
+            }
+        } else { // regular form data (application/x-www-form-urlencoded)
+            boolean first = true;
+            for (Connection.KeyVal keyVal : req.data()) {
+                if (!first) w.append('&');
+                else first = false;
+
+                w.write(URLEncoder.encode(keyVal.key(), req.postDataCharset()));
+                w.write('=');
+                w.write(URLEncoder.encode(keyVal.value(), req.postDataCharset()));
+            }
+        }
+        flushText();
+    }
+
+    private void add(InputStream stream) throws IOException {
+        flushText();
+        parts.add(stream);
+        hasStreams = true;
+    }
+
+    private void flushText() throws IOException {
+        w.flush();
+        if (text.size() == 0) return;
+        parts.add(text.toByteArray());
+        text.reset();
+    }
+
+    /** Test if the body includes any InputStreams, so can only be sent once. */
+    boolean hasStreams() {
+        return hasStreams;
+    }
+
+    /**
+     Get the length of the body, if known: the encoded parts, and each stream that knows its remaining length (a
+     {@link ByteArrayInputStream} or {@link FileInputStream}).
+     @return the length in bytes, or -1 if not known
+     */
+    long length() {
+        long length = 0;
+        for (Object part : parts) {
+            long partLength = part instanceof byte[] ? ((byte[]) part).length : knownLength((InputStream) part);
+            if (partLength < 0) return -1;
+            length += partLength;
+        }
+        return length;
+    }
+
+    /**
+     Get the body as bytes, reading any streams in to memory; e.g. when the body may need to be sent again.
+     */
+    byte[] bytes() throws IOException {
+        if (parts.isEmpty()) return new byte[0];
+        if (parts.size() == 1 && !hasStreams) return (byte[]) parts.get(0);
+        long length = length();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : 32);
+        writeTo(out);
+        return out.toByteArray();
+    }
+
+    /** Get the body as a stream, which reads each part's stream as it is reached. */
+    InputStream stream() {
+        List<InputStream> streams = new ArrayList<>(parts.size());
+        for (Object part : parts) {
+            streams.add(part instanceof byte[] ? new ByteArrayInputStream((byte[]) part) : (InputStream) part);
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /**
+     Write the body to the output, copying each stream in turn.
+     @return the number of bytes written
+     */
+    long writeTo(OutputStream out) throws IOException {
+        long written = 0;
+        for (Object part : parts) {
+            if (part instanceof byte[]) {
+                out.write((byte[]) part);
+                written += ((byte[]) part).length;
+            } else {
+                written += DataUtil.crossStreams((InputStream) part, out);
+            }
+        }
+        out.flush();
+        return written;
+    }
+
+    private static long knownLength(InputStream stream) {
+        try {
+            if (stream instanceof ByteArrayInputStream)
+                return stream.available(); // exact for a byte array
+            if (stream instanceof FileInputStream) {
+                FileInputStream file = (FileInputStream) stream;
+                return file.getChannel().size() - file.getChannel().position();
+            }
+        } catch (IOException ignored) {}
+        return -1;
+    }
+}
@@ -11,7 +11,9 @@ import java.lang.reflect.Constructor;
 /**
  Dispatches requests to either HttpClient (JDK 11+) or HttpURLConnection implementations. At startup, if we
  can instantiate the HttpClientExecutor class, requests will use that if the system property
- {@link SharedConstants#UseHttpClient} is set to {@code true}.
+ {@link SharedConstants#UseHttpClient} is set to {@code true}, or if the request has a {@link ConnectionPool}. If the
+ request has an {@link HttpCache}, the executor is wrapped to use it. Async requests use HttpClient whenever it is
+ available, so that they don't hold a thread while in flight.
  */
 class RequestDispatch {
 
@@ -31,7 +33,25 @@ class RequestDispatch {
     }
 
     static RequestExecutor get(Request request, @Nullable Response previousResponse) {
-        if (Boolean.getBoolean(SharedConstants.UseHttpClient) && clientConstructor != null) {
+        return get(request, previousResponse, false);
+    }
+
+    /**
+     Get the executor for the request. Pooled and async requests use HttpClient if available, unless the request needs a
+     custom SSL socket factory, which HttpClient doesn't support.
+     @param async if the request will be executed with {@link RequestExecutor#executeAsync(long)}
+     */
+    static RequestExecutor get(Request request, @Nullable Response previousResponse, boolean async) {
+        RequestExecutor executor = executor(request, previousResponse, async);
+        return request != null && request.cache != null ? new CachingExecutor(executor, request.cache) : executor;
+    }
+
+    private static RequestExecutor executor(Request request, @Nullable Response previousResponse, boolean async) {
+        // HttpClient can't use a custom SSL socket factory, so those requests stay on HttpURLConnection
+        boolean customSsl = request != null && request.sslSocketFactory() != null;
+        boolean pooled = request != null && request.pool != null;
+        boolean useClient = pooled || (async && request != null) || Boolean.getBoolean(SharedConstants.UseHttpClient);
+        if (useClient && !customSsl && clientConstructor != null) {
             try {
                 return clientConstructor.newInstance(request, previousResponse);
             } catch (Exception e) {
@@ -3,10 +3,22 @@ package org.jsoup.helper;
 import static org.jsoup.helper.HttpConnection.Request;
 import static org.jsoup.helper.HttpConnection.Response;
 
+import org.jsoup.internal.ControllableInputStream;
 import org.jspecify.annotations.Nullable;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  A shim interface to support both HttpURLConnection and HttpClient implementations, in a multi-version jar.
@@ -14,6 +26,8 @@ import java.io.InputStream;
 abstract class RequestExecutor {
     final Request req;
     final @Nullable Response prevRes;
+    @Nullable ByteBuffer bufferedBody; // the raw response body, when read in full by executeAsync
+    private ConnectionPool.@Nullable Limiter permit; // held from the request's pool, until the response is closed
 
     RequestExecutor(Request request, @Nullable Response previousResponse) {
         this.req = request;
@@ -25,4 +39,189 @@ abstract class RequestExecutor {
     abstract InputStream responseBody() throws IOException;
 
     abstract void safeClose();
+
+    /**
+     Execute the request without blocking the calling thread. The future completes once the response headers and the
+     (raw) body have been received; the body is then available from {@link #body()}. This implementation executes the
+     request on a worker thread; implementations that support non-blocking I/O should override.
+     @param startTime the nanoTime the request started, for the total timeout
+     */
+    CompletableFuture<Response> executeAsync(long startTime) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Response res = execute();
+                if (res.hasBody()) {
+                    long readStart = System.nanoTime();
+                    try (ControllableInputStream stream = ControllableInputStream.wrap(responseBody(), req.maxBodySize())) {
+                        bufferedBody = DataUtil.readToByteBuffer(stream.timeout(startTime, req.timeout()), 0); // capped by the stream
+                        phase(RequestListener.Phase.Download, readStart, System.nanoTime() - readStart, bufferedBody.limit());
+                    } catch (IOException e) {
+                        safeClose();
+                        throw e;
+                    }
+                }
+                return res;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                if (req.authenticator != null)
+                    AuthenticationHandler.handler.remove();
+            }
+        }, Workers.Pool);
+    }
+
+    /**
+     If the request has a pool that limits requests to its host, take a permit, waiting until the host's rate limit
+     allows and one is available. The wait counts toward the request's timeout, from this attempt's start.
+     @throws java.net.SocketTimeoutException if no permit was available within the timeout
+     */
+    void acquirePermit() throws IOException {
+        ConnectionPool.Limiter limiter = limiter();
+        if (limiter == null) return;
+        limiter.acquire(System.nanoTime(), req.timeout());
+        permit = limiter;
+    }
+
+    /**
+     As {@link #acquirePermit()}, but completes the future when the permit is taken, rather than blocking. As there, the
+     rate limit is waited for before the permit is taken.
+     */
+    CompletableFuture<Void> acquirePermitAsync() {
+        ConnectionPool.Limiter limiter = limiter();
+        if (limiter == null) return CompletableFuture.completedFuture(null);
+        long delay = limiter.reserve();
+        CompletableFuture<Void> ready = delay > 0 ? ConnectionPool.delay(delay) : CompletableFuture.completedFuture(null);
+        return ready.thenCompose(r -> {
+            CompletableFuture<Void> acquired = new CompletableFuture<>();
+            permit = limiter;
+            if (limiter.acquire(() -> acquired.complete(null)))
+                acquired.complete(null);
+            return acquired;
+        });
+    }
+
+    /**
+     If the response asks to retry later (a 429 or 503 with a {@code Retry-After} header), hold further requests to the
+     host until then. Only applies to hosts with a rate limit.
+     */
+    void retryAfter(Response res) {
+        ConnectionPool.Limiter limiter = permit;
+        if (limiter == null) return;
+        long delayMillis = retryAfterMillis(res);
+        if (delayMillis > 0)
+            limiter.pause(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+    }
+
+    /**
+     Get the time the response asks to wait before retrying: a 429 or 503 with a {@code Retry-After} header, in seconds
+     or as an HTTP date.
+     @return the time in millis, or -1 if none
+     */
+    static long retryAfterMillis(Response res) {
+        if (res.statusCode != 429 && res.statusCode != 503) return -1;
+        String retryAfter = res.header("Retry-After");
+        if (retryAfter == null) return -1;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            long date = HttpCache.parseDate(retryAfter, -1);
+            return date == -1 ? -1 : Math.max(0, date - System.currentTimeMillis());
+        }
+    }
+
+    /** Release any held permit. Called when the response is closed; subsequent calls are no-ops. */
+    void releasePermit() {
+        ConnectionPool.Limiter limiter = permit;
+        permit = null;
+        if (limiter != null) limiter.release();
+    }
+
+    private ConnectionPool.@Nullable Limiter limiter() {
+        return req.pool != null ? req.pool.limiter(req.url().getHost()) : null;
+    }
+
+    /** Report a phase of the request to its listener, if it has one. */
+    void phase(RequestListener.Phase phase, long startNanos, long durationNanos, long bytes) {
+        RequestListener listener = req.listener;
+        if (listener != null) listener.phase(req, phase, startNanos, durationNanos, bytes);
+    }
+
+    /**
+     If the request has a listener, resolve the host before connecting, to time the DNS phase; the connection then
+     finds the address in the JVM's cache. Not for requests through a proxy, which resolves the host itself.
+     */
+    void resolveHost() throws IOException {
+        if (req.listener == null || req.proxy() != null) return;
+        long start = System.nanoTime();
+        InetAddress.getAllByName(req.url().getHost());
+        phase(RequestListener.Phase.Dns, start, System.nanoTime() - start, 0);
+    }
+
+    /**
+     Get the response body; from memory if it was read by {@link #executeAsync(long)}, or otherwise the response stream.
+     */
+    final InputStream body() throws IOException {
+        if (bufferedBody != null)
+            return new ByteArrayInputStream(bufferedBody.array(), 0, bufferedBody.limit());
+        return responseBody();
+    }
+
+    /** Counts the bytes read from a stream, and the time spent reading them (including the time in wrapped streams). */
+    static final class TimedInputStream extends FilterInputStream {
+        long nanos = 0;
+        long bytes = 0;
+        final long start = System.nanoTime();
+
+        TimedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b != -1) bytes++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int read = super.read(b, off, len);
+            nanos += System.nanoTime() - start;
+            if (read > 0) bytes += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long start = System.nanoTime();
+            long skipped = super.skip(n);
+            nanos += System.nanoTime() - start;
+            bytes += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     Daemon worker threads for async requests that can't use non-blocking I/O (and hedged attempts), created as needed up
+     to a bounded count; further requests queue for a free worker. Idle workers time out. Lazily initialized on first
+     use.
+     */
+    static final class Workers {
+        static final int MaxWorkers = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+        static final AtomicInteger count = new AtomicInteger();
+        static final ExecutorService Pool;
+        static {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(MaxWorkers, MaxWorkers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "jsoup-async-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            Pool = pool;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+
+/**
+ A {@code RequestListener} is told the time and bytes of each phase of the requests made by a Connection (session), for
+ metrics and tracing; e.g. to find if the network or the parse is slow. Add a listener with
+ {@link Connection#listener(RequestListener)}:
+ <pre>{@code
+ Connection session = Jsoup.newSession()
+     .listener((req, phase, start, nanos, bytes) ->
+         histograms.get(phase).record(nanos));
+ }</pre>
+ <p>Each attempt of a request (including redirects and retries) reports its phases in turn. Phases that don't apply, or
+ that the HTTP implementation doesn't expose, are not reported: the {@code HttpClient} implementation pools its
+ connections, so doesn't report {@link Phase#Connect}; and {@link Phase#Dns} is not reported for requests through a
+ proxy, or for async requests with {@code HttpClient}, which resolve the host themselves. {@link Phase#Parse} is reported
+ for {@link Connection.Response#parse()}, not for a {@link Connection.Response#streamParser()}.</p>
+ <p>The listener is called on the thread doing the work, which may be a worker thread for async requests. It should
+ be quick, and thread-safe if shared between sessions.</p>
+ @since 1.21.1
+ */
+@FunctionalInterface
+public interface RequestListener {
+
+    /** The phases of a request. */
+    enum Phase {
+        /** Resolving the host's address. */
+        Dns,
+        /** Connecting to the host, including the TLS handshake for {@code https}. */
+        Connect,
+        /** Sending the request (and its body), until the response headers are received; the time to first byte. */
+        FirstByte,
+        /** Reading the response body from the network. */
+        Download,
+        /** Decoding a compressed ({@code Content-Encoding}) response body. */
+        Decompress,
+        /** Parsing the response body into a Document, with {@link Connection.Response#parse()}. */
+        Parse
+    }
+
+    /**
+     Called when a phase of a request is complete. The download, decompression, and parse of a response body are
+     interleaved as the body is streamed; for those, the duration is the time spent in that phase alone.
+     @param req the request
+     @param phase the phase
+     @param startNanos the {@link System#nanoTime()} that the phase started
+     @param durationNanos the time spent in the phase, in nanoseconds
+     @param bytes the bytes in the phase: those sent for {@code FirstByte} (or -1 if the body size is unknown), read for
+     {@code Download}, decoded for {@code Decompress}, and parsed for {@code Parse}; 0 for {@code Dns} and {@code Connect}
+     */
+    void phase(Connection.Request req, Phase phase, long startNanos, long durationNanos, long bytes);
+}
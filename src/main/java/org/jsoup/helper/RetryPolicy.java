@@ -0,0 +1,214 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ A RetryPolicy retries requests that fail with a transient error: an I/O error such as a connection reset or timeout,
+ or a response status such as {@code 503 Service Unavailable}. Attach a policy to a session or request with
+ {@link Connection#retry(RetryPolicy)}:
+ <pre>{@code
+ RetryPolicy retry = new RetryPolicy()
+     .maxRetries(3)
+     .backoff(200, 5000)
+     .hedge(0.95);
+ Connection session = Jsoup.newSession().retry(retry);
+ }</pre>
+ <p>Retries wait for an exponential backoff with full jitter: before retry {@code n}, a random time between zero and
+ {@code initial * 2^(n-1)}, up to the max delay. If the response has a {@code Retry-After} header, the retry waits at
+ least that long; or is not made if that is longer than the max delay.</p>
+ <p>Only idempotent requests ({@code GET}, {@code HEAD}, {@code PUT}, {@code DELETE}, {@code OPTIONS}, and
+ {@code TRACE}) are retried, unless {@link #retryNonIdempotent(boolean)} is set. Requests with an {@code InputStream}
+ body or data are not retried, as their body can't be sent again. Each attempt has the full request timeout.</p>
+ <p>A policy is thread-safe, and may be shared between sessions. As hedging uses the latency of recent requests, share
+ a policy between requests to the same or similar origins.</p>
+ @since 1.21.1
+ */
+public class RetryPolicy {
+    private static final int Samples = 64; // the recent latencies kept for hedging
+    private static final int MinSamples = 16; // before hedging starts
+
+    private int maxRetries = 2;
+    private long initialDelay = 100; // millis
+    private long maxDelay = 10_000;
+    private int[] statusCodes = {408, 429, 500, 502, 503, 504};
+    private boolean retryNonIdempotent = false;
+    private double hedgePercentile = 0; // 0 for no hedging
+
+    private final long[] latencies = new long[Samples]; // ring of recent times to response, in nanos
+    private int numLatencies = 0;
+
+    /**
+     Create a new RetryPolicy, which retries up to 2 times, with a backoff starting at 100ms, for I/O errors and the
+     {@code 408, 429, 500, 502, 503, 504} status codes.
+     */
+    public RetryPolicy() {}
+
+    /**
+     Set the maximum number of retries; so a request is attempted at most {@code max + 1} times.
+     @param max the maximum retries; {@code 0} to not retry
+     @return this policy, for chaining
+     */
+    public RetryPolicy maxRetries(int max) {
+        Validate.isTrue(max >= 0, "max retries must be 0 or larger");
+        maxRetries = max;
+        return this;
+    }
+
+    /**
+     Set the backoff delays. Before each retry, the request waits a random time up to the current backoff, which starts
+     at the initial delay and doubles for each retry, up to the max delay.
+     @param initialMillis the backoff for the first retry, in milliseconds
+     @param maxMillis the maximum backoff, in milliseconds
+     @return this policy, for chaining
+     */
+    public RetryPolicy backoff(long initialMillis, long maxMillis) {
+        Validate.isTrue(initialMillis >= 0, "initial delay must be 0 or larger");
+        Validate.isTrue(maxMillis >= initialMillis, "max delay must be at least the initial delay");
+        initialDelay = initialMillis;
+        maxDelay = maxMillis;
+        return this;
+    }
+
+    /**
+     Set the response status codes that are retried.
+     @param codes the status codes, e.g. {@code 503}
+     @return this policy, for chaining
+     */
+    public RetryPolicy retryOn(int... codes) {
+        Validate.notNullParam(codes, "codes");
+        int[] sorted = codes.clone();
+        Arrays.sort(sorted);
+        statusCodes = sorted;
+        return this;
+    }
+
+    /**
+     Set if non-idempotent requests (e.g. {@code POST}) should be retried. Defaults to {@code false}, as a request that
+     failed after it was sent may have been processed by the server.
+     @param retry {@code true} to retry all requests
+     @return this policy, for chaining
+     */
+    public RetryPolicy retryNonIdempotent(boolean retry) {
+        retryNonIdempotent = retry;
+        return this;
+    }
+
+    /**
+     Enable hedged requests: if a {@code GET} or {@code HEAD} request has not received a response by the given
+     percentile of the recent response times, a second attempt is made, and the first response received is used. This
+     reduces tail latency from slow servers or connections, at the cost of some extra requests. Hedging starts once
+     there are enough recent requests to estimate the percentile, and applies to blocking requests (not
+     {@link Connection#executeAsync()}).
+     @param percentile the latency percentile to hedge after, e.g. {@code 0.95}; or {@code 0} to disable (the default)
+     @return this policy, for chaining
+     */
+    public RetryPolicy hedge(double percentile) {
+        Validate.isTrue(percentile >= 0 && percentile < 1, "percentile must be between 0 and 1");
+        hedgePercentile = percentile;
+        return this;
+    }
+
+    /** Test if the request may be retried: it's idempotent (or that's allowed), and its body can be sent again. */
+    boolean canRetry(HttpConnection.Request req) {
+        if (maxRetries == 0) return false;
+        if (!retryNonIdempotent && !isIdempotent(req.method())) return false;
+        if (req.hasBodyStream()) return false;
+        for (Connection.KeyVal keyVal : req.data()) {
+            if (keyVal.hasInputStream()) return false;
+        }
+        return true;
+    }
+
+    /** Test if the request may be hedged. */
+    boolean canHedge(HttpConnection.Request req) {
+        return hedgePercentile > 0 && (req.method() == Connection.Method.GET || req.method() == Connection.Method.HEAD);
+    }
+
+    /**
+     Get the delay before retrying after a response.
+     @return the delay in millis, or -1 if the response should not be retried
+     */
+    long delay(int attempt, HttpConnection.Response res) {
+        if (attempt > maxRetries || Arrays.binarySearch(statusCodes, res.statusCode) < 0) return -1;
+        long delay = backoff(attempt);
+        long retryAfter = RequestExecutor.retryAfterMillis(res);
+        if (retryAfter > maxDelay) return -1; // we won't wait that long
+        return Math.max(delay, retryAfter);
+    }
+
+    /**
+     Get the delay before retrying after an I/O error.
+     @return the delay in millis, or -1 if the error should not be retried
+     */
+    long delay(int attempt, IOException e) {
+        if (attempt > maxRetries || !isTransient(e)) return -1;
+        return backoff(attempt);
+    }
+
+    /** Full jitter: a random time up to the exponential backoff for the attempt. */
+    long backoff(int attempt) {
+        long cap = initialDelay << Math.min(attempt - 1, 30);
+        if (cap > maxDelay || cap < 0) cap = maxDelay;
+        return cap == 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     Get the time after which to hedge a request: the hedge percentile of the recent response times.
+     @return the delay in nanos, or -1 if there are not enough samples
+     */
+    synchronized long hedgeDelay() {
+        if (numLatencies < MinSamples) return -1;
+        int count = Math.min(numLatencies, Samples);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[Math.min(count - 1, (int) (hedgePercentile * count))];
+    }
+
+    /** Record the time a request took to receive its response. */
+    synchronized void recordLatency(long nanos) {
+        latencies[numLatencies % Samples] = nanos;
+        numLatencies++;
+        if (numLatencies == 2 * Samples) numLatencies = Samples; // keep the ring position without overflow
+    }
+
+    private static boolean isIdempotent(Connection.Method method) {
+        switch (method) {
+            case GET:
+            case HEAD:
+            case PUT:
+            case DELETE:
+            case OPTIONS:
+            case TRACE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Errors that may succeed on retry; not those from a bad address, certificate, or an interrupt. */
+    private static boolean isTransient(IOException e) {
+        if (e instanceof SocketTimeoutException) return true;
+        return !(e instanceof InterruptedIOException || e instanceof UnknownHostException
+            || e instanceof MalformedURLException || e instanceof SSLException);
+    }
+
+    static void sleep(long millis) throws IOException {
+        if (millis <= 0) return;
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -32,10 +32,22 @@ class UrlConnectionExecutor extends RequestExecutor {
     HttpConnection.Response execute() throws IOException {
         try {
             conn = createConnection(req);
+            RequestBody body = conn.getDoOutput() ? RequestBody.of(req) : null;
+            if (body != null && body.hasStreams() && req.authenticator == null) {
+                // stream uploads rather than buffer them in memory; but auth may need to resend, so is buffered
+                long length = body.length();
+                if (length >= 0) conn.setFixedLengthStreamingMode(length);
+                else conn.setChunkedStreamingMode(0); // default chunk size
+            }
+            resolveHost();
+            long connectStart = System.nanoTime();
             conn.connect();
-            if (conn.getDoOutput()) {
+            long sendStart = System.nanoTime();
+            phase(RequestListener.Phase.Connect, connectStart, sendStart - connectStart, 0);
+            long sent = 0;
+            if (body != null) {
                 try (OutputStream out = conn.getOutputStream()) {
-                    Response.writePost(req, out);
+                    sent = body.writeTo(out);
                 } catch (IOException e) {
                     conn.disconnect();
                     throw e;
@@ -48,6 +60,7 @@ class UrlConnectionExecutor extends RequestExecutor {
             res.method = Connection.Method.valueOf(conn.getRequestMethod());
             res.url = conn.getURL();
             res.statusCode = conn.getResponseCode();
+            phase(RequestListener.Phase.FirstByte, sendStart, System.nanoTime() - sendStart, sent);
             res.statusMessage = conn.getResponseMessage();
             res.contentType = conn.getContentType();
             res.contentLength = conn.getContentLength();
@@ -73,6 +86,7 @@ class UrlConnectionExecutor extends RequestExecutor {
             conn.disconnect();
             conn = null;
         }
+        releasePermit();
     }
 
     // set up connection defaults, and details from request
@@ -12,6 +12,8 @@ public abstract class QuietAppendable {
 
     public abstract QuietAppendable append(CharSequence csq);
 
+    public abstract QuietAppendable append(CharSequence csq, int start, int end);
+
     public abstract QuietAppendable append(char c);
 
     public abstract QuietAppendable append(char[] chars, int offset, int len); // via StringBuilder, not Appendable
@@ -42,6 +44,11 @@ public abstract class QuietAppendable {
             return quiet(() -> a.append(csq));
         }
 
+        @Override
+        public BaseAppendable append(CharSequence csq, int start, int end) {
+            return quiet(() -> a.append(csq, start, end));
+        }
+
         @Override
         public BaseAppendable append(char c) {
             return quiet(() -> a.append(c));
@@ -67,6 +74,12 @@ public abstract class QuietAppendable {
             return this;
         }
 
+        @Override
+        public StringBuilderAppendable append(CharSequence csq, int start, int end) {
+            sb.append(csq, start, end);
+            return this;
+        }
+
         @Override
         public StringBuilderAppendable append(char c) {
             sb.append(c);
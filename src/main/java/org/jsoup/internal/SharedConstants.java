@@ -7,8 +7,7 @@ package org.jsoup.internal;
 public final class SharedConstants {
     public static final String UserDataKey = "/jsoup.userdata";
     public final static String AttrRangeKey = "jsoup.attrs";
-    public static final String RangeKey = "jsoup.start";
-    public static final String EndRangeKey = "jsoup.end";
+    public static final String RangeKey = "jsoup.range";
     public static final String XmlnsAttr = "jsoup.xmlns-";
 
     public static final int DefaultBufferSize = 8 * 1024;
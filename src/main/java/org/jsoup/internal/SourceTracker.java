@@ -0,0 +1,86 @@
+package org.jsoup.internal;
+
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.Range;
+
+import java.util.Arrays;
+
+/**
+ A compact index of the source positions recorded for a parse, when position tracking is enabled. The index holds the
+ positions of every newline in the input as a primitive array, and each tracked node holds just its start and end
+ offsets, in an {@link Entry} in its user data. The {@link Range} and {@link Range.Position} objects (with their line
+ and column numbers) are only created when requested via {@link Node#sourceRange()} et al. Do not use, as it may change
+ without warning.
+ @see org.jsoup.parser.Parser#setTrackPosition(boolean)
+ */
+public final class SourceTracker {
+    private int[] newlines = new int[64]; // the pos() of the char following each newline, ascending
+    private int newlineCount = 0;
+
+    /**
+     Record the position of the first character of a new line (i.e. one past a {@code \n}). Positions that are not
+     beyond the last recorded position are ignored, so that input may be rescanned.
+     @param pos the position that a new line starts at
+     */
+    public void addNewline(int pos) {
+        if (newlineCount > 0 && pos <= newlines[newlineCount - 1]) return;
+        if (newlineCount == newlines.length)
+            newlines = Arrays.copyOf(newlines, newlineCount * 2);
+        newlines[newlineCount++] = pos;
+    }
+
+    /**
+     Record the source range of a node's start (or, for an Element, its end tag).
+     @param node the node to track
+     @param startPos the start position of the range
+     @param endPos the end position of the range
+     @param isStart {@code true} for the start of the node; {@code false} for an Element's end tag
+     */
+    public void track(Node node, int startPos, int endPos, boolean isStart) {
+        Attributes attributes = node.attributes();
+        Object data = attributes.userData(SharedConstants.RangeKey);
+        Entry entry = data instanceof Entry && ((Entry) data).source == this ? (Entry) data : null;
+        if (entry == null) {
+            entry = new Entry(this);
+            attributes.userData(SharedConstants.RangeKey, entry);
+        }
+        if (isStart) {
+            entry.start = startPos;
+            entry.startEnd = endPos;
+        } else {
+            entry.end = startPos;
+            entry.endEnd = endPos;
+        }
+    }
+
+    /**
+     Resolve the line and column numbers of a position.
+     @param pos the 0-based position in the input
+     @return the Position
+     */
+    public Range.Position position(int pos) {
+        int i = lineIndex(pos);
+        if (i == -1) return new Range.Position(pos, 1, pos + 1); // first line
+        return new Range.Position(pos, i + 2, pos - newlines[i] + 1);
+    }
+
+    /** Find the index of the newline at or preceding pos, or -1 if pos is on the first line. */
+    private int lineIndex(int pos) {
+        int i = Arrays.binarySearch(newlines, 0, newlineCount, pos);
+        return i < 0 ? -i - 2 : i;
+    }
+
+    /**
+     The start and end offsets of a tracked node, or -1 if not tracked. Held in the node's user data, so that the
+     positions follow the node when it is moved or cloned, and are released with it.
+     */
+    public static final class Entry {
+        public final SourceTracker source;
+        public int start = -1, startEnd = -1, end = -1, endEnd = -1;
+
+        Entry(SourceTracker source) {
+            this.source = source;
+        }
+    }
+}
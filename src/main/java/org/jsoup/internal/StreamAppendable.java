@@ -0,0 +1,203 @@
+package org.jsoup.internal;
+
+import org.jsoup.SerializationException;
+import org.jsoup.helper.Validate;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import static org.jsoup.internal.SimpleBufferedInput.BufferPool;
+
+/**
+ A QuietAppendable that encodes directly into a recycled byte buffer, which is written to the OutputStream in chunks as
+ it fills. UTF-8 and US-ASCII are encoded inline; other charsets go via a CharsetEncoder. Used to serialize documents
+ without first building the complete output as a String.
+ <p>{@link #close()} flushes any buffered output and releases the buffer, but does not close the OutputStream.</p>
+ */
+public final class StreamAppendable extends QuietAppendable implements AutoCloseable {
+    private static final int Utf8 = 0, Ascii = 1, Other = 2;
+
+    private final OutputStream out;
+    private final int mode;
+    private byte @Nullable [] buf; // null after close
+    private int pos = 0;
+    private char highSurrogate = 0; // a pending high surrogate, when split across appends (utf-8 mode)
+
+    // other charsets:
+    private @Nullable CharsetEncoder encoder;
+    private @Nullable CharBuffer charBuf;
+    private @Nullable ByteBuffer byteBuf;
+
+    public StreamAppendable(OutputStream out, Charset charset) {
+        Validate.notNull(out);
+        Validate.notNull(charset);
+        this.out = out;
+        buf = BufferPool.borrow(); // shared w/ SimpleBufferedInput, SimpleStreamReader
+        String name = charset.name();
+        if (name.equals("UTF-8")) mode = Utf8;
+        else if (name.equals("US-ASCII")) mode = Ascii;
+        else {
+            mode = Other;
+            encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            charBuf = CharBuffer.allocate(1024);
+            byteBuf = ByteBuffer.wrap(buf);
+        }
+    }
+
+    @Override
+    public StreamAppendable append(CharSequence csq) {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public StreamAppendable append(CharSequence csq, int start, int end) {
+        for (int i = start; i < end; i++)
+            write(csq.charAt(i));
+        return this;
+    }
+
+    @Override
+    public StreamAppendable append(char c) {
+        write(c);
+        return this;
+    }
+
+    @Override
+    public StreamAppendable append(char[] chars, int offset, int len) {
+        for (int i = offset; i < offset + len; i++)
+            write(chars[i]);
+        return this;
+    }
+
+    private void write(char c) {
+        byte[] b = buf;
+        Validate.notNull(b); // can't write after close
+        if (mode == Other) {
+            writeEncoded(c);
+            return;
+        }
+        if (b.length - pos < 4) flushBuffer();
+
+        if (c < 0x80) {
+            if (highSurrogate != 0) malformed();
+            b[pos++] = (byte) c;
+        } else if (mode == Ascii) {
+            b[pos++] = '?'; // the escaper will have escaped all encodable chars; same replacement as the JDK encoder
+        } else if (c < 0x800) {
+            if (highSurrogate != 0) malformed();
+            b[pos++] = (byte) (0xC0 | (c >> 6));
+            b[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            if (highSurrogate != 0) malformed();
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            if (highSurrogate == 0) {
+                b[pos++] = '?';
+                return;
+            }
+            int cp = Character.toCodePoint(highSurrogate, c);
+            highSurrogate = 0;
+            b[pos++] = (byte) (0xF0 | (cp >> 18));
+            b[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            b[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            b[pos++] = (byte) (0x80 | (cp & 0x3F));
+        } else {
+            if (highSurrogate != 0) malformed();
+            b[pos++] = (byte) (0xE0 | (c >> 12));
+            b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            b[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /** A high surrogate was not followed by a low surrogate; emit a replacement for it. */
+    private void malformed() {
+        highSurrogate = 0;
+        assert buf != null;
+        if (pos == buf.length) flushBuffer();
+        buf[pos++] = '?';
+    }
+
+    private void writeEncoded(char c) {
+        assert charBuf != null;
+        if (!charBuf.hasRemaining()) encodeChars(false);
+        charBuf.put(c);
+    }
+
+    private void encodeChars(boolean endOfInput) {
+        assert charBuf != null && byteBuf != null && encoder != null;
+        charBuf.flip();
+        while (true) {
+            byteBuf.position(pos);
+            CoderResult result = encoder.encode(charBuf, byteBuf, endOfInput);
+            pos = byteBuf.position();
+            if (result.isOverflow()) {
+                flushBuffer();
+                continue;
+            }
+            break; // underflow; any trailing high surrogate is retained in charBuf for the next pass
+        }
+        if (endOfInput) {
+            byteBuf.position(pos);
+            while (encoder.flush(byteBuf).isOverflow()) {
+                pos = byteBuf.position();
+                flushBuffer();
+                byteBuf.position(pos);
+            }
+            pos = byteBuf.position();
+            encoder.reset();
+        }
+        charBuf.compact();
+    }
+
+    private void flushBuffer() {
+        assert buf != null;
+        if (pos == 0) return;
+        try {
+            out.write(buf, 0, pos);
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+        pos = 0;
+    }
+
+    /**
+     Write any buffered output to the OutputStream, and flush it.
+     @throws SerializationException if the OutputStream throws an IOException
+     */
+    public void flush() {
+        Validate.notNull(buf);
+        if (mode == Other) encodeChars(false);
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+    }
+
+    /**
+     Flush any remaining output, and release the buffer. The OutputStream is not closed.
+     @throws SerializationException if the OutputStream throws an IOException
+     */
+    @Override
+    public void close() {
+        if (buf == null) return;
+        try {
+            if (highSurrogate != 0) malformed();
+            if (mode == Other) encodeChars(true);
+            flush();
+        } finally {
+            BufferPool.release(buf);
+            buf = null;
+        }
+    }
+}
@@ -154,7 +154,7 @@ public final class StringUtil {
 
         int l = string.length();
         for (int i = 0; i < l; i++) {
-            if (!StringUtil.isWhitespace(string.codePointAt(i)))
+            if (!StringUtil.isWhitespace(string.charAt(i))) // whitespace is all ascii, so no need to resolve code points
                 return false;
         }
         return true;
@@ -235,22 +235,36 @@ public final class StringUtil {
         boolean lastWasWhite = false;
         boolean reachedNonWhite = false;
 
+        // walks by char rather than code point, as surrogates are neither whitespace nor invisible. Runs of other chars
+        // are appended in bulk
         int len = string.length();
-        int c;
-        for (int i = 0; i < len; i+= Character.charCount(c)) {
-            c = string.codePointAt(i);
+        int run = 0; // start of the pending run of chars to append
+        for (int i = 0; i < len; i++) {
+            char c = string.charAt(i);
+            if (c > ' ' && c != 160 && c != 8203 && c != 173) continue; // fast path; in a run
             if (isActuallyWhitespace(c)) {
+                if (run < i) {
+                    accum.append(string, run, i);
+                    lastWasWhite = false;
+                    reachedNonWhite = true;
+                }
+                run = i + 1;
                 if ((stripLeading && !reachedNonWhite) || lastWasWhite)
                     continue;
                 accum.append(' ');
                 lastWasWhite = true;
+            } else if (isInvisibleChar(c)) {
+                if (run < i) {
+                    accum.append(string, run, i);
+                    lastWasWhite = false;
+                    reachedNonWhite = true;
+                }
+                run = i + 1;
             }
-            else if (!isInvisibleChar(c)) {
-                accum.appendCodePoint(c);
-                lastWasWhite = false;
-                reachedNonWhite = true;
-            }
+            // else a control char, which is appended as part of the run
         }
+        if (run < len)
+            accum.append(string, run, len);
     }
 
     public static boolean in(final String needle, final String... haystack) {
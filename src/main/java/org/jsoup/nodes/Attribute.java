@@ -75,6 +75,7 @@ public class Attribute implements Map.Entry<String, String>, Cloneable  {
             int i = parent.indexOfKey(this.key);
             if (i != Attributes.NotFound) {
                 String oldKey = parent.keys[i];
+                parent.ownKeys();
                 parent.keys[i] = key;
 
                 // if tracking source positions, update the key in the range map
@@ -115,6 +116,7 @@ public class Attribute implements Map.Entry<String, String>, Cloneable  {
         if (parent != null) {
             int i = parent.indexOfKey(this.key);
             if (i != Attributes.NotFound) {
+                parent.ownVals();
                 oldVal = parent.get(this.key); // trust the container more
                 parent.vals[i] = val;
             }
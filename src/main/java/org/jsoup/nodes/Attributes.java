@@ -55,10 +55,12 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
     static final int NotFound = -1;
     private static final String EmptyString = "";
 
-    // the number of instance fields is kept as low as possible giving an object size of 24 bytes
+    // the number of instance fields is kept as low as possible: 24 bytes for the size and arrays, plus the state flags
     private int size = 0; // number of slots used (not total capacity, which is keys.length)
     @Nullable String[] keys = new String[InitialCapacity]; // keys is not null, but contents may be. Same for vals
     @Nullable Object[] vals = new Object[InitialCapacity]; // Genericish: all non-internal attribute values must be Strings and are cast on access.
+    private boolean frozen = false; // if part of a frozen Document; see Document#freeze()
+    private boolean keysShared = false, valsShared = false; // if held by another Attributes (a clone, or compacted); copied before a write
     // todo - make keys iterable without creating Attribute objects
 
     // check there's room for more
@@ -73,6 +75,28 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
 
         keys = Arrays.copyOf(keys, newCap);
         vals = Arrays.copyOf(vals, newCap);
+        keysShared = valsShared = false;
+    }
+
+    /**
+     Ensures the keys array can be modified in place. Clones share their arrays with the original, and compacted
+     Attributes share a keys array with others of the same key set, so a shared array is copied first (copy-on-write).
+     */
+    void ownKeys() {
+        checkMutable();
+        if (keysShared) {
+            keys = Arrays.copyOf(keys, keys.length);
+            keysShared = false;
+        }
+    }
+
+    /** Ensures the vals array can be modified in place; as {@link #ownKeys()}. */
+    void ownVals() {
+        checkMutable();
+        if (valsShared) {
+            vals = Arrays.copyOf(vals, vals.length);
+            valsShared = false;
+        }
     }
 
     int indexOfKey(String key) {
@@ -144,6 +168,8 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
 
     private void addObject(String key, @Nullable Object value) {
         checkCapacity(size + 1);
+        ownKeys();
+        ownVals();
         keys[size] = key;
         vals[size] = value;
         size++;
@@ -157,9 +183,12 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
      */
     public Attributes put(String key, @Nullable String value) {
         Validate.notNull(key);
+        checkMutable();
         int i = indexOfKey(key);
-        if (i != NotFound)
+        if (i != NotFound) {
+            ownVals();
             vals[i] = value;
+        }
         else
             add(key, value);
         return this;
@@ -210,18 +239,23 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
      */
     public Attributes userData(String key, Object value) {
         Validate.notNull(key);
+        checkMutable();
         userData().put(key, value);
         return this;
     }
 
     void putIgnoreCase(String key, @Nullable String value) {
+        checkMutable();
         int i = indexOfKeyIgnoreCase(key);
         if (i != NotFound) {
+            ownVals();
             vals[i] = value;
             String old = keys[i];
             assert old != null;
-            if (!old.equals(key)) // case changed, update
+            if (!old.equals(key)) { // case changed, update
+                ownKeys();
                 keys[i] = key;
+            }
         }
         else
             add(key, value);
@@ -257,6 +291,8 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
     @SuppressWarnings("AssignmentToNull")
     private void remove(int index) {
         Validate.isFalse(index >= size);
+        ownKeys();
+        ownVals();
         int shifted = size - index - 1;
         if (shifted > 0) {
             System.arraycopy(keys, index + 1, keys, index, shifted);
@@ -398,6 +434,7 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
     public Attributes sourceRange(String key, Range.AttributeRange range) {
         Validate.notNull(key);
         Validate.notNull(range);
+        checkMutable();
         Map<String, Range.AttributeRange> ranges = getRanges();
         if (ranges == null) {
             ranges = new HashMap<>();
@@ -550,9 +587,16 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
         }
-        clone.size = size;
-        clone.keys = Arrays.copyOf(keys, size);
-        clone.vals = Arrays.copyOf(vals, size);
+        // the arrays are shared, and copied by whichever is modified first. (A frozen original is never modified.)
+        if (!frozen) keysShared = valsShared = true;
+        clone.keysShared = clone.valsShared = true;
+        clone.frozen = false;
+        int i = indexOfKey(SharedConstants.UserDataKey);
+        if (i != NotFound) { // the clone gets its own user data map, so that setting data on one doesn't affect the other
+            clone.ownVals();
+            //noinspection unchecked
+            clone.vals[i] = new HashMap<>((Map<String, Object>) vals[i]);
+        }
         return clone;
     }
 
@@ -564,8 +608,66 @@ public class Attributes implements Iterable<Attribute>, Cloneable {
             assert keys[i] != null;
             String key = keys[i];
             assert key != null;
-            if (!isInternalKey(key))
-                keys[i] = lowerCase(key);
+            if (!isInternalKey(key)) {
+                String lower = lowerCase(key);
+                if (!lower.equals(key)) {
+                    ownKeys();
+                    keys[i] = lower;
+                }
+            }
+        }
+    }
+
+    /**
+     Compacts the storage of these attributes: the arrays are trimmed to size, and the keys array is shared with any
+     other Attributes compacted with the same table that have an identical key set. A later modification of the keys
+     copies them first.
+     @param table the table of shared key arrays
+     */
+    void compact(KeyTable table) {
+        checkMutable();
+        if (vals.length != size) {
+            vals = Arrays.copyOf(vals, size);
+            valsShared = false;
+        }
+        keys = table.share(keys, size);
+        keysShared = true;
+    }
+
+    /** Makes these Attributes read-only, as part of a frozen Document. */
+    void freeze() {
+        frozen = true;
+    }
+
+    /** Throws if these Attributes are frozen. */
+    void checkMutable() {
+        if (frozen) throw Element.FrozenNodeList.rejected();
+    }
+
+    /** Returned for elements without attributes in a frozen Document, so that reads don't create them. */
+    static final Attributes FrozenEmpty = new Attributes();
+    static {
+        FrozenEmpty.freeze();
+    }
+
+    /** Holds the distinct key arrays (and key names) of compacted Attributes, for sharing. */
+    static final class KeyTable {
+        private final HashMap<List<String>, String[]> keySets = new HashMap<>();
+        private final HashMap<String, String> names = new HashMap<>();
+
+        String[] share(@Nullable String[] keys, int size) {
+            String[] trimmed = new String[size];
+            for (int i = 0; i < size; i++) {
+                String key = keys[i];
+                assert key != null;
+                String name = names.get(key);
+                if (name == null) names.put(key, name = key);
+                trimmed[i] = name;
+            }
+            List<String> keySet = Arrays.asList(trimmed);
+            String[] shared = keySets.get(keySet);
+            if (shared == null) keySets.put(keySet, shared = trimmed);
+            return shared;
         }
     }
 
@@ -2,8 +2,10 @@ package org.jsoup.nodes;
 
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
+import org.jsoup.SerializationException;
 import org.jsoup.helper.DataUtil;
 import org.jsoup.helper.Validate;
+import org.jsoup.internal.StreamAppendable;
 import org.jsoup.internal.StringUtil;
 import org.jsoup.parser.ParseSettings;
 import org.jsoup.parser.Parser;
@@ -13,6 +15,10 @@ import org.jsoup.select.Evaluator;
 import org.jsoup.select.Selector;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.List;
 
@@ -27,6 +33,7 @@ public class Document extends Element {
     private OutputSettings outputSettings = new OutputSettings();
     private Parser parser; // the parser used to parse this document
     private QuirksMode quirksMode = QuirksMode.noQuirks;
+    private boolean textCache = false;
     private final String location;
 
     /**
@@ -228,6 +235,38 @@ public class Document extends Element {
         return super.html(); // no outer wrapper tag
     }
 
+    /**
+     Write this document's HTML directly to an OutputStream, encoded in the
+     {@link OutputSettings#charset() output charset}. The HTML is encoded and written in chunks as it is serialized, so
+     the complete output is never held in memory as a String; this is useful when serving large documents.
+     <p>The output is the same as {@link #outerHtml()} encoded in the charset, other than pretty-printed output not being
+     trimmed of leading and trailing whitespace.</p>
+     @param out the OutputStream to write to. It will be flushed, but not closed.
+     @throws IOException if the OutputStream throws an exception
+     @since 1.21.1
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Validate.notNull(out);
+        try (StreamAppendable accum = new StreamAppendable(out, outputSettings.charset())) {
+            html(accum);
+        } catch (SerializationException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     Write this document's HTML directly to a channel, encoded in the {@link OutputSettings#charset() output charset}.
+     @param channel the channel to write to. It will not be closed.
+     @throws IOException if the channel throws an exception
+     @see #writeTo(OutputStream)
+     @since 1.21.1
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        Validate.notNull(channel);
+        writeTo(Channels.newOutputStream(channel));
+    }
+
     /**
      Set the text of the {@code body} of this document. Any existing nodes within the body will be cleared.
      @param text un-encoded text
@@ -263,6 +302,7 @@ public class Document extends Element {
      @see OutputSettings#charset(java.nio.charset.Charset)
      */
     public void charset(Charset charset) {
+        checkMutable();
         outputSettings.charset(charset);
         ensureMetaCharsetElement();
     }
@@ -279,8 +319,7 @@ public class Document extends Element {
 
     @Override
     public Document clone() {
-        Document clone = (Document) super.clone();
-        if (attributes != null) clone.attributes = attributes.clone();
+        Document clone = (Document) super.clone(); // attributes are cloned in Element#doClone
         clone.outputSettings = this.outputSettings.clone();
         // parser is pointer copy
         return clone;
@@ -335,6 +374,7 @@ public class Document extends Element {
         public enum Syntax {html, xml}
         private Entities.EscapeMode escapeMode = Entities.EscapeMode.base;
         private Charset charset = DataUtil.UTF_8;
+        private Entities.CoreCharset coreCharset = Entities.CoreCharset.utf; // resolved from charset, for fast escaping
         private boolean prettyPrint = true;
         private boolean outline = false;
         private int indentAmount = 1;
@@ -394,9 +434,14 @@ public class Document extends Element {
          */
         public OutputSettings charset(Charset charset) {
             this.charset = charset;
+            coreCharset = Entities.CoreCharset.byName(charset.name());
             return this;
         }
 
+        Entities.CoreCharset coreCharset() {
+            return coreCharset;
+        }
+
         /**
          * Update the document's output charset.
          * @param charset the new charset (by name) to use.
@@ -538,10 +583,90 @@ public class Document extends Element {
      */
     public Document outputSettings(OutputSettings outputSettings) {
         Validate.notNull(outputSettings);
+        checkMutable();
         this.outputSettings = outputSettings;
         return this;
     }
 
+    /**
+     Enable or disable caching of the normalized text of this document's elements. When enabled, the results of
+     {@link Element#text()} and {@link Element#ownText()} are retained on each element, so that repeated calls (including
+     by the {@code :contains} and {@code :matches} selectors) on an unchanged subtree do not traverse it again. The cache
+     is invalidated when an element's descendants are added, removed, or have their text changed.
+     <p>Caching is disabled by default, as it retains a String for each element that has been queried. Disabling it
+     clears any cached text.</p>
+     @param enabled true to cache element text
+     @return this document, for chaining
+     @since 1.21.1
+     */
+    public Document textCache(boolean enabled) {
+        checkMutable();
+        textCache = enabled;
+        if (!enabled) clearTextCache();
+        return this;
+    }
+
+    /**
+     Get if caching of element text is enabled.
+     @return true if element text is cached
+     @see #textCache(boolean)
+     @since 1.21.1
+     */
+    public boolean textCache() {
+        return textCache;
+    }
+
+    /**
+     Compacts the memory held by this document, for when it will be retained (e.g. in a cache). Each element's child
+     list and attributes are trimmed to size, and elements with the same set of attribute names share a single array of
+     those names. The document may still be modified afterwards; a shared array is copied before it is changed.
+     @return this document, for chaining
+     @since 1.21.1
+     */
+    public Document compact() {
+        checkMutable();
+        Attributes.KeyTable table = new Attributes.KeyTable();
+        nodeStream().forEach(node -> {
+            if (node.hasAttributes()) node.attributes().compact(table);
+            if (node instanceof Element) ((Element) node).trimChildNodes();
+        });
+        return this;
+    }
+
+    /**
+     Freezes this document, so that it may be safely read by many threads at once; for example, a parsed template that
+     is cached and shared between requests. Any lazily computed state (such as each element's list of child elements) is
+     computed now, and from then on reading the document, including by {@link #select(String)}, {@link #text()}, and
+     {@link #outerHtml()}, does not modify it.
+     <p>Any attempt to modify a frozen document or its nodes throws an {@link UnsupportedOperationException}. Use
+     {@link #clone()} to get a modifiable copy. Text caching is disabled, and the {@link #outputSettings() output
+     settings} should be configured before freezing, as they are not themselves frozen.</p>
+     <p>The document must be safely published to other threads after it is frozen (e.g. via a {@code final} field or a
+     concurrent collection).</p>
+     @return this document, for chaining
+     @see #isFrozen()
+     @since 1.21.1
+     */
+    public Document freeze() {
+        if (isFrozen()) return this;
+        textCache(false);
+        nodeStream().forEach(node -> {
+            if (node instanceof Element) ((Element) node).freezeChildNodes();
+            if (node.hasAttributes()) node.attributes().freeze();
+        });
+        return this;
+    }
+
+    /**
+     Get if this document has been {@link #freeze() frozen}, and so cannot be modified.
+     @return true if frozen
+     @since 1.21.1
+     */
+    @Override
+    public boolean isFrozen() {
+        return super.isFrozen();
+    }
+
     public enum QuirksMode {
         noQuirks, quirks, limitedQuirks
     }
@@ -551,6 +676,7 @@ public class Document extends Element {
     }
 
     public Document quirksMode(QuirksMode quirksMode) {
+        checkMutable();
         this.quirksMode = quirksMode;
         return this;
     }
@@ -570,6 +696,7 @@ public class Document extends Element {
      * @return this document, for chaining.
      */
     public Document parser(Parser parser) {
+        checkMutable();
         this.parser = parser;
         return this;
     }
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -28,6 +29,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -49,10 +52,10 @@ public class Element extends Node implements Iterable<Element> {
     private static final List<Element> EmptyChildren = Collections.emptyList();
     private static final NodeList EmptyNodeList = new NodeList(0);
     private static final Pattern ClassSplit = Pattern.compile("\\s+");
-    private static final String BaseUriKey = Attributes.internalKey("baseUri");
     Tag tag;
     NodeList childNodes;
     @Nullable Attributes attributes; // field is nullable but all methods for attributes are non-null
+    @Nullable Slots slots; // internal metadata, created on first use
 
     /**
      * Create a new, standalone element, in the specified namespace.
@@ -105,7 +108,7 @@ public class Element extends Node implements Iterable<Element> {
      Internal test to check if a nodelist object has been created.
      */
     protected boolean hasChildNodes() {
-        return childNodes != EmptyNodeList;
+        return childNodes != EmptyNodeList && childNodes != FrozenNodeList.Empty;
     }
 
     @Override protected List<Node> ensureChildNodes() {
@@ -115,6 +118,12 @@ public class Element extends Node implements Iterable<Element> {
         return childNodes;
     }
 
+    /** Trims the child node list to size, or to the shared empty list. */
+    void trimChildNodes() {
+        if (childNodes.isEmpty()) childNodes = EmptyNodeList;
+        else childNodes.trimToSize();
+    }
+
     @Override
     protected boolean hasAttributes() {
         return attributes != null;
@@ -122,29 +131,55 @@ public class Element extends Node implements Iterable<Element> {
 
     @Override
     public Attributes attributes() {
-        if (attributes == null) // not using hasAttributes, as doesn't clear warning
+        if (attributes == null) { // not using hasAttributes, as doesn't clear warning
+            if (isFrozen()) return Attributes.FrozenEmpty; // don't write to a shared element
             attributes = new Attributes();
+        }
         return attributes;
     }
 
     @Override
     public String baseUri() {
-        return searchUpForAttribute(this, BaseUriKey);
-    }
-
-    private static String searchUpForAttribute(final Element start, final String key) {
-        Element el = start;
-        while (el != null) {
-            if (el.attributes != null && el.attributes.hasKey(key))
-                return el.attributes.get(key);
-            el = el.parent();
+        for (Element el = this; el != null; el = el.parent()) {
+            if (el.slots != null && el.slots.baseUri != null)
+                return el.slots.baseUri;
         }
         return "";
     }
 
     @Override
     protected void doSetBaseUri(String baseUri) {
-        attributes().put(BaseUriKey, baseUri);
+        checkMutable();
+        slots().baseUri = baseUri;
+    }
+
+    /**
+     Internal metadata of an Element, held outside of its Attributes so that elements without attributes need not
+     create them. Created on first use.
+     */
+    static final class Slots {
+        @Nullable String baseUri; // set on the root, or where changed; otherwise inherited from the parent
+        @Nullable WeakReference<List<Element>> childEls; // shadow of the child elements; valid while childElsMod matches
+        int childElsMod;
+        @Nullable Object textCache; // a CachedText; or Covered if within a cached ancestor's text. See Document#textCache
+    }
+
+    // Shared by elements whose only metadata is that they are covered by a cached ancestor's text; so marking a
+    // subtree doesn't allocate. Never modified; slots() replaces it with an owned copy
+    private static final Slots CoveredSlots = new Slots();
+    private static final Object Covered = new Object();
+    static {
+        CoveredSlots.textCache = Covered;
+    }
+
+    private Slots slots() {
+        Slots s = slots;
+        if (s == null || s == CoveredSlots) {
+            Slots own = new Slots();
+            if (s == CoveredSlots) own.textCache = Covered;
+            slots = s = own;
+        }
+        return s;
     }
 
     @Override
@@ -213,8 +248,10 @@ public class Element extends Node implements Iterable<Element> {
     public Element tagName(String tagName, String namespace) {
         Validate.notEmptyParam(tagName, "tagName");
         Validate.notEmptyParam(namespace, "namespace");
+        checkMutable();
         Parser parser = NodeUtils.parser(this);
         tag = parser.tagSet().valueOf(tagName, namespace, parser.settings()); // maintains the case option of the original parse
+        invalidateText(); // block and whitespace preservation may have changed
         return this;
     }
 
@@ -390,6 +427,7 @@ public class Element extends Node implements Iterable<Element> {
      */
     List<Element> childElementsList() {
         if (childNodeSize() == 0) return EmptyChildren; // short circuit creating empty
+        if (childNodes instanceof FrozenNodeList) return ((FrozenNodeList) childNodes).childEls;
         List<Element> children = cachedChildren();
         if (children == null) {
             children = filterNodes(Element.class);
@@ -398,31 +436,18 @@ public class Element extends Node implements Iterable<Element> {
         return children;
     }
 
-    private static final String childElsKey = "jsoup.childEls";
-    private static final String childElsMod = "jsoup.childElsMod";
-
     /** returns the cached child els, if they exist, and the modcount of our childnodes matches the stashed modcount */
     private @Nullable List<Element> cachedChildren() {
-        Map<String, Object> userData = attributes().userData();
-        //noinspection unchecked
-        WeakReference<List<Element>> ref = (WeakReference<List<Element>>) userData.get(childElsKey);
-        if (ref != null) {
-            List<Element> els = ref.get();
-            if (els != null) {
-                Integer modCount = (Integer) userData.get(childElsMod);
-                if (modCount != null && modCount == childNodes.modCount())
-                    return els;
-            }
-        }
-        return null;
+        Slots s = slots;
+        if (s == null || s.childEls == null || s.childElsMod != childNodes.modCount()) return null;
+        return s.childEls.get();
     }
 
-    /** caches the child els into the Attribute user data. */
+    /** caches the child els into the element's slots. */
     private void stashChildren(List<Element> els) {
-        Map<String, Object> userData = attributes().userData();
-        WeakReference<List<Element>> ref = new WeakReference<>(els);
-        userData.put(childElsKey, ref);
-        userData.put(childElsMod, childNodes.modCount());
+        Slots s = slots();
+        s.childEls = new WeakReference<>(els);
+        s.childElsMod = childNodes.modCount();
     }
 
     /**
@@ -690,10 +715,12 @@ public class Element extends Node implements Iterable<Element> {
         Validate.notNull(child);
 
         // was - Node#addChildren(child). short-circuits an array create and a loop.
+        checkMutable(); // before the child is taken from its current parent
         reparentChild(child);
         ensureChildNodes();
         childNodes.add(child);
         child.setSiblingIndex(childNodes.size() - 1);
+        invalidateText();
         return this;
     }
 
@@ -942,11 +969,13 @@ public class Element extends Node implements Iterable<Element> {
      */
     @Override
     public Element empty() {
+        checkMutable();
         // Detach each of the children -> parent links:
         for (Node child : childNodes) {
             child.parentNode = null;
         }
         childNodes.clear();
+        invalidateText();
         return this;
     }
 
@@ -1457,41 +1486,125 @@ public class Element extends Node implements Iterable<Element> {
      @see #textNodes()
      */
     public String text() {
+        CachedText cached = cachedText();
+        if (cached != null && cached.text != null) return cached.text;
+
+        boolean caching = cachingText();
         final StringBuilder accum = StringUtil.borrowBuilder();
-        new TextAccumulator(accum).traverse(this);
-        return StringUtil.releaseBuilder(accum).trim();
+        appendText(this, accum, caching, null);
+        String text = trimmed(accum);
+        StringUtil.releaseBuilderVoid(accum);
+        if (caching) textSlot(new CachedText(text, cached != null ? cached.ownText : null, preserveContext()));
+        return text;
     }
 
-    private static class TextAccumulator implements NodeVisitor {
-        private final StringBuilder accum;
-
-        public TextAccumulator(StringBuilder accum) {
-            this.accum = accum;
+    /**
+     Write the normalized, combined text of this element and all its children to the supplied Appendable. The text is
+     the same as returned by {@link #text()}, without first creating it as a String.
+     @param accum the Appendable (e.g. a StringBuilder, Writer, or CharBuffer) to write the text to
+     @return the supplied Appendable, for chaining
+     @throws org.jsoup.SerializationException if the Appendable throws an IOException
+     @see #text()
+     @since 1.21.1
+     */
+    public <T extends Appendable> T text(T accum) {
+        Validate.notNull(accum);
+        CachedText cached = cachedText();
+        if (cached != null && cached.text != null) {
+            QuietAppendable.wrap(accum).append(cached.text);
+            return accum;
         }
 
-        @Override public void head(Node node, int depth) {
-            if (node instanceof TextNode) {
-                TextNode textNode = (TextNode) node;
-                appendNormalisedText(accum, textNode);
-            } else if (node instanceof Element) {
-                Element element = (Element) node;
-                if (accum.length() > 0 &&
-                    (element.isBlock() || element.nameIs("br")) &&
-                    !lastCharIsWhitespace(accum))
-                    accum.append(' ');
+        final StringBuilder pending = StringUtil.borrowBuilder(); // holds only the whitespace not yet known to be inner
+        appendText(this, pending, false, QuietAppendable.wrap(accum));
+        StringUtil.releaseBuilderVoid(pending);
+        return accum;
+    }
+
+    /**
+     Appends the normalized text of the root's descendants. Walks the child lists directly (rather than via a
+     NodeVisitor), so that the following sibling of a closing element is found by index. If cover is set, marks the
+     descendants as covered by the root's (to be) cached text, so that their mutations will invalidate it.
+     <p>If out is set, the text is streamed to it, trimmed: after each text node, accum is written out up to its
+     trailing whitespace, which is held back until more text follows (and so is dropped at the end).</p>
+     */
+    private static void appendText(Element root, StringBuilder accum, boolean cover, @Nullable QuietAppendable out) {
+        int[] indexes = new int[16]; // the child index of each ancestor on the path from root
+        int depth = 0;
+        Element el = root;
+        int i = 0;
+        @Nullable Element preserveFor = null; // memo of the preserveWhitespace test, shared by sibling text nodes
+        boolean preserve = false;
+        boolean written = false; // if text has been written to out; accum then holds just the pending whitespace
+
+        while (true) {
+            NodeList children = el.childNodes;
+            if (i < children.size()) {
+                Node node = children.get(i);
+                if (node instanceof TextNode) {
+                    if (preserveFor != el) {
+                        preserve = preserveWhitespace(el);
+                        preserveFor = el;
+                    }
+                    appendNormalisedText(accum, (TextNode) node, preserve);
+                    if (out != null) written = writeText(accum, out, written);
+                    i++;
+                } else if (node instanceof Element) {
+                    Element child = (Element) node;
+                    if ((accum.length() > 0 || written) && (child.isBlock() || child.nameIs("br")) && !lastCharIsWhitespace(accum))
+                        accum.append(' ');
+                    if (cover && child.textSlot() == null) child.textSlot(Covered);
+                    if (depth == indexes.length) indexes = Arrays.copyOf(indexes, depth * 2);
+                    indexes[depth++] = i;
+                    el = child;
+                    i = 0;
+                } else {
+                    i++;
+                }
+            } else {
+                if (depth == 0) break;
+                Element parent = (Element) el.parentNode; // non-null, as below root
+                i = indexes[--depth] + 1;
+                // make sure there is a space between block tags and immediately following text nodes or inline elements <div>One</div>Two should be "One Two".
+                if (!el.tag.isInline() && i < parent.childNodes.size()) {
+                    Node next = parent.childNodes.get(i);
+                    if ((next instanceof TextNode || next instanceof Element && ((Element) next).tag.isInline()) && !lastCharIsWhitespace(accum))
+                        accum.append(' ');
+                }
+                el = parent;
             }
         }
+    }
 
-        @Override public void tail(Node node, int depth) {
-            // make sure there is a space between block tags and immediately following text nodes or inline elements <div>One</div>Two should be "One Two".
-            if (node instanceof Element) {
-                Element element = (Element) node;
-                Node next = node.nextSibling();
-                if (!element.tag.isInline() && (next instanceof TextNode || next instanceof Element && ((Element) next).tag.isInline()) && !lastCharIsWhitespace(accum))
-                    accum.append(' ');
-            }
+    /**
+     Writes the accumulated text out, except for its trailing whitespace, which is kept in accum. Leading whitespace is
+     dropped if nothing has been written yet.
+     @return true if any text has now been written
+     */
+    private static boolean writeText(StringBuilder accum, QuietAppendable out, boolean written) {
+        int end = trimEnd(accum, 0);
+        if (end == 0) return written; // all pending whitespace
+        out.append(accum, written ? 0 : trimStart(accum), end);
+        accum.delete(0, end);
+        return true;
+    }
 
-        }
+    /** Returns the builder's content with leading and trailing whitespace removed (as {@link String#trim()}), without an intermediate copy. */
+    private static String trimmed(StringBuilder sb) {
+        int start = trimStart(sb);
+        return sb.substring(start, trimEnd(sb, start));
+    }
+
+    private static int trimStart(StringBuilder sb) {
+        int start = 0, len = sb.length();
+        while (start < len && sb.charAt(start) <= ' ') start++;
+        return start;
+    }
+
+    private static int trimEnd(StringBuilder sb, int start) {
+        int end = sb.length();
+        while (end > start && sb.charAt(end - 1) <= ' ') end--;
+        return end;
     }
 
     /**
@@ -1538,9 +1651,15 @@ public class Element extends Node implements Iterable<Element> {
      * @see #textNodes()
      */
     public String ownText() {
+        CachedText cached = cachedText();
+        if (cached != null && cached.ownText != null) return cached.ownText;
+
         StringBuilder sb = StringUtil.borrowBuilder();
         ownText(sb);
-        return StringUtil.releaseBuilder(sb).trim();
+        String text = trimmed(sb);
+        StringUtil.releaseBuilderVoid(sb);
+        if (cachingText()) textSlot(new CachedText(cached != null ? cached.text : null, text, preserveContext()));
+        return text;
     }
 
     private void ownText(StringBuilder accum) {
@@ -1556,13 +1675,88 @@ public class Element extends Node implements Iterable<Element> {
     }
 
     private static void appendNormalisedText(StringBuilder accum, TextNode textNode) {
+        appendNormalisedText(accum, textNode, preserveWhitespace(textNode.parentNode));
+    }
+
+    private static void appendNormalisedText(StringBuilder accum, TextNode textNode, boolean preserve) {
         String text = textNode.getWholeText();
-        if (preserveWhitespace(textNode.parentNode) || textNode instanceof CDataNode)
+        if (preserve || textNode instanceof CDataNode)
             accum.append(text);
         else
             StringUtil.appendNormalisedWhitespace(accum, text, lastCharIsWhitespace(accum));
     }
 
+    /**
+     The cached normalized text and own text of an element. As text nodes check up to five ancestors for whitespace
+     preservation, the distance to the nearest preserving ancestor is also held, so that a moved element's cache is
+     not reused in a different context.
+     */
+    static final class CachedText {
+        final @Nullable String text;
+        final @Nullable String ownText;
+        final int context;
+
+        CachedText(@Nullable String text, @Nullable String ownText, int context) {
+            this.text = text;
+            this.ownText = ownText;
+            this.context = context;
+        }
+    }
+
+    @Nullable Object textSlot() {
+        return slots != null ? slots.textCache : null;
+    }
+
+    private void textSlot(@Nullable Object cache) {
+        Slots s = slots;
+        if (s == null || s == CoveredSlots) {
+            if (cache == null)  { slots = null; return; }
+            if (cache == Covered) { slots = CoveredSlots; return; }
+        }
+        slots().textCache = cache;
+    }
+
+    /** Returns this element's cached text, if it is still valid. */
+    private @Nullable CachedText cachedText() {
+        Object cache = textSlot();
+        if (cache instanceof CachedText && ((CachedText) cache).context == preserveContext())
+            return (CachedText) cache;
+        return null;
+    }
+
+    private boolean cachingText() {
+        Document doc = ownerDocument();
+        return doc != null && doc.textCache();
+    }
+
+    /** The distance to the nearest ancestor (of up to five levels) that preserves whitespace, or 0 if none. */
+    private int preserveContext() {
+        Element el = parent();
+        for (int i = 1; i <= 5 && el != null; i++, el = el.parent()) {
+            if (el.tag.preserveWhitespace()) return i;
+        }
+        return 0;
+    }
+
+    /**
+     Invalidates the cached text of this element and its ancestors, after a change to its children. Walks up only
+     while caches are set, as an element with a cached text has marked all of its descendants.
+     */
+    @Override
+    void invalidateText() {
+        for (Element el = this; el != null && el.textSlot() != null; el = el.parent())
+            el.textSlot(null);
+    }
+
+    /** Clears any cached text in this element and its descendants. */
+    void clearTextCache() {
+        textSlot(null);
+        for (int i = 0; i < childNodes.size(); i++) {
+            Node child = childNodes.get(i);
+            if (child instanceof Element) ((Element) child).clearTextCache();
+        }
+    }
+
     static boolean preserveWhitespace(@Nullable Node node) {
         // looks only at this element and five levels up, to prevent recursion & needless stack searches
         if (node instanceof Element) {
@@ -1867,15 +2061,19 @@ public class Element extends Node implements Iterable<Element> {
 
     @Override
     public <T extends Appendable> T html(T accum) {
+        html(QuietAppendable.wrap(accum));
+        return accum;
+    }
+
+    void html(QuietAppendable accum) {
         Node child = firstChild();
         if (child != null) {
-            Printer printer = Printer.printerFor(child, QuietAppendable.wrap(accum));
+            Printer printer = Printer.printerFor(child, accum);
             while (child != null) {
                 printer.traverse(child);
                 child = child.nextSibling();
             }
         }
-        return accum;
     }
 
     /**
@@ -1900,15 +2098,18 @@ public class Element extends Node implements Iterable<Element> {
         // simpler than implementing a clone version with no child copy
         String baseUri = baseUri();
         if (baseUri.isEmpty()) baseUri = null; // saves setting a blank internal attribute
-        return new Element(tag, baseUri, attributes == null ? null : attributes.clone());
+        Element clone = new Element(tag, baseUri, attributes == null ? null : attributes.clone());
+        return clone;
     }
 
     @Override
     protected Element doClone(@Nullable Node parent) {
         Element clone = (Element) super.doClone(parent);
-        clone.attributes = attributes != null ? attributes.clone() : null;
-        clone.childNodes = new NodeList(childNodes.size());
-        clone.childNodes.addAll(childNodes); // the children then get iterated and cloned in Node.clone
+        clone.attributes = attributes != null ? attributes.clone() : null; // shares the arrays until modified
+        clone.childNodes = childNodes.copy(); // the children then get iterated and cloned in Node.clone
+        Slots s = slots;
+        clone.slots = null; // the clone has its own child list and text; retains only the base URI
+        if (s != null && s.baseUri != null) clone.slots().baseUri = s.baseUri;
 
         return clone;
     }
@@ -1970,7 +2171,7 @@ public class Element extends Node implements Iterable<Element> {
         return  (Element) super.filter(nodeFilter);
     }
 
-    static final class NodeList extends ArrayList<Node> {
+    static class NodeList extends ArrayList<Node> {
         public NodeList(int size) {
             super(size);
         }
@@ -1978,5 +2179,66 @@ public class Element extends Node implements Iterable<Element> {
         int modCount() {
             return this.modCount;
         }
+
+        /** A modifiable copy of this list, or the shared empty list if empty. */
+        NodeList copy() {
+            if (isEmpty()) return EmptyNodeList;
+            if (getClass() == NodeList.class) return (NodeList) clone(); // a single array copy
+            NodeList copy = new NodeList(size());
+            copy.addAll(this);
+            return copy;
+        }
+    }
+
+    @Override boolean isFrozen() {
+        return childNodes instanceof FrozenNodeList;
+    }
+
+    /** Replaces the child node list with a frozen copy, which also holds the child elements. See Document#freeze() */
+    void freezeChildNodes() {
+        if (!isFrozen())
+            childNodes = childNodes.isEmpty() ? FrozenNodeList.Empty : new FrozenNodeList(childNodes);
+    }
+
+    /**
+     The child node list of an element in a frozen Document. Rejects all modifications, and holds the element children,
+     so that no lazy state is written when the element is read.
+     */
+    static final class FrozenNodeList extends NodeList {
+        static final FrozenNodeList Empty = new FrozenNodeList(Collections.emptyList());
+        final List<Element> childEls;
+
+        FrozenNodeList(List<Node> nodes) {
+            super(nodes.size());
+            super.addAll(nodes);
+            ArrayList<Element> els = new ArrayList<>();
+            for (Node node : nodes) {
+                if (node instanceof Element) els.add((Element) node);
+            }
+            childEls = els.isEmpty() ? EmptyChildren : Collections.unmodifiableList(els);
+        }
+
+        static UnsupportedOperationException rejected() {
+            return new UnsupportedOperationException("The Document is frozen, and cannot be modified");
+        }
+
+        @Override public boolean add(Node node) { throw rejected(); }
+        @Override public void add(int index, Node node) { throw rejected(); }
+        @Override public boolean addAll(Collection<? extends Node> c) { throw rejected(); }
+        @Override public boolean addAll(int index, Collection<? extends Node> c) { throw rejected(); }
+        @Override public Node set(int index, Node node) { throw rejected(); }
+        @Override public Node remove(int index) { throw rejected(); }
+        @Override public boolean remove(Object o) { throw rejected(); }
+        @Override public boolean removeAll(Collection<?> c) { throw rejected(); }
+        @Override public boolean retainAll(Collection<?> c) { throw rejected(); }
+        @Override public boolean removeIf(Predicate<? super Node> filter) { throw rejected(); }
+        @Override protected void removeRange(int fromIndex, int toIndex) { throw rejected(); }
+        @Override public void replaceAll(UnaryOperator<Node> operator) { throw rejected(); }
+        @Override public void sort(@Nullable Comparator<? super Node> c) { throw rejected(); }
+        @Override public void clear() { throw rejected(); }
+        @Override public void trimToSize() {} // already sized
+        @Override public List<Node> subList(int fromIndex, int toIndex) {
+            return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+        }
     }
 }
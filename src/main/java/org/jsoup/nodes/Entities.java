@@ -7,6 +7,7 @@ import org.jsoup.helper.Validate;
 import org.jsoup.nodes.Document.OutputSettings;
 import org.jsoup.parser.CharacterReader;
 import org.jsoup.parser.Parser;
+import org.jspecify.annotations.Nullable;
 
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
@@ -184,27 +185,73 @@ public class Entities {
     private static String escapeString(String data, EscapeMode escapeMode, Syntax syntax, Charset charset) {
         if (data == null) return "";
         StringBuilder sb = StringUtil.borrowBuilder();
-        doEscape(data, QuietAppendable.wrap(sb), escapeMode, syntax, charset, ForText | ForAttribute);
+        doEscape(data, QuietAppendable.wrap(sb), escapeMode, syntax, charset, CoreCharset.byName(charset.name()), ForText | ForAttribute);
         return StringUtil.releaseBuilder(sb);
     }
 
     static void escape(QuietAppendable accum, String data, OutputSettings out, int options) {
-        doEscape(data, accum, out.escapeMode(), out.syntax(), out.charset(), options);
+        doEscape(data, accum, out.escapeMode(), out.syntax(), out.charset(), out.coreCharset(), options);
     }
 
-    private static void doEscape(String data, QuietAppendable accum, EscapeMode mode, Syntax syntax, Charset charset, int options) {
-        final CoreCharset coreCharset = CoreCharset.byName(charset.name());
-        final CharsetEncoder fallback = encoderFor(charset);
+    // ASCII chars that may need escaping (or, when normalising, whitespace collapsing). Any others are appended as-is, in
+    // runs. Whether a marked char is actually escaped depends on the options, mode, and syntax, so is left to appendEscaped.
+    private static final boolean[] EscapeAscii = asciiTable(false);
+    private static final boolean[] EscapeAsciiNormalise = asciiTable(true);
+
+    private static boolean[] asciiTable(boolean normalise) {
+        boolean[] table = new boolean[0x80];
+        for (char c = 0; c < 0x20; c++) table[c] = true;
+        table['&'] = table['<'] = table['>'] = table['"'] = table['\''] = true;
+        if (normalise) table[' '] = true;
+        else table['\t'] = table['\n'] = table['\r'] = false; // appended as-is
+        return table;
+    }
+
+    /** Tests if a non-ASCII char can be appended without escaping, without needing the char encoder. */
+    private static boolean passesThrough(char c, CoreCharset coreCharset, EscapeMode mode) {
+        return coreCharset == CoreCharset.utf
+            && c != 0xA0
+            && !(c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) // pairs (and invalid lone surrogates) go via codepoint
+            && !(mode == EscapeMode.xhtml && c >= 0xFFFE); // invalid xml chars get dropped
+    }
+
+    private static void doEscape(String data, QuietAppendable accum, EscapeMode mode, Syntax syntax, Charset charset,
+        CoreCharset coreCharset, int options) {
+        final boolean normalise = (options & Normalise) != 0;
+        final boolean[] escapes = normalise ? EscapeAsciiNormalise : EscapeAscii;
         final int length = data.length();
+        @Nullable CharsetEncoder fallback = null; // only created if required
 
         int codePoint;
+        int run = 0; // start of the current run of chars that need no escaping, which are appended in one go
         boolean lastWasWhite = false;
         boolean reachedNonWhite = false;
         boolean skipped = false;
-        for (int offset = 0; offset < length; offset += Character.charCount(codePoint)) {
+        for (int offset = 0; offset < length; ) {
+            final char c = data.charAt(offset);
+            if (c < 0x80 ? !escapes[c] : passesThrough(c, coreCharset, mode)) {
+                if (normalise && offset == run) { // first char of a run; not whitespace, as that's always escapable
+                    lastWasWhite = false;
+                    reachedNonWhite = true;
+                    if (skipped) {
+                        accum.append(' '); // wasn't the end, so need to place a normalized space
+                        skipped = false;
+                    }
+                }
+                offset++;
+                continue;
+            } else if (normalise && c == ' ' && offset > run && offset + 1 < length
+                && !StringUtil.isWhitespace(data.charAt(offset + 1))) {
+                offset++; // a single space between non-whitespace chars needs no normalising, so continues the run
+                continue;
+            }
+
+            if (offset > run) accum.append(data, run, offset);
             codePoint = data.codePointAt(offset);
+            offset += Character.charCount(codePoint);
+            run = offset;
 
-            if ((options & Normalise) != 0) {
+            if (normalise) {
                 if (StringUtil.isWhitespace(codePoint)) {
                     if ((options & TrimLeading) != 0 && !reachedNonWhite) continue;
                     if (lastWasWhite) continue;
@@ -224,12 +271,14 @@ public class Entities {
                     }
                 }
             }
+            if (fallback == null && coreCharset == CoreCharset.fallback) fallback = encoderFor(charset);
             appendEscaped(codePoint, accum, options, mode, syntax, coreCharset, fallback);
         }
+        if (length > run) accum.append(data, run, length);
     }
 
     private static void appendEscaped(int codePoint, QuietAppendable accum, int options, EscapeMode escapeMode,
-        Syntax syntax, CoreCharset coreCharset, CharsetEncoder fallback) {
+        Syntax syntax, CoreCharset coreCharset, @Nullable CharsetEncoder fallback) {
         // specific character range for xml 1.0; drop (not encode) if so
         if (EscapeMode.xhtml == escapeMode && !isValidXmlChar(codePoint)) {
             return;
@@ -347,7 +396,7 @@ public class Entities {
      * Alterslash: 3013, 28
      * Jsoup: 167, 2
      */
-    private static boolean canEncode(final CoreCharset charset, final char c, final CharsetEncoder fallback) {
+    private static boolean canEncode(final CoreCharset charset, final char c, @Nullable final CharsetEncoder fallback) {
         // todo add more charset tests if impacted by Android's bad perf in canEncode
         switch (charset) {
             case ascii:
@@ -355,6 +404,7 @@ public class Entities {
             case utf:
                 return !(c >= Character.MIN_SURROGATE && c < (Character.MAX_SURROGATE + 1)); // !Character.isSurrogate(c); but not in Android 10 desugar
             default:
+                assert fallback != null;
                 return fallback.canEncode(c);
         }
     }
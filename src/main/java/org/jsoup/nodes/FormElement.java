@@ -57,6 +57,7 @@ public class FormElement extends Element {
      * @return this form element, for chaining
      */
     public FormElement addElement(Element element) {
+        checkMutable();
         linkedEls.add(element);
         return this;
     }
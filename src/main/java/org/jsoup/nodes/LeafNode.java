@@ -26,17 +26,17 @@ public abstract class LeafNode extends Node {
 
     @Override
     public final Attributes attributes() {
-        ensureAttributes();
-        return (Attributes) value;
+        return ensureAttributes();
     }
 
-    private void ensureAttributes() {
-        if (!hasAttributes()) { // then value is String coreValue
-            String coreValue = (String) value;
-            Attributes attributes = new Attributes();
-            value = attributes;
-            attributes.put(nodeName(), coreValue);
-        }
+    private Attributes ensureAttributes() {
+        if (hasAttributes()) return (Attributes) value;
+        // else value is String coreValue
+        Attributes attributes = new Attributes();
+        attributes.put(nodeName(), (String) value);
+        if (isFrozen()) attributes.freeze(); // a detached read-only view, so that a shared node is not written to
+        else value = attributes;
+        return attributes;
     }
 
     String coreValue() {
@@ -57,11 +57,14 @@ public abstract class LeafNode extends Node {
 
     @Override
     public Node attr(String key, String value) {
+        checkMutable();
         if (!hasAttributes() && key.equals(nodeName())) {
             this.value = value;
+            if (parentNode != null) parentNode.invalidateText();
         } else {
             ensureAttributes();
             super.attr(key, value);
+            if (parentNode != null && key.equals(nodeName())) parentNode.invalidateText();
         }
         return this;
     }
@@ -74,6 +77,7 @@ public abstract class LeafNode extends Node {
 
     @Override
     public Node removeAttr(String key) {
+        checkMutable();
         ensureAttributes();
         return super.removeAttr(key);
     }
@@ -9,11 +9,11 @@ import org.jsoup.select.NodeVisitor;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -523,6 +523,7 @@ public abstract class Node implements Cloneable {
         Validate.isTrue(out.parentNode == this);
         Validate.notNull(in);
         if (out == in) return; // no-op self replacement
+        checkMutable();
 
         if (in.parentNode != null)
             in.parentNode.removeChild(in);
@@ -532,6 +533,20 @@ public abstract class Node implements Cloneable {
         in.parentNode = this;
         in.setSiblingIndex(index);
         out.parentNode = null;
+        invalidateText();
+    }
+
+    /** Called after a change to this node's children, or to their text; invalidates any cached element text. */
+    void invalidateText() {}
+
+    /** Tests if this node is part of a frozen Document. See Document#freeze() */
+    boolean isFrozen() {
+        return parentNode != null && parentNode.isFrozen();
+    }
+
+    /** Throws if this node is part of a frozen Document, before a change that would not otherwise be rejected. */
+    final void checkMutable() {
+        if (isFrozen()) throw Element.FrozenNodeList.rejected();
     }
 
     protected void removeChild(Node out) {
@@ -540,10 +555,12 @@ public abstract class Node implements Cloneable {
         ensureChildNodes().remove(index);
         reindexChildren(index);
         out.parentNode = null;
+        invalidateText();
     }
 
     protected void addChildren(Node... children) {
         //most used. short circuit addChildren(int), which hits reindex children and array copy
+        checkMutable();
         final List<Node> nodes = ensureChildNodes();
 
         for (Node child: children) {
@@ -551,6 +568,7 @@ public abstract class Node implements Cloneable {
             nodes.add(child);
             child.setSiblingIndex(nodes.size()-1);
         }
+        invalidateText();
     }
 
     protected void addChildren(int index, Node... children) {
@@ -558,6 +576,7 @@ public abstract class Node implements Cloneable {
         if (children.length == 0) {
             return;
         }
+        checkMutable();
         final List<Node> nodes = ensureChildNodes();
 
         // fast path - if used as a wrap (index=0, children = child[0].parent.children - do inplace
@@ -583,6 +602,7 @@ public abstract class Node implements Cloneable {
                 }
                 if (!(wasEmpty && children[0].siblingIndex == 0)) // skip reindexing if we just moved
                     reindexChildren(index);
+                invalidateText();
                 return;
             }
         }
@@ -593,6 +613,7 @@ public abstract class Node implements Cloneable {
         }
         nodes.addAll(index, Arrays.asList(children));
         reindexChildren(index);
+        invalidateText();
     }
     
     protected void reparentChild(Node child) {
@@ -882,18 +903,19 @@ public abstract class Node implements Cloneable {
         Node thisClone = doClone(null); // splits for orphan
 
         // Queue up nodes that need their children cloned (BFS).
-        final LinkedList<Node> nodesToProcess = new LinkedList<>();
+        final ArrayDeque<Node> nodesToProcess = new ArrayDeque<>();
         nodesToProcess.add(thisClone);
 
         while (!nodesToProcess.isEmpty()) {
             Node currParent = nodesToProcess.remove();
 
             final int size = currParent.childNodeSize();
+            if (size == 0) continue;
+            final List<Node> childNodes = currParent.ensureChildNodes();
             for (int i = 0; i < size; i++) {
-                final List<Node> childNodes = currParent.ensureChildNodes();
                 Node childClone = childNodes.get(i).doClone(currParent);
                 childNodes.set(i, childClone);
-                nodesToProcess.add(childClone);
+                if (childClone.childNodeSize() > 0) nodesToProcess.add(childClone);
             }
         }
 
@@ -37,7 +37,18 @@ class Printer implements NodeVisitor {
     }
 
     void indent(int depth) {
-        accum.append('\n').append(StringUtil.padding(depth * settings.indentAmount(), settings.maxPaddingWidth()));
+        int width = depth * settings.indentAmount();
+        int max = settings.maxPaddingWidth();
+        if (max != -1 && width > max) width = max;
+        if (width < Indents.length) accum.append(Indents[width]);
+        else accum.append('\n').append(StringUtil.padding(width, -1));
+    }
+
+    // newline + padding, by width. Covers the default maxPaddingWidth of 30, with headroom
+    private static final String[] Indents = new String[65];
+    static {
+        for (int i = 0; i < Indents.length; i++)
+            Indents[i] = "\n" + StringUtil.padding(i, -1);
     }
 
     @Override
@@ -57,6 +68,8 @@ class Printer implements NodeVisitor {
     /** Pretty Printer */
     static class Pretty extends Printer {
         boolean preserveWhitespace = false;
+        @Nullable private Node lastBlockCheck; // memo of the last isBlockEl test, as siblings repeatedly test their parent
+        private boolean lastIsBlock;
 
         Pretty(Node root, QuietAppendable accum, OutputSettings settings) {
             super(root, accum, settings);
@@ -151,14 +164,15 @@ class Printer implements NodeVisitor {
         }
 
         boolean isBlockEl(@Nullable Node node) {
-            if (node == null) return false;
-            if (node instanceof Element) {
-                Element el = (Element) node;
-                return el.isBlock() ||
-                    (!el.tag.isKnownTag() && (el.parentNode instanceof Document || hasChildBlocks(el)));
-            }
-
-            return false;
+            if (!(node instanceof Element)) return false;
+            if (node == lastBlockCheck) return lastIsBlock;
+
+            Element el = (Element) node;
+            boolean isBlock = el.isBlock() ||
+                (!el.tag.isKnownTag() && (el.parentNode instanceof Document || hasChildBlocks(el)));
+            lastBlockCheck = node;
+            lastIsBlock = isBlock;
+            return isBlock;
         }
 
         /**
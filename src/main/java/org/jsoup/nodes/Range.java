@@ -1,10 +1,12 @@
 package org.jsoup.nodes;
 
+import org.jsoup.internal.SourceTracker;
 import org.jsoup.internal.StringUtil;
+import org.jspecify.annotations.Nullable;
 
 import java.util.Objects;
 
-import static org.jsoup.internal.SharedConstants.*;
+import static org.jsoup.internal.SharedConstants.RangeKey;
 
 /**
  A Range object tracks the character positions in the original input source where a Node starts or ends. If you want to
@@ -15,7 +17,9 @@ import static org.jsoup.internal.SharedConstants.*;
  */
 public class Range {
     private static final Position UntrackedPos = new Position(-1, -1, -1);
-    private final Position start, end;
+    private @Nullable Position start, end; // created on demand if backed by a SourceTracker index
+    private final int startPos, endPos;
+    private final @Nullable SourceTracker source;
 
     /** An untracked source range. */
     static final Range Untracked = new Range(UntrackedPos, UntrackedPos);
@@ -28,6 +32,16 @@ public class Range {
     public Range(Position start, Position end) {
         this.start = start;
         this.end = end;
+        this.startPos = start.pos;
+        this.endPos = end.pos;
+        this.source = null;
+    }
+
+    /** Creates a Range whose Positions are resolved from the source index when first requested. */
+    Range(SourceTracker source, int startPos, int endPos) {
+        this.source = source;
+        this.startPos = startPos;
+        this.endPos = endPos;
     }
 
     /**
@@ -35,6 +49,10 @@ public class Range {
      * @return the start position
      */
     public Position start() {
+        if (start == null) {
+            assert source != null;
+            start = source.position(startPos);
+        }
         return start;
     }
 
@@ -44,7 +62,7 @@ public class Range {
      @since 1.17.1
      */
     public int startPos() {
-        return start.pos;
+        return startPos;
     }
 
     /**
@@ -52,6 +70,10 @@ public class Range {
      * @return the end position
      */
     public Position end() {
+        if (end == null) {
+            assert source != null;
+            end = source.position(endPos);
+        }
         return end;
     }
 
@@ -61,7 +83,7 @@ public class Range {
      @since 1.17.1
      */
     public int endPos() {
-        return end.pos;
+        return endPos;
     }
 
     /**
@@ -83,7 +105,7 @@ public class Range {
      */
     public boolean isImplicit() {
         if (!isTracked()) return false;
-        return start.equals(end);
+        return startPos == endPos;
     }
 
     /**
@@ -93,10 +115,13 @@ public class Range {
      * @return the Range, or the Untracked (-1) position if tracking is disabled.
      */
     static Range of(Node node, boolean start) {
-        final String key = start ? RangeKey : EndRangeKey;
         if (!node.hasAttributes()) return Untracked;
-        Object range = node.attributes().userData(key);
-        return range != null ? (Range) range : Untracked;
+        Object data = node.attributes().userData(RangeKey);
+        if (!(data instanceof SourceTracker.Entry)) return Untracked;
+        SourceTracker.Entry entry = (SourceTracker.Entry) data;
+        int from = start ? entry.start : entry.end;
+        if (from == -1) return Untracked;
+        return new Range(entry.source, from, start ? entry.startEnd : entry.endEnd);
     }
 
     @Override
@@ -106,13 +131,13 @@ public class Range {
 
         Range range = (Range) o;
 
-        if (!start.equals(range.start)) return false;
-        return end.equals(range.end);
+        if (!start().equals(range.start())) return false;
+        return end().equals(range.end());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end);
+        return Objects.hash(start(), end());
     }
 
     /**
@@ -121,7 +146,7 @@ public class Range {
      */
     @Override
     public String toString() {
-        return start + "-" + end;
+        return start() + "-" + end();
     }
 
     /**
@@ -2,6 +2,7 @@ package org.jsoup.parser;
 
 import org.jsoup.helper.Validate;
 import org.jsoup.internal.SoftPool;
+import org.jsoup.internal.SourceTracker;
 import org.jsoup.internal.StringUtil;
 import org.jspecify.annotations.Nullable;
 
@@ -9,9 +10,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Locale;
 
 /**
@@ -41,7 +40,9 @@ public final class CharacterReader implements AutoCloseable {
 
     private static final SoftPool<char[]> BufferPool = new SoftPool<>(() -> new char[BufferSize]); // recycled char buffer
 
-    @Nullable private ArrayList<Integer> newlinePositions = null; // optionally track the pos() position of newlines - scans during bufferUp()
+    private int @Nullable [] newlinePositions = null; // optionally track the pos() position of newlines - scans during bufferUp()
+    private int newlineCount = 0; // the used length of newlinePositions
+    @Nullable private SourceTracker sourcePositions = null; // if tracking source positions, the full index of newlines
     private int lineNumberOffset = 1; // line numbers start at 1; += newlinePosition[indexof(pos)]
 
     public CharacterReader(Reader input, int sz) {
@@ -163,7 +164,8 @@ public final class CharacterReader implements AutoCloseable {
      */
     public void trackNewlines(boolean track) {
         if (track && newlinePositions == null) {
-            newlinePositions = new ArrayList<>(BufferSize / 80); // rough guess of likely count
+            newlinePositions = new int[BufferSize / 80]; // rough guess of likely count
+            newlineCount = 0;
             scanBufferForNewlines(); // first pass when enabled; subsequently called during bufferUp
         }
         else if (!track)
@@ -218,7 +220,8 @@ public final class CharacterReader implements AutoCloseable {
         int i = lineNumIndex(pos);
         if (i == -1)
           return pos + 1;
-        return pos - newlinePositions.get(i) + 1;
+        assert newlinePositions != null;
+        return pos - newlinePositions[i] + 1;
     }
 
     /**
@@ -234,7 +237,8 @@ public final class CharacterReader implements AutoCloseable {
 
     private int lineNumIndex(int pos) {
         if (!isTrackNewlines()) return 0;
-        int i = Collections.binarySearch(newlinePositions, pos);
+        assert newlinePositions != null;
+        int i = Arrays.binarySearch(newlinePositions, 0, newlineCount, pos);
         if (i < -1) i = Math.abs(i) - 2;
         return i;
     }
@@ -246,22 +250,36 @@ public final class CharacterReader implements AutoCloseable {
         if (!isTrackNewlines())
             return;
 
-        if (newlinePositions.size() > 0) {
+        assert newlinePositions != null;
+        if (newlineCount > 0) {
             // work out the line number that we have read up to (as we have likely scanned past this point)
             int index = lineNumIndex(consumed);
             if (index == -1) index = 0; // first line
-            int linePos = newlinePositions.get(index);
+            int linePos = newlinePositions[index];
             lineNumberOffset += index; // the num lines we've read up to
-            newlinePositions.clear();
-            newlinePositions.add(linePos); // roll the last read pos to first, for cursor num after buffer
+            newlinePositions[0] = linePos; // roll the last read pos to first, for cursor num after buffer
+            newlineCount = 1;
         }
 
         for (int i = bufPos; i < bufLength; i++) {
-            if (charBuf[i] == '\n')
-                newlinePositions.add(1 + consumed + i);
+            if (charBuf[i] == '\n') {
+                int pos = 1 + consumed + i;
+                if (newlineCount == newlinePositions.length)
+                    newlinePositions = Arrays.copyOf(newlinePositions, newlineCount * 2);
+                newlinePositions[newlineCount++] = pos;
+                if (sourcePositions != null) sourcePositions.addNewline(pos);
+            }
         }
     }
 
+    /**
+     Sets the source position index that all newline positions will be recorded into (in addition to the rolling
+     window used for line numbers during the parse). Set before enabling {@link #trackNewlines(boolean)}.
+     */
+    void sourcePositions(@Nullable SourceTracker positions) {
+        this.sourcePositions = positions;
+    }
+
     /**
      * Tests if all the content has been read.
      * @return true if nothing left to read.
@@ -352,6 +370,23 @@ public final class CharacterReader implements AutoCloseable {
         return -1;
     }
 
+    /**
+     Skips over the input up to the next instance of the char (or to the end of input), without creating a String of
+     the skipped content.
+     @param c the delimiter
+     */
+    void skipTo(char c) {
+        while (true) {
+            int offset = nextIndexOf(c);
+            if (offset != -1) {
+                bufPos += offset;
+                return;
+            }
+            bufPos = bufLength; // skip the buffered content, and refill
+            if (isEmpty()) return;
+        }
+    }
+
     /**
      * Reads characters up to the specific char.
      * @param c the delimiter
@@ -541,6 +576,24 @@ public final class CharacterReader implements AutoCloseable {
         return true;
     }
 
+    /**
+     Tests if the input matches the tag sequence (e.g. {@code </script}), case-insensitively, and that the sequence is
+     then followed by a tag name terminator (whitespace, {@code /}, {@code >}, or the end of input).
+     @param seq the tag open or close sequence
+     @return true if matched
+     */
+    boolean matchesTagIgnoreCase(String seq) {
+        if (!matchesIgnoreCase(seq)) return false;
+        int next = bufPos + seq.length();
+        if (next >= bufLength) return readFully; // at EOF
+        switch (charBuf[next]) {
+            case '\t': case '\n': case '\r': case '\f': case ' ': case '/': case '>':
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      Tests if the next character in the queue matches any of the characters in the sequence, case sensitively.
      @param seq list of characters to check for
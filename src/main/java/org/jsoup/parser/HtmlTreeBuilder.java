@@ -416,7 +416,7 @@ public class HtmlTreeBuilder extends TreeBuilder {
     /** Inserts the provided character token into the provided element. */
     void insertCharacterToElement(Token.Character characterToken, Element el) {
         final Node node;
-        final String data = characterToken.getData();
+        final String data = limitText(characterToken.getData());
 
         if (characterToken.isCData())
             node = new CDataNode(data);
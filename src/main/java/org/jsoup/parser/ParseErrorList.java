@@ -11,6 +11,7 @@ public class ParseErrorList extends ArrayList<ParseError>{
     private static final int INITIAL_CAPACITY = 16;
     private final int initialCapacity;
     private final int maxSize;
+    private boolean hasLimitError = false;
     
     ParseErrorList(int initialCapacity, int maxSize) {
         super(initialCapacity);
@@ -34,6 +35,21 @@ public class ParseErrorList extends ArrayList<ParseError>{
         return maxSize;
     }
 
+    /** Tracks if a parse limit error has been recorded, as that is added even if not otherwise tracking */
+    boolean hasLimitError() {
+        return hasLimitError;
+    }
+
+    void hasLimitError(boolean hasLimitError) {
+        this.hasLimitError = hasLimitError;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        hasLimitError = false;
+    }
+
     public static ParseErrorList noTracking() {
         return new ParseErrorList(0, 0);
     }
@@ -0,0 +1,34 @@
+package org.jsoup.parser;
+
+/**
+ A ParseLimitException is thrown when a parse reaches one of its configured {@link ParseLimits}, and
+ {@link ParseLimits#throwOnLimit(boolean)} is enabled.
+
+ @since 1.21.1
+ */
+public final class ParseLimitException extends RuntimeException {
+    private final ParseLimits.Limit limit;
+    private final ParseError error;
+
+    ParseLimitException(ParseLimits.Limit limit, ParseError error) {
+        super(error.toString());
+        this.limit = limit;
+        this.error = error;
+    }
+
+    /**
+     Get the limit that was reached.
+     @return the limit
+     */
+    public ParseLimits.Limit limit() {
+        return limit;
+    }
+
+    /**
+     Get the parse error describing where and why the limit was reached.
+     @return the parse error
+     */
+    public ParseError error() {
+        return error;
+    }
+}
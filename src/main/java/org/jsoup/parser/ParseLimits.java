@@ -0,0 +1,186 @@
+package org.jsoup.parser;
+
+import org.jsoup.helper.Validate;
+
+/**
+ Resource limits for a parse, to bound the memory and time that a single (possibly hostile) input can consume.
+ <p>When a limit is reached, the default behavior is to stop gracefully: the parse is truncated (or the attribute or
+ text is dropped), and a {@link ParseError} describing the limit is recorded in the parser's {@link ParseErrorList}
+ (even if error tracking is not otherwise enabled). Alternatively, set {@link #throwOnLimit(boolean)} to instead throw a
+ {@link ParseLimitException}.</p>
+ <p>By default, no limits are set other than a maximum of {@value #DefaultMaxAttributes} attributes per tag.</p>
+ <p>Usage example:</p>
+ <pre>{@code
+ Parser parser = Parser.htmlParser();
+ parser.limits()
+     .maxElements(100_000)
+     .maxDepth(512)
+     .timeout(2000);
+ Document doc = Jsoup.parse(html, parser);
+ }</pre>
+
+ @see Parser#limits()
+ @since 1.21.1
+ */
+public class ParseLimits {
+    /** The default maximum number of attributes per tag. Crafted HTML can otherwise spew attributes, and real-world
+     HTML will P99 around 8 attributes, so plenty of headroom. */
+    public static final int DefaultMaxAttributes = 512;
+
+    /**
+     The kind of limit that was reached.
+     */
+    public enum Limit {
+        /** The maximum number of elements in the document. */
+        Elements,
+        /** The maximum depth of the stack of open elements. */
+        Depth,
+        /** The maximum number of attributes in a single tag. */
+        Attributes,
+        /** The maximum length of a single text (or data) node. */
+        TextLength,
+        /** The maximum wall-clock duration of the parse. */
+        Timeout
+    }
+
+    private int maxElements = Integer.MAX_VALUE;
+    private int maxDepth = Integer.MAX_VALUE;
+    private int maxAttributes = DefaultMaxAttributes;
+    private int maxTextLength = Integer.MAX_VALUE;
+    private long timeoutMillis = 0; // 0 == no timeout
+    private boolean throwOnLimit = false;
+
+    /**
+     Create a new ParseLimits, with the default (unbounded) limits.
+     */
+    public ParseLimits() {}
+
+    ParseLimits(ParseLimits copy) {
+        maxElements = copy.maxElements;
+        maxDepth = copy.maxDepth;
+        maxAttributes = copy.maxAttributes;
+        maxTextLength = copy.maxTextLength;
+        timeoutMillis = copy.timeoutMillis;
+        throwOnLimit = copy.throwOnLimit;
+    }
+
+    /**
+     Set the maximum number of elements that will be created in a parse. Once reached, the parse stops, and the
+     document contains the elements created to that point.
+     @param maxElements the maximum number of elements. Set to 0 for no limit.
+     @return this, for chaining
+     */
+    public ParseLimits maxElements(int maxElements) {
+        Validate.isTrue(maxElements >= 0, "maxElements must be 0 (unlimited) or greater");
+        this.maxElements = unlimitedIfZero(maxElements);
+        return this;
+    }
+
+    /**
+     Get the maximum number of elements that will be created in a parse.
+     @return the maximum elements; {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int maxElements() {
+        return maxElements;
+    }
+
+    /**
+     Set the maximum depth of the stack of open elements (i.e. of element nesting). Once reached, the parse stops.
+     @param maxDepth the maximum depth. Set to 0 for no limit.
+     @return this, for chaining
+     */
+    public ParseLimits maxDepth(int maxDepth) {
+        Validate.isTrue(maxDepth >= 0, "maxDepth must be 0 (unlimited) or greater");
+        this.maxDepth = unlimitedIfZero(maxDepth);
+        return this;
+    }
+
+    /**
+     Get the maximum depth of the stack of open elements.
+     @return the maximum depth; {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     Set the maximum number of attributes that will be kept on a single tag. Additional attributes are dropped.
+     @param maxAttributes the maximum attributes per tag. Set to 0 for no limit. Default is {@value #DefaultMaxAttributes}.
+     @return this, for chaining
+     */
+    public ParseLimits maxAttributes(int maxAttributes) {
+        Validate.isTrue(maxAttributes >= 0, "maxAttributes must be 0 (unlimited) or greater");
+        this.maxAttributes = unlimitedIfZero(maxAttributes);
+        return this;
+    }
+
+    /**
+     Get the maximum number of attributes kept on a single tag.
+     @return the maximum attributes; {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int maxAttributes() {
+        return maxAttributes;
+    }
+
+    /**
+     Set the maximum length of a single text, data, or CDATA node. Longer runs of text are truncated to this length.
+     @param maxTextLength the maximum text node length, in chars. Set to 0 for no limit.
+     @return this, for chaining
+     */
+    public ParseLimits maxTextLength(int maxTextLength) {
+        Validate.isTrue(maxTextLength >= 0, "maxTextLength must be 0 (unlimited) or greater");
+        this.maxTextLength = unlimitedIfZero(maxTextLength);
+        return this;
+    }
+
+    /**
+     Get the maximum length of a single text node.
+     @return the maximum length; {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int maxTextLength() {
+        return maxTextLength;
+    }
+
+    /**
+     Set a wall-clock time budget for the parse. Once exceeded, the parse stops. Note that the time spent waiting on a
+     slow input Reader is included; when fetching, also see {@link org.jsoup.Connection#timeout(int)}.
+     @param millis the maximum parse duration, in milliseconds. Set to 0 for no limit.
+     @return this, for chaining
+     */
+    public ParseLimits timeout(long millis) {
+        Validate.isTrue(millis >= 0, "timeout must be 0 (unlimited) or greater");
+        this.timeoutMillis = millis;
+        return this;
+    }
+
+    /**
+     Get the parse time budget.
+     @return the time budget, in milliseconds; 0 if unlimited.
+     */
+    public long timeout() {
+        return timeoutMillis;
+    }
+
+    /**
+     Set whether reaching a limit should throw a {@link ParseLimitException}, rather than gracefully truncating the
+     parse.
+     @param throwOnLimit {@code true} to throw when a limit is reached. Default is {@code false}.
+     @return this, for chaining
+     */
+    public ParseLimits throwOnLimit(boolean throwOnLimit) {
+        this.throwOnLimit = throwOnLimit;
+        return this;
+    }
+
+    /**
+     Get whether reaching a limit will throw a {@link ParseLimitException}.
+     @return {@code true} if reaching a limit throws
+     */
+    public boolean throwOnLimit() {
+        return throwOnLimit;
+    }
+
+    private static int unlimitedIfZero(int limit) {
+        return limit == 0 ? Integer.MAX_VALUE : limit;
+    }
+}
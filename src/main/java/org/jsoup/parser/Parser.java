@@ -1,15 +1,22 @@
 package org.jsoup.parser;
 
 import org.jsoup.helper.Validate;
+import org.jsoup.internal.Normalizer;
+import org.jsoup.internal.StringUtil;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
+import org.jsoup.select.Evaluator;
 import org.jspecify.annotations.Nullable;
 
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  Parses HTML or XML into a {@link org.jsoup.nodes.Document}. Generally, it is simpler to use one of the parse methods in
@@ -29,6 +36,9 @@ public class Parser implements Cloneable {
     private ParseSettings settings;
     private boolean trackPosition = false;
     private @Nullable TagSet tagSet;
+    private ParseLimits limits;
+    private @Nullable Evaluator skipContent;
+    private final ArrayList<ElementClosedHook> closedHooks = new ArrayList<>(0);
     private final ReentrantLock lock = new ReentrantLock();
 
     /**
@@ -39,6 +49,7 @@ public class Parser implements Cloneable {
         this.treeBuilder = treeBuilder;
         settings = treeBuilder.defaultSettings();
         errors = ParseErrorList.noTracking();
+        limits = new ParseLimits();
     }
 
     /**
@@ -60,6 +71,9 @@ public class Parser implements Cloneable {
         errors = new ParseErrorList(copy.errors); // only copies size, not contents
         settings = new ParseSettings(copy.settings);
         trackPosition = copy.trackPosition;
+        limits = new ParseLimits(copy.limits);
+        skipContent = copy.skipContent;
+        closedHooks.addAll(copy.closedHooks);
     }
 
     /**
@@ -148,7 +162,8 @@ public class Parser implements Cloneable {
     }
 
     /**
-     * Retrieve the parse errors, if any, from the last parse.
+     * Retrieve the parse errors, if any, from the last parse. If a {@link #limits() parse limit} was reached, an error
+     * describing that will be included, even if error tracking is not enabled.
      * @return list of parse errors, up to the size of the maximum errors tracked.
      * @see #setTrackErrors(int)
      */
@@ -176,6 +191,143 @@ public class Parser implements Cloneable {
         return this;
     }
 
+    /**
+     Get the resource limits that will be applied to parses made with this Parser. The returned object may be modified
+     to set limits.
+     @return the current ParseLimits
+     @see ParseLimits
+     @since 1.21.1
+     */
+    public ParseLimits limits() {
+        return limits;
+    }
+
+    /**
+     Set the resource limits that will be applied to parses made with this Parser, to bound the memory and time a
+     single input can consume.
+     @param limits the limits to apply
+     @return this Parser, for chaining
+     @see ParseLimits
+     @since 1.21.1
+     */
+    public Parser limits(ParseLimits limits) {
+        Validate.notNull(limits);
+        this.limits = limits;
+        return this;
+    }
+
+    /**
+     Set the tags whose content should be skipped during the parse. For example, if you never use the contents of
+     {@code script}, {@code style}, or {@code svg} elements, skipping them reduces parse time and the retained size of
+     the Document.
+     <p>When a matching start tag is parsed, its element is inserted as usual, but the input up to its end tag is skipped
+     over without being tokenised, and no child nodes are created. So the element will be present in the Document, but
+     empty. Nested elements of the same name are balanced, but the skip is not otherwise aware of the HTML structure;
+     e.g. an unclosed element will skip to the end of the input.</p>
+     @param tagNames the tag names to skip the content of (case-insensitive). To clear, use
+     {@code skipContent((Evaluator) null)}.
+     @return this Parser, for chaining
+     @see #skipContent(Evaluator)
+     @since 1.21.1
+     */
+    public Parser skipContent(String... tagNames) {
+        Validate.noNullElements(tagNames);
+        if (tagNames.length == 0) return skipContent((Evaluator) null);
+
+        final Set<String> names = new HashSet<>();
+        for (String name : tagNames)
+            names.add(Normalizer.normalize(name));
+        return skipContent(new Evaluator() {
+            @Override public boolean matches(Element root, Element element) {
+                return names.contains(element.normalName());
+            }
+
+            @Override public String toString() {
+                return StringUtil.join(names, ", ");
+            }
+        });
+    }
+
+    /**
+     Set an Evaluator to select the elements whose content should be skipped during the parse. The Evaluator is tested
+     against each element as it is inserted from its start tag (so it has its attributes, and its parents, but no
+     children yet). See {@link #skipContent(String...)} for details.
+     @param eval the Evaluator to match elements to skip the content of; or {@code null} to clear
+     @return this Parser, for chaining
+     @see org.jsoup.select.Selector#evaluatorOf(String)
+     @since 1.21.1
+     */
+    public Parser skipContent(@Nullable Evaluator eval) {
+        this.skipContent = eval;
+        return this;
+    }
+
+    /**
+     Get the Evaluator matching the elements whose content will be skipped during the parse, if set.
+     @return the skip content Evaluator, or {@code null} if not set
+     @since 1.21.1
+     */
+    public @Nullable Evaluator skipContent() {
+        return skipContent;
+    }
+
+    /**
+     Register a callback that is invoked during the parse, as each Element that matches the Evaluator is closed (that
+     is, when the element and all of its children have been parsed). This allows data to be extracted incrementally
+     while parsing, rather than parsing the full document and then running selectors over it.
+     <p>The Evaluator is tested with the Document being parsed as its root; the Document will only be partially
+     complete. Callbacks run in the order registered. A callback may call {@link #stop()} to end the parse early, once
+     everything required has been found. (If this Parser will be copied via {@link #newInstance()}, use
+     {@code el.ownerDocument().parser().stop()} to stop the parser actually running the callback.)</p>
+     <p>Usage example:</p>
+     <pre>{@code
+     Parser parser = Parser.htmlParser();
+     Map<String, String> meta = new HashMap<>();
+     parser.onElementClosed(Selector.evaluatorOf("meta[property]"), el -> meta.put(el.attr("property"), el.attr("content")));
+     parser.onElementClosed(Selector.evaluatorOf("head"), el -> parser.stop()); // don't need the body
+     Document doc = Jsoup.parse(html, parser);
+     }</pre>
+     @param eval the Evaluator to test each closed element against
+     @param consumer the callback to receive matching elements
+     @return this Parser, for chaining
+     @see org.jsoup.select.Selector#evaluatorOf(String)
+     @since 1.21.1
+     */
+    public Parser onElementClosed(Evaluator eval, Consumer<Element> consumer) {
+        Validate.notNullParam(eval, "eval");
+        Validate.notNullParam(consumer, "consumer");
+        closedHooks.add(new ElementClosedHook(eval, consumer));
+        return this;
+    }
+
+    /**
+     Stops the in-progress parse, e.g. from an {@link #onElementClosed(Evaluator, Consumer)} callback. No more input will
+     be read, any open elements are closed (without further callbacks), and the (partial) Document is returned from the
+     parse method as normal.
+     <p>The stop applies only to the current parse; a subsequent parse with this Parser will run normally.</p>
+     @return this Parser
+     @since 1.21.1
+     */
+    public Parser stop() {
+        treeBuilder.stop();
+        return this;
+    }
+
+    /** Get the registered element closed hooks, or null if none. Copied into the TreeBuilder on parse init. */
+    ElementClosedHook @Nullable [] closedHooks() {
+        return closedHooks.isEmpty() ? null : closedHooks.toArray(new ElementClosedHook[0]);
+    }
+
+    static final class ElementClosedHook {
+        final Evaluator eval;
+        final Consumer<Element> consumer;
+
+        ElementClosedHook(Evaluator eval, Consumer<Element> consumer) {
+            this.eval = eval;
+            this.consumer = consumer;
+        }
+    }
+
     /**
      Update the ParseSettings of this Parser, to control the case sensitivity of tags and attributes.
      * @param settings the new settings
@@ -5,6 +5,7 @@ import org.jsoup.helper.Validate;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
 import org.jsoup.select.Evaluator;
 import org.jsoup.select.NodeVisitor;
 import org.jsoup.select.Selector;
@@ -15,6 +16,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -134,6 +136,45 @@ public class StreamParser implements Closeable {
             false);
     }
 
+    /**
+     Creates a {@link Stream} of only the {@link Element}s at the specified tag path, for XML documents. As each matching
+     element is closed, its complete subtree is emitted and then detached from the Document (along with any blank text
+     that preceded it), so the retained Document stays small regardless of the size of the input. This is useful for
+     large feeds such as sitemaps and RSS.
+     <p>The path is a {@code /} separated list of tag names from the root element, e.g. {@code urlset/url} for a
+     sitemap, or {@code rss/channel/item} for an RSS feed. Tag names are matched case-sensitively against the
+     {@link Element#tagName() tag name} (including any namespace prefix, e.g. {@code atom:link}), and a {@code *} segment
+     matches any tag. Namespaces are resolved as normal during the parse, so {@link Element#tag()} namespaces and
+     prefixed attributes are intact on the emitted elements.</p>
+     <p>Emitted elements have no parent. Elements that do not match the path (such as the RSS channel's title) remain in
+     the {@link #document()}.</p>
+     <p>Usage example:</p>
+     <pre>{@code
+     try (StreamParser streamer = new StreamParser(Parser.xmlParser()).parse(reader, baseUri)) {
+         streamer.streamPath("urlset/url")
+             .forEach(url -> process(url.expectFirst("loc").text()));
+     }
+     }</pre>
+     @param path the tag path of the elements to emit
+     @return a stream of the matching, detached, Element objects
+     @throws IllegalArgumentException if the parser is not an XML parser, or if the path is empty
+     @throws UncheckedIOException if the underlying Reader excepts during a read (in stream consuming methods)
+     @since 1.21.1
+     */
+    public Stream<Element> streamPath(String path) {
+        Validate.isTrue(treeBuilder instanceof XmlTreeBuilder, "streamPath() requires an XML parser");
+        Validate.notEmptyParam(path, "path");
+        String[] segments = path.split("/");
+        ArrayList<String> names = new ArrayList<>(segments.length);
+        for (String segment : segments) {
+            segment = segment.trim();
+            if (!segment.isEmpty()) names.add(segment);
+        }
+        Validate.isFalse(names.isEmpty(), "path must contain at least one tag name");
+        it.path = names.toArray(new String[0]);
+        return stream();
+    }
+
     /**
      Returns an {@link Iterator} of {@link Element}s, with the input being parsed as each element is consumed. Each
      Element returned will be complete (that is, all of its children will be included, and if it has a next sibling, that
@@ -305,10 +346,12 @@ public class StreamParser implements Closeable {
         private @Nullable Element current;  // most recently emitted
         private @Nullable Element next;     // element waiting to be picked up
         private @Nullable Element tail;     // The last tailed element (</html>), on hold for final pop
+        String @Nullable [] path;           // if set, only emits (and detaches) elements at this tag path
 
         void reset() {
             emitQueue.clear();
             current = next = tail = null;
+            path = null;
             stopped = false;
         }
 
@@ -367,6 +410,7 @@ public class StreamParser implements Closeable {
 
         // NodeVisitor Interface:
         @Override public void head(Node node, int depth) {
+            if (path != null) return; // only emitting on close
             if (node instanceof Element) {
                 Element prev = ((Element) node).previousElementSibling();
                 // We prefer to wait until an element has a next sibling before emitting it; otherwise, get it in tail
@@ -375,11 +419,42 @@ public class StreamParser implements Closeable {
         }
 
         @Override public void tail(Node node, int depth) {
+            if (path != null) {
+                if (node instanceof Element && matchesPath((Element) node)) {
+                    Element el = (Element) node;
+                    // discard any blank text (indents) before this element, and the element, so the doc doesn't grow
+                    Node prev;
+                    while ((prev = el.previousSibling()) instanceof TextNode && ((TextNode) prev).isBlank())
+                        prev.remove();
+                    el.remove();
+                    emitQueue.add(el);
+                }
+                return;
+            }
+
             if (node instanceof Element) {
                 tail = (Element) node; // kept for final hit
                 Element lastChild = tail.lastElementChild(); // won't get a nextsib, so emit that:
                 if (lastChild != null) emitQueue.add(lastChild);
             }
         }
+
+        /** Tests if the just-closed element is at the path. Its ancestors are the current stack of open elements. */
+        private boolean matchesPath(Element el) {
+            assert path != null;
+            final ArrayList<Element> stack = treeBuilder.stack;
+            final int depth = path.length - 1;
+            if (stack == null || stack.size() != depth || !segmentMatches(path[depth], el))
+                return false;
+            for (int i = depth - 1; i >= 0; i--) { // check up from the parent, which is most likely to mismatch
+                if (!segmentMatches(path[i], stack.get(i)))
+                    return false;
+            }
+            return true;
+        }
+
+        private boolean segmentMatches(String segment, Element el) {
+            return segment.equals("*") || segment.equals(el.tagName());
+        }
     }
 }
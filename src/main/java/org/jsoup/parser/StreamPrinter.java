@@ -0,0 +1,50 @@
+package org.jsoup.parser;
+
+import org.jsoup.internal.Normalizer;
+import org.jsoup.internal.QuietAppendable;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+
+/**
+ Serializes nodes incrementally for the {@link StreamRewriter}, so that a document can be written out while it is still
+ being parsed. Start and end tags of an Element can be written separately from its children, and complete nodes written
+ as they are finished. The caller is responsible for balancing start and end tags. Nodes are serialized with the output
+ settings of their document (which should not pretty-print).
+ */
+final class StreamPrinter {
+    private final QuietAppendable accum;
+    private final Document.OutputSettings settings;
+    private final Document scratch = new Document(""); // holds a shallow copy of an element to write its start tag
+
+    StreamPrinter(QuietAppendable accum, Document.OutputSettings settings) {
+        this.accum = accum;
+        this.settings = settings;
+        scratch.outputSettings(settings);
+    }
+
+    /**
+     Write the start tag of the element, including its attributes, but not its children. Only called for elements that
+     are opened ahead of their content, so is not on the hot path.
+     */
+    void printStart(Element el) {
+        Element shallow = el.shallowClone(); // without children, so its outer HTML is the start and end tag
+        scratch.appendChild(shallow);
+        String html = shallow.outerHtml();
+        shallow.remove();
+        int end = html.lastIndexOf("</");
+        accum.append(end > 0 ? html.substring(0, end) : html);
+    }
+
+    /** Write the end tag of the element. */
+    void printEnd(Element el) {
+        String name = el.tagName();
+        if (settings.syntax() == Document.OutputSettings.Syntax.xml) name = Normalizer.xmlSafeTagName(name);
+        accum.append("</").append(name).append('>');
+    }
+
+    /** Write the complete outer HTML of the node, including all of its children. */
+    void print(Node node) {
+        accum.append(node.outerHtml());
+    }
+}
@@ -0,0 +1,303 @@
+package org.jsoup.parser;
+
+import org.jsoup.SerializationException;
+import org.jsoup.helper.Validate;
+import org.jsoup.internal.QuietAppendable;
+import org.jsoup.internal.StreamAppendable;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeVisitor;
+import org.jsoup.select.Selector;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ A StreamRewriter parses an HTML input, lets you modify selected elements, and writes the resulting HTML to an output,
+ all in a single pass. Once a subtree has been closed by the parser (and any handlers have run on it), it is written
+ out and removed from the DOM, so memory use is proportional to the depth of the document rather than its size.
+ <p>Example, which rewrites links and drops scripts:</p>
+ <pre>{@code
+ StreamRewriter rewriter = new StreamRewriter(Parser.htmlParser())
+     .on("a[href]", el -> el.attr("href", el.absUrl("href")))
+     .on("script", Element::remove);
+ rewriter.rewrite(reader, baseUri, out);
+ }</pre>
+ <p>Handler queries are evaluated when each element's start tag is parsed, so they may only depend on the element's
+ tag, its attributes, and its ancestors; queries on content or on preceding siblings (which may have already been
+ written) will not match reliably. A matched element is held in the DOM until it is closed, and its handlers are then
+ called with the complete subtree, which may be freely modified, replaced, or removed. Handlers for elements nested
+ within a matched element are called as each is closed, before the outer element's handlers.</p>
+ <p>The output is not pretty-printed. Content that the parser relocates after it has been written, such as
+ foster-parented table content, or attributes merged into {@code html} and {@code body} from later tags, will be
+ written in source order, or not at all.</p>
+ <p>A StreamRewriter can be reused for further inputs, but is not thread-safe for concurrent inputs.</p>
+ @see StreamParser
+ @since 1.21.1
+ */
+public class StreamRewriter {
+    private final Parser parser;
+    private final TreeBuilder treeBuilder;
+    private final ArrayList<Handler> handlers = new ArrayList<>();
+
+    /**
+     Construct a new StreamRewriter, using the supplied base Parser.
+     @param parser the configured base parser
+     */
+    public StreamRewriter(Parser parser) {
+        Validate.notNull(parser);
+        this.parser = parser;
+        treeBuilder = parser.getTreeBuilder();
+    }
+
+    /**
+     Add a handler to be called for each element matching the query, once the element has been closed.
+     @param cssQuery the CSS query to match elements against, by their tag, attributes, and ancestors
+     @param handler the callback to receive matching elements
+     @return this rewriter, for chaining
+     */
+    public StreamRewriter on(String cssQuery, Consumer<Element> handler) {
+        return on(Selector.evaluatorOf(cssQuery), handler);
+    }
+
+    /**
+     Add a handler to be called for each element matching the evaluator, once the element has been closed.
+     @param eval the evaluator to match elements against, by their tag, attributes, and ancestors
+     @param handler the callback to receive matching elements
+     @return this rewriter, for chaining
+     */
+    public StreamRewriter on(Evaluator eval, Consumer<Element> handler) {
+        Validate.notNullParam(eval, "eval");
+        Validate.notNullParam(handler, "handler");
+        handlers.add(new Handler(eval, handler));
+        return this;
+    }
+
+    /**
+     Parse the input, and write the rewritten HTML to the output. The input Reader will be closed when the parse
+     completes.
+     @param input the input to be read
+     @param baseUri the URL of this input, for absolute link resolution
+     @param out the output to write to
+     @throws IOException if the input or output throws an exception
+     */
+    public void rewrite(Reader input, String baseUri, Appendable out) throws IOException {
+        Validate.notNull(out);
+        run(input, baseUri, null, QuietAppendable.wrap(out));
+    }
+
+    /**
+     Parse the input, and write the rewritten HTML to the output stream, encoded in the supplied charset. The input
+     Reader will be closed when the parse completes; the OutputStream will be flushed but not closed.
+     @param input the input to be read
+     @param baseUri the URL of this input, for absolute link resolution
+     @param out the output stream to write to
+     @param charset the output charset; characters that cannot be encoded in it are escaped
+     @throws IOException if the input or output throws an exception
+     */
+    public void rewrite(Reader input, String baseUri, OutputStream out, Charset charset) throws IOException {
+        Validate.notNull(out);
+        Validate.notNull(charset);
+        try (StreamAppendable accum = new StreamAppendable(out, charset)) {
+            run(input, baseUri, charset, accum);
+        }
+    }
+
+    private void run(Reader input, String baseUri, @Nullable Charset charset, QuietAppendable accum) throws IOException {
+        Validate.notNull(input);
+        Validate.notNull(baseUri);
+        treeBuilder.initialiseParse(input, baseUri, parser);
+        Document doc = treeBuilder.doc;
+        Document.OutputSettings settings = doc.outputSettings().prettyPrint(false);
+        if (charset != null) settings.charset(charset);
+
+        Emitter emitter = new Emitter(doc, new StreamPrinter(accum, settings));
+        treeBuilder.nodeListener(emitter);
+        try {
+            treeBuilder.runParser();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (SerializationException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw e;
+        } finally {
+            treeBuilder.nodeListener = null;
+        }
+    }
+
+    /**
+     Listens to the parse, holding matched elements until they close, and writing out everything else as soon as it is
+     complete. Tracks which elements are open in the parse, and which start tags have been written but not yet ended.
+     */
+    private final class Emitter implements NodeVisitor {
+        private final Document doc;
+        private final StreamPrinter printer;
+        private final HashMap<Element, ArrayList<Handler>> held = new HashMap<>(); // matched elements, and their handlers
+        private final ArrayList<Element> open = new ArrayList<>(); // elements with start tags written
+        private int holding = 0; // count of held elements still open in the parse; while > 0, nothing is written
+
+        Emitter(Document doc, StreamPrinter printer) {
+            this.doc = doc;
+            this.printer = printer;
+        }
+
+        @Override public void head(Node node, int depth) {
+            if (!(node instanceof Element) || node == doc) return;
+            Element el = (Element) node;
+            ArrayList<Handler> matched = null;
+            for (Handler handler : handlers) {
+                if (handler.eval.matches(doc, el)) {
+                    if (matched == null) matched = new ArrayList<>(1);
+                    matched.add(handler);
+                }
+            }
+            if (matched != null) {
+                held.put(el, matched);
+                holding++;
+            }
+        }
+
+        @Override public void tail(Node node, int depth) {
+            if (node == doc) { // end of the parse; write out everything remaining
+                emitChildren(doc);
+                closeTo(0);
+                return;
+            }
+            if (!(node instanceof Element)) return;
+            Element el = (Element) node;
+
+            ArrayList<Handler> matched = held.remove(el);
+            if (matched != null) {
+                holding--;
+                Element parent = el.parent();
+                if (holding == 0 && parent != null) openTo(parent);
+                for (Handler handler : matched)
+                    handler.consumer.accept(el);
+                if (holding == 0 && parent != null) emitChildren(parent);
+                return;
+            }
+
+            if (holding > 0 || isLive(el)) return; // written later, with its held ancestor, or once its content closes
+            Element parent = el.parent();
+            if (parent == null) return;
+            if (open.contains(el)) {
+                openTo(el);
+                emitChildren(el);
+                closeTo(open.size() - 1);
+                el.remove();
+            } else {
+                openTo(parent);
+                emitChildren(parent);
+            }
+        }
+
+        /**
+         Tests if the node is, or contains, an element that is still open in the parse. That's usually only its own
+         descendants, but the adoption agency can close an element while content it held is still open.
+         */
+        private boolean isLive(Node node) {
+            ArrayList<Element> stack = treeBuilder.stack;
+            if (stack == null) return false;
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                Element prev = i > 0 ? stack.get(i - 1) : null; // ancestors past prev are checked in its own pass
+                for (Node n = stack.get(i); n != null && n != prev; n = n.parentNode()) {
+                    if (n == node) return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         Write any start tags required so that the output is positioned within the element, first ending any written
+         elements that are not its ancestors, and writing the preceding siblings of newly started ancestors.
+         */
+        private void openTo(Element el) {
+            ArrayList<Element> chain = new ArrayList<>();
+            for (Element e = el; e != null && e != doc; e = e.parent())
+                chain.add(e);
+
+            int depth = 0; // the count of written open elements that are ancestors of el
+            for (int i = chain.size() - 1; i >= 0 && depth < open.size(); i--) {
+                if (open.get(depth) != chain.get(i)) break;
+                depth++;
+            }
+            closeTo(depth);
+
+            for (int i = chain.size() - 1 - depth; i >= 0; i--) {
+                Element start = chain.get(i);
+                Element parent = start.parent();
+                if (parent != null) emitChildren(parent, start);
+                printer.printStart(start);
+                open.add(start);
+            }
+        }
+
+        /** Write end tags for the written open elements, down to the given depth. */
+        private void closeTo(int depth) {
+            for (int i = open.size() - 1; i >= depth; i--)
+                printer.printEnd(open.remove(i));
+        }
+
+        private void emitChildren(Element parent) {
+            emitChildren(parent, null);
+        }
+
+        /**
+         Write and then remove the children of the parent (up to the optional stop node), skipping any that are still
+         open in the parse. Each run of written children is removed in one pass once written, rather than one by one from
+         its start, which would shift the remaining children down for each.
+         */
+        private void emitChildren(Element parent, @Nullable Node stop) {
+            int start = 0; // the first written child that is yet to be removed
+            int i = 0;
+            while (i < parent.childNodeSize()) {
+                Node child = parent.childNode(i);
+                if (child == stop) break;
+                if (child instanceof Element && isLive(child)) {
+                    removeChildren(parent, start, i); // the live child is now at start
+                    start = i = start + 1;
+                    continue;
+                }
+                if (child instanceof Element && open.contains(child)) {
+                    removeChildren(parent, start, i); // so that openTo doesn't write the preceding siblings again
+                    Element el = (Element) child;
+                    openTo(el);
+                    emitChildren(el);
+                    closeTo(open.indexOf(el));
+                    el.remove();
+                    i = start;
+                    continue;
+                }
+                printer.print(child);
+                i++;
+            }
+            if (start == 0 && i == parent.childNodeSize()) parent.empty(); // all were written
+            else removeChildren(parent, start, i);
+        }
+
+        /** Remove the parent's children from start (inclusive) to end (exclusive); from the end, to not shift them. */
+        private void removeChildren(Element parent, int start, int end) {
+            for (int i = end - 1; i >= start; i--)
+                parent.childNode(i).remove();
+        }
+    }
+
+    private static final class Handler {
+        final Evaluator eval;
+        final Consumer<Element> consumer;
+
+        Handler(Evaluator eval, Consumer<Element> consumer) {
+            this.eval = eval;
+            this.consumer = consumer;
+        }
+    }
+}
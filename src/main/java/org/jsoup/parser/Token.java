@@ -2,6 +2,7 @@ package org.jsoup.parser;
 
 import org.jsoup.helper.Validate;
 import org.jsoup.internal.Normalizer;
+import org.jsoup.internal.SourceTracker;
 import org.jsoup.nodes.Attributes;
 import org.jsoup.nodes.Range;
 import org.jspecify.annotations.Nullable;
@@ -105,6 +106,7 @@ abstract class Token {
         final private TokenData attrName = new TokenData();
         final private TokenData attrValue = new TokenData();
         private boolean hasEmptyAttrValue = false; // distinguish boolean attribute from empty string value
+        private boolean droppedAttributes = false; // if the attribute limit was hit for this tag
 
         // attribute source range tracking
         final TreeBuilder treeBuilder;
@@ -124,6 +126,7 @@ abstract class Token {
             normalName = null;
             selfClosing = false;
             attributes = null;
+            droppedAttributes = false;
             resetPendingAttr();
             return this;
         }
@@ -137,16 +140,18 @@ abstract class Token {
                 attrNameStart = attrNameEnd = attrValStart = attrValEnd = UnsetPos;
         }
 
-        /* Limits runaway crafted HTML from spewing attributes and getting a little sluggish in ensureCapacity.
-        Real-world HTML will P99 around 8 attributes, so plenty of headroom. Implemented here and not in the Attributes
-        object so that API users can add more if ever required. */
-        private static final int MaxAttributes = 512;
-
         final void newAttribute() {
             if (attributes == null)
                 attributes = new Attributes();
 
-            if (attrName.hasData() && attributes.size() < MaxAttributes) {
+            /* Limits runaway crafted HTML from spewing attributes and getting a little sluggish in ensureCapacity.
+            Implemented here and not in the Attributes object so that API users can add more if ever required. */
+            if (attrName.hasData() && attributes.size() >= treeBuilder.maxAttributes) {
+                if (!droppedAttributes) {
+                    droppedAttributes = true; // just record the first drop per tag
+                    treeBuilder.onLimit(ParseLimits.Limit.Attributes, "Attribute limit of [%d] exceeded in tag [%s]; further attributes dropped", treeBuilder.maxAttributes, toStringName());
+                }
+            } else if (attrName.hasData()) {
                 // the tokeniser has skipped whitespace control chars, but trimming could collapse to empty for other control codes, so verify here
                 String name = attrName.value();
                 name = name.trim();
@@ -170,7 +175,8 @@ abstract class Token {
         private void trackAttributeRange(String name) {
             if (trackSource && isStartTag()) {
                 final StartTag start = asStartTag();
-                final CharacterReader r = start.treeBuilder.reader;
+                final SourceTracker positions = start.treeBuilder.sourcePositions;
+                assert positions != null;
                 final boolean preserve = start.treeBuilder.settings.preserveAttributeCase();
 
                 assert attributes != null;
@@ -181,12 +187,8 @@ abstract class Token {
                 if (!attrValue.hasData()) attrValStart = attrValEnd = attrNameEnd;
 
                 Range.AttributeRange range = new Range.AttributeRange(
-                    new Range(
-                        new Range.Position(attrNameStart, r.lineNumber(attrNameStart), r.columnNumber(attrNameStart)),
-                        new Range.Position(attrNameEnd, r.lineNumber(attrNameEnd), r.columnNumber(attrNameEnd))),
-                    new Range(
-                        new Range.Position(attrValStart, r.lineNumber(attrValStart), r.columnNumber(attrValStart)),
-                        new Range.Position(attrValEnd, r.lineNumber(attrValEnd), r.columnNumber(attrValEnd)))
+                    new Range(positions.position(attrNameStart), positions.position(attrNameEnd)),
+                    new Range(positions.position(attrValStart), positions.position(attrValEnd))
                 );
                 attributes.sourceRange(name, range);
             }
@@ -76,6 +76,11 @@ final class Tokeniser {
         }
     }
 
+    /** Tests if a token has been emitted but not yet read (e.g. a virtual end tag). */
+    boolean isEmitPending() {
+        return isEmitPending;
+    }
+
     void emit(Token token) {
         Validate.isFalse(isEmitPending);
 
@@ -1,12 +1,12 @@
 package org.jsoup.parser;
 
 import org.jsoup.helper.Validate;
-import org.jsoup.internal.SharedConstants;
+import org.jsoup.internal.SourceTracker;
 import org.jsoup.nodes.Attributes;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
-import org.jsoup.nodes.Range;
+import org.jsoup.select.Evaluator;
 import org.jsoup.select.NodeVisitor;
 import org.jspecify.annotations.Nullable;
 
@@ -39,6 +39,21 @@ abstract class TreeBuilder {
     abstract ParseSettings defaultSettings();
 
     boolean trackSourceRange;  // optionally tracks the source range of nodes and attributes
+    @Nullable SourceTracker sourcePositions; // if tracking source ranges, the index they are recorded into
+
+    // resource limits, copied from the parser's ParseLimits for the current parse
+    int maxElements = Integer.MAX_VALUE, maxDepth = Integer.MAX_VALUE, maxTextLength = Integer.MAX_VALUE;
+    int maxAttributes = ParseLimits.DefaultMaxAttributes;
+    private long deadline; // System.nanoTime() at which the parse times out; 0 if none
+    private boolean throwOnLimit;
+    private int elementCount, stepCount;
+    private boolean stopped; // if set, the parse has been truncated (by a limit or stop()) and will step to EOF
+    private final Token.EOF stopEof = new Token.EOF();
+
+    @Nullable Evaluator skipContent; // if set, the content of matching elements is skipped, not tokenised
+    Parser.ElementClosedHook @Nullable [] closedHooks; // optional callbacks for matching elements when closed
+    @Nullable private Element lastPushed; // the most recently pushed element, to test for content skipping
+    @Nullable private ArrayList<Element> dropped; // elements on the stack that were dropped for exceeding a limit
 
     void initialiseParse(Reader input, String baseUri, Parser parser) {
         Validate.notNullParam(input, "input");
@@ -51,8 +66,15 @@ abstract class TreeBuilder {
         settings = parser.settings();
         reader = new CharacterReader(input);
         trackSourceRange = parser.isTrackPosition();
+        sourcePositions = trackSourceRange ? new SourceTracker() : null;
+        reader.sourcePositions(sourcePositions);
         reader.trackNewlines(parser.isTrackErrors() || trackSourceRange); // when tracking errors or source ranges, enable newline tracking for better legibility
-        if (parser.isTrackErrors()) parser.getErrors().clear();
+        parser.getErrors().clear(); // always, as a limit error may be recorded even if not tracking
+        initialiseLimits(parser.limits());
+        skipContent = parser.skipContent();
+        closedHooks = parser.closedHooks();
+        lastPushed = null;
+        dropped = null;
         tokeniser = new Tokeniser(this);
         stack = new ArrayList<>(32);
         tagSet = parser.tagSet();
@@ -102,8 +124,11 @@ abstract class TreeBuilder {
     abstract TreeBuilder newInstance();
 
     void runParser() {
-        do {} while (stepParser()); // run until stepParser sees EOF
-        completeParse();
+        try {
+            do {} while (stepParser()); // run until stepParser sees EOF
+        } finally {
+            completeParse(); // also releases the reader's buffers if a limit threw
+        }
     }
 
     boolean stepParser() {
@@ -119,13 +144,47 @@ abstract class TreeBuilder {
             pop();
             return true;
         }
-        final Token token = tokeniser.read();
+        if (deadline != 0 && (++stepCount & 0xFF) == 0 && System.nanoTime() - deadline > 0)
+            onLimit(ParseLimits.Limit.Timeout, "Parse time budget exceeded; parse truncated");
+        final Token token = stopped ? stopEof : tokeniser.read(); // once stopped, step through EOF to close the stack
         currentToken = token;
         process(token);
+        if (skipContent != null && !stopped && token.type == Token.TokenType.StartTag)
+            maybeSkipContent(token.asStartTag());
         token.reset();
         return true;
     }
 
+    /**
+     If the element just inserted for this start tag matches the skip content evaluator, skips the input through to its
+     end tag, without tokenising or inserting its contents. The end tag is then processed as normal, so the element
+     remains in the tree (but empty).
+     */
+    private void maybeSkipContent(Token.StartTag startTag) {
+        final Element el = lastPushed;
+        if (el == null || startTag.isSelfClosing() || tokeniser.isEmitPending()
+            || stack.isEmpty() || currentElement() != el || el.tag().isEmpty()
+            || !el.normalName().equals(startTag.normalName)
+            || !skipContent.matches(doc, el))
+            return;
+
+        final String name = el.tagName();
+        final String closeSeq = "</" + name;
+        final String openSeq = el.tag().textState() == null ? "<" + name : null; // data content can't nest
+        final CharacterReader r = reader;
+        int depth = 1;
+        while (true) {
+            r.skipTo('<');
+            if (r.isEmpty()) return; // unclosed; EOF will close it
+            if (r.matchesTagIgnoreCase(closeSeq)) {
+                if (--depth == 0) return; // leave the end tag for the tokeniser
+            } else if (openSeq != null && r.matchesTagIgnoreCase(openSeq)) {
+                depth++;
+            }
+            r.advance();
+        }
+    }
+
     abstract boolean process(Token token);
 
     boolean processStartTag(String name) {
@@ -171,6 +230,20 @@ abstract class TreeBuilder {
      */
     final void push(Element element) {
         stack.add(element);
+        lastPushed = element;
+        if (++elementCount > maxElements || stack.size() > maxDepth) {
+            // an element that exceeds a limit (including one implied while closing out a stopped parse) is dropped.
+            // It stays on the stack so that the builder's pops balance, but is never seen by the listeners
+            element.remove();
+            if (dropped == null) dropped = new ArrayList<>();
+            dropped.add(element);
+            if (stopped) return;
+            if (elementCount > maxElements)
+                onLimit(ParseLimits.Limit.Elements, "Element limit of [%d] exceeded; parse truncated", maxElements);
+            else
+                onLimit(ParseLimits.Limit.Depth, "Element depth limit of [%d] exceeded; parse truncated", maxDepth);
+            return;
+        }
         onNodeInserted(element);
     }
 
@@ -230,6 +303,49 @@ abstract class TreeBuilder {
             errors.add(new ParseError(reader, msg, args));
     }
 
+    private void initialiseLimits(ParseLimits limits) {
+        maxElements = limits.maxElements();
+        maxDepth = limits.maxDepth();
+        maxAttributes = limits.maxAttributes();
+        maxTextLength = limits.maxTextLength();
+        long timeout = limits.timeout();
+        deadline = timeout > 0 ? System.nanoTime() + timeout * 1_000_000 : 0;
+        if (deadline == 0 && timeout > 0) deadline = 1; // nanoTime can be 0; keep the check enabled
+        throwOnLimit = limits.throwOnLimit();
+        elementCount = 0;
+        stepCount = 0;
+        stopped = false;
+    }
+
+    /**
+     Called when a parse limit has been reached. Records the error in the parser's error list (even if not otherwise
+     tracking errors, for the first limit), and either throws, or, for the structural limits, truncates the parse by
+     stepping to EOF.
+     */
+    void onLimit(ParseLimits.Limit limit, String msg, Object... args) {
+        ParseErrorList errors = parser.getErrors();
+        ParseError error = new ParseError(reader, msg, args);
+        if (errors.canAddError() || !errors.hasLimitError()) {
+            errors.add(error);
+            errors.hasLimitError(true);
+        }
+        if (throwOnLimit)
+            throw new ParseLimitException(limit, error);
+        if (limit == ParseLimits.Limit.Elements || limit == ParseLimits.Limit.Depth || limit == ParseLimits.Limit.Timeout)
+            stopped = true;
+    }
+
+    /**
+     Truncates the text data of a new text / data node to the configured max text length.
+     */
+    String limitText(String data) {
+        if (data.length() <= maxTextLength) return data;
+        onLimit(ParseLimits.Limit.TextLength, "Text of length [%d] exceeds the limit of [%d]; truncated", data.length(), maxTextLength);
+        int end = maxTextLength;
+        if (Character.isHighSurrogate(data.charAt(end - 1))) end--; // don't split a surrogate pair
+        return data.substring(0, end);
+    }
+
     Tag tagFor(String tagName, String normalName, String namespace, ParseSettings settings) {
         return tagSet.valueOf(tagName, normalName, namespace, settings.preserveTagCase());
     }
@@ -266,14 +382,32 @@ abstract class TreeBuilder {
      tracking the closing source range of the node.  @param node the node being closed
      */
     void onNodeClosed(Node node) {
+        if (dropped != null && node instanceof Element && dropped.remove(node))
+            return; // was never inserted, so isn't closed either
         trackNodePosition(node, false);
 
         if (nodeListener != null)
             nodeListener.tail(node, stack.size());
+
+        if (closedHooks != null && !stopped && node instanceof Element) { // no more callbacks once stopped
+            Element el = (Element) node;
+            for (Parser.ElementClosedHook hook : closedHooks) {
+                if (hook.eval.matches(doc, el))
+                    hook.consumer.accept(el);
+            }
+        }
     }
 
+    /**
+     Stops the current parse: no more input will be read, and the stack of open elements will be closed out.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+
     void trackNodePosition(Node node, boolean isStart) {
-        if (!trackSourceRange) return;
+        if (sourcePositions == null) return;
 
         final Token token = currentToken;
         int startPos = token.startPos();
@@ -299,11 +433,6 @@ abstract class TreeBuilder {
             }
         }
 
-        Range.Position startPosition = new Range.Position
-            (startPos, reader.lineNumber(startPos), reader.columnNumber(startPos));
-        Range.Position endPosition = new Range.Position
-            (endPos, reader.lineNumber(endPos), reader.columnNumber(endPos));
-        Range range = new Range(startPosition, endPosition);
-        node.attributes().userData(isStart ? SharedConstants.RangeKey : SharedConstants.EndRangeKey, range);
+        sourcePositions.track(node, startPos, endPos, isStart); // line and column numbers are resolved on demand
     }
 }
@@ -219,7 +219,7 @@ public class XmlTreeBuilder extends TreeBuilder {
     }
 
     void insertCharacterFor(Token.Character token) {
-        final String data = token.getData();
+        final String data = limitText(token.getData());
         LeafNode node;
         if      (token.isCData())                       node = new CDataNode(data);
         else if (currentElement().tag().is(Tag.Data))   node = new DataNode(data);
@@ -3,25 +3,34 @@ package org.jsoup.helper;
 import org.jsoup.Connection;
 import org.jspecify.annotations.Nullable;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Proxy;
 import java.net.ProxySelector;
 import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.jsoup.helper.HttpConnection.Response;
-import static org.jsoup.helper.HttpConnection.Response.writePost;
+import static org.jsoup.internal.SharedConstants.DefaultBufferSize;
 
 /**
  Executes requests using the HttpClient, for http/2 support. Currently disabled by default; enable by setting system
@@ -45,6 +54,11 @@ class HttpClientExecutor extends RequestExecutor {
      same Connection (session).
      */
     HttpClient client() {
+        if (req.pool != null) { // shared between sessions; one client per version and authenticator
+            boolean http2 = req.pool.settings(req.url.getHost()).http2;
+            return (HttpClient) req.pool.client(http2, req.authenticator, () -> newClient(http2));
+        }
+
         // we try to reuse the same Client across requests in a given Connection; but if the request auth has changed, we need to create a new client
         RequestAuthenticator prevAuth = req.connection.lastAuth;
         req.connection.lastAuth = req.authenticator;
@@ -52,48 +66,31 @@ class HttpClientExecutor extends RequestExecutor {
             return (HttpClient) req.connection.client;
         }
 
+        HttpClient client = newClient(true);
+        req.connection.client = client;
+        return client;
+    }
+
+    private HttpClient newClient(boolean http2) {
         HttpClient.Builder builder = HttpClient.newBuilder();
+        builder.version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
         builder.followRedirects(HttpClient.Redirect.NEVER); // customized redirects
         builder.proxy(new ProxyWrap()); // thread local impl for per request; called on executing thread
         if (req.authenticator != null) builder.authenticator(new AuthenticationHandler(req.authenticator));
-
-        HttpClient client = builder.build();
-        req.connection.client = client;
-        return client;
+        return builder.build();
     }
 
     @Override
     HttpConnection.Response execute() throws IOException {
         try {
-            HttpRequest.Builder reqBuilder =
-                HttpRequest.newBuilder(req.url.toURI()).method(req.method.name(), requestBody(req));
-            if (req.timeout() > 0) reqBuilder.timeout(
-                Duration.ofMillis(req.timeout())); // infinite if unset (UrlConnection / jsoup uses 0 for same)
-            CookieUtil.applyCookiesToRequest(req, reqBuilder::header);
-
-            // headers:
-            req.multiHeaders().forEach((key, values) -> {
-                values.forEach(value -> reqBuilder.header(key, value));
-            });
-
             if (req.proxy() != null) perRequestProxy.set(req.proxy()); // set up per request proxy
-            HttpRequest hReq = reqBuilder.build();
+            HttpRequest hReq = request();
             HttpClient client = client();
+            resolveHost();
+            long sendStart = System.nanoTime();
             hRes = client.send(hReq, HttpResponse.BodyHandlers.ofInputStream());
-            HttpHeaders headers = hRes.headers();
-
-            // set up the response
-            Response res = new Response(req);
-            res.executor = this;
-            res.method = Connection.Method.valueOf(hRes.request().method());
-            res.url = hRes.uri().toURL();
-            res.statusCode = hRes.statusCode();
-            res.contentType = headers.firstValue("content-type").orElse("");
-            long length = headers.firstValueAsLong("content-length").orElse(-1);
-            res.contentLength = length < Integer.MAX_VALUE ? (int) length : -1;
-            res.prepareResponse(headers.map(), prevRes);
-
-            return res;
+            phase(RequestListener.Phase.FirstByte, sendStart, System.nanoTime() - sendStart, bodyLength(hReq));
+            return response(hRes);
         } catch (IOException e) {
             safeClose();
             throw e;
@@ -101,14 +98,103 @@ class HttpClientExecutor extends RequestExecutor {
             safeClose();
             Thread.currentThread().interrupt();
             throw new IOException(e);
-        } catch (URISyntaxException e) {
-            throw new IllegalArgumentException("Malformed URL: " + req.url, e);
         } finally {
             // detach per request proxy
             perRequestProxy.remove();
         }
     }
 
+    @Override
+    CompletableFuture<Response> executeAsync(long startTime) {
+        // the proxy selector may be called from the client's own threads, so can't see a thread local proxy; execute
+        // those on a worker
+        if (req.proxy() != null) return super.executeAsync(startTime);
+
+        HttpRequest hReq;
+        try {
+            hReq = request();
+        } catch (IOException e) {
+            safeClose();
+            CompletableFuture<Response> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        long sendStart = System.nanoTime();
+        AtomicLong headersReceived = new AtomicLong();
+        HttpResponse.BodyHandler<ByteBuffer> handler = info -> {
+            headersReceived.set(System.nanoTime());
+            long length = info.headers().firstValueAsLong("content-length").orElse(-1);
+            return new BufferingSubscriber(req.maxBodySize(), length);
+        };
+        CompletableFuture<HttpResponse<ByteBuffer>> exchange = client().sendAsync(hReq, handler);
+        CompletableFuture<HttpResponse<ByteBuffer>> sent = exchange;
+        if (req.timeout() > 0) { // total time, as for the blocking body read
+            long remaining = req.timeout() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            sent = exchange.copy().orTimeout(Math.max(remaining, 1), TimeUnit.MILLISECONDS);
+        }
+        return sent.handle((received, e) -> {
+            if (e != null) {
+                safeClose();
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof TimeoutException) {
+                    exchange.cancel(true); // aborts the exchange, rather than leaving it to run
+                    throw new CompletionException(new SocketTimeoutException("Read timeout"));
+                }
+                throw new CompletionException(cause);
+            }
+            try {
+                bufferedBody = received.body();
+                long headers = headersReceived.get();
+                phase(RequestListener.Phase.FirstByte, sendStart, headers - sendStart, bodyLength(hReq));
+                phase(RequestListener.Phase.Download, headers, System.nanoTime() - headers, bufferedBody.limit());
+                return response(received);
+            } catch (IOException ioe) {
+                safeClose();
+                throw new CompletionException(ioe);
+            }
+        });
+    }
+
+    /** Build the HttpRequest from the jsoup request. */
+    private HttpRequest request() throws IOException {
+        try {
+            HttpRequest.Builder reqBuilder =
+                HttpRequest.newBuilder(req.url.toURI()).method(req.method.name(), requestBody(req));
+            if (req.timeout() > 0) reqBuilder.timeout(
+                Duration.ofMillis(req.timeout())); // infinite if unset (UrlConnection / jsoup uses 0 for same)
+            CookieUtil.applyCookiesToRequest(req, reqBuilder::header);
+
+            // headers:
+            req.multiHeaders().forEach((key, values) -> {
+                values.forEach(value -> reqBuilder.header(key, value));
+            });
+
+            return reqBuilder.build();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Malformed URL: " + req.url, e);
+        }
+    }
+
+    /** The size of the request body; or -1 if unknown (streamed). */
+    private static long bodyLength(HttpRequest hReq) {
+        return hReq.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+    }
+
+    /** Set up the jsoup response from the HttpResponse. */
+    private Response response(HttpResponse<?> received) throws IOException {
+        HttpHeaders headers = received.headers();
+        Response res = new Response(req);
+        res.executor = this;
+        res.method = Connection.Method.valueOf(received.request().method());
+        res.url = received.uri().toURL();
+        res.statusCode = received.statusCode();
+        res.contentType = headers.firstValue("content-type").orElse("");
+        long length = headers.firstValueAsLong("content-length").orElse(-1);
+        res.contentLength = length < Integer.MAX_VALUE ? (int) length : -1;
+        res.prepareResponse(headers.map(), prevRes);
+        return res;
+    }
+
     @Override
     InputStream responseBody() throws IOException {
         if (hRes == null) throw new IllegalStateException("Not yet executed");
@@ -126,15 +212,94 @@ class HttpClientExecutor extends RequestExecutor {
             }
             hRes = null;
         }
+        releasePermit();
     }
 
+    /**
+     Get the publisher for the request body. A body with InputStreams is read as it is sent, in chunks, rather than
+     buffered in memory; with a Content-Length if the size of each stream is known. But if the request has an
+     authenticator, the body is buffered, as the client resends it after a 401 challenge, and a stream can only be read
+     once (as in UrlConnectionExecutor).
+     */
     static HttpRequest.BodyPublisher requestBody(final HttpConnection.Request req) throws IOException {
-        if (req.method.hasBody()) {
-            ByteArrayOutputStream buf = new ByteArrayOutputStream();
-            writePost(req, buf);
-            return HttpRequest.BodyPublishers.ofByteArray(buf.toByteArray());
-        } else {
-            return HttpRequest.BodyPublishers.noBody();
+        if (!req.method.hasBody()) return HttpRequest.BodyPublishers.noBody();
+        RequestBody body = RequestBody.of(req);
+        if (!body.hasStreams() || req.authenticator != null)
+            return HttpRequest.BodyPublishers.ofByteArray(body.bytes());
+
+        InputStream stream = body.stream(); // can only be read once
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> stream);
+        long length = body.length();
+        return length > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, length) : publisher;
+    }
+
+    /**
+     Collects the response body in to memory as it arrives, without blocking a thread. Stops reading once the max body
+     size has been received.
+     */
+    static class BufferingSubscriber implements HttpResponse.BodySubscriber<ByteBuffer> {
+        private static final int MaxPresize = 16 * 1024 * 1024; // don't trust a larger Content-Length up front
+        private final int maxSize; // 0 == unlimited
+        private byte[] buf;
+        private int size = 0;
+        private final CompletableFuture<ByteBuffer> body = new CompletableFuture<>();
+        private Flow.@Nullable Subscription subscription;
+
+        /**
+         @param maxSize the max body size to read; 0 for unlimited
+         @param expectedSize the Content-Length, to size the buffer; or -1 if unknown
+         */
+        BufferingSubscriber(int maxSize, long expectedSize) {
+            this.maxSize = maxSize;
+            long initial = expectedSize >= 0 ? expectedSize : DefaultBufferSize;
+            if (maxSize > 0) initial = Math.min(initial, maxSize);
+            buf = new byte[(int) Math.min(initial, MaxPresize)];
+        }
+
+        @Override
+        public CompletionStage<ByteBuffer> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (body.isDone()) return;
+            for (ByteBuffer item : items) {
+                int len = item.remaining();
+                if (maxSize > 0) len = Math.min(len, maxSize - size);
+                ensureCapacity(size + len);
+                item.get(buf, size, len);
+                size += len;
+                if (maxSize > 0 && size >= maxSize) {
+                    if (subscription != null) subscription.cancel();
+                    onComplete();
+                    return;
+                }
+            }
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= buf.length) return;
+            int capacity = Math.max(needed, buf.length * 2);
+            if (capacity < 0) capacity = Integer.MAX_VALUE - 8; // overflow
+            if (maxSize > 0) capacity = Math.min(capacity, maxSize);
+            buf = Arrays.copyOf(buf, capacity);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(ByteBuffer.wrap(buf, 0, size)); // not copied; readers use the array to the limit
         }
     }
 
@@ -0,0 +1,59 @@
+package org.jsoup.helper;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharsetScannerTest {
+    static String scan(String html) {
+        byte[] bytes = html.getBytes(StandardCharsets.ISO_8859_1);
+        return CharsetScanner.scan(bytes, bytes.length);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '`', value = {
+        "<meta charset=gb2312>|gb2312",
+        "<html><head><META CHARSET='euc-kr'/>|euc-kr",
+        "<meta http-equiv=\"Content-Type\" content=\"text/html; charset=iso-8859-1\">|iso-8859-1",
+        "<meta content='text/html; charset=koi8-u' http-equiv=content-type>|koi8-u",
+        "<meta http-equiv=Content-Type content=text/html><meta charset=shift_jis>|shift_jis",
+        "<meta http-equiv=refresh content=5 charset=big5>|big5",
+        "<?xml version=\"1.0\" encoding=\"iso-8859-1\"?><html>|iso-8859-1",
+        "  <?xml version='1.0' encoding='utf-16'?> <meta charset=windows-1252>|windows-1252",
+        "<!-- <meta charset=big5> --><meta charset=gbk>|gbk",
+        "<div title='<meta charset=big5>'><meta charset=gbk>|gbk",
+        "<body><p>Text > <meta charset=ascii>|ascii",
+    })
+    void findsDeclaredCharset(String html, String expected) {
+        assertEquals(expected, scan(html));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "<p>No charset",
+        "<metadata charset=big5>",
+        "<meta http-equiv=refresh content=5>",
+        "<meta http-equiv=Content-Type content=text/html>",
+        "<!-- <meta charset=big5>",
+        "<meta charset='big5",
+        "<?xml version='1.0'?>",
+        "<?xml >?>",
+    })
+    void noDeclaredCharset(String html) {
+        assertNull(scan(html));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 5, 10, 17, 20})
+    void onlyScansToLength(int len) {
+        byte[] bytes = "<p><meta charset=big5>".getBytes(StandardCharsets.US_ASCII);
+        String found = CharsetScanner.scan(bytes, len);
+        if (len < bytes.length) assertNull(found);
+        else assertEquals("big5", found);
+    }
+}
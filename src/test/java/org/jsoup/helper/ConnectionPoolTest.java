@@ -0,0 +1,225 @@
+package org.jsoup.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+    @Test void hostSettingsStartFromDefaults() {
+        ConnectionPool pool = new ConnectionPool()
+            .maxConnections(4)
+            .host("Example.com", host -> host.http2(false))
+            .http2(true);
+
+        ConnectionPool.HostSettings example = pool.settings("example.COM");
+        assertEquals(4, example.maxConnections);
+        assertFalse(example.http2);
+
+        ConnectionPool.HostSettings other = pool.settings("jsoup.org");
+        assertEquals(4, other.maxConnections);
+        assertTrue(other.http2);
+    }
+
+    @Test void unlimitedHostHasNoLimiter() {
+        ConnectionPool pool = new ConnectionPool().host("example.com", host -> host.maxConnections(2));
+        assertNull(pool.limiter("jsoup.org"));
+        ConnectionPool.Limiter limiter = pool.limiter("example.com");
+        assertNotNull(limiter);
+        assertSame(limiter, pool.limiter("EXAMPLE.com"));
+    }
+
+    @Test void rejectsNegativeMax() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPool().maxConnections(-1));
+    }
+
+    @Test void limiterHandsPermitsInOrder() throws IOException {
+        ConnectionPool.Limiter limiter = new ConnectionPool.Limiter(1);
+        List<String> acquired = new ArrayList<>();
+        assertTrue(limiter.acquire(() -> acquired.add("first")));
+        assertFalse(limiter.acquire(() -> acquired.add("second")));
+        assertFalse(limiter.acquire(() -> acquired.add("third")));
+        assertTrue(acquired.isEmpty());
+
+        limiter.release();
+        assertEquals("[second]", acquired.toString());
+        limiter.release();
+        assertEquals("[second, third]", acquired.toString());
+        assertEquals(1, limiter.active());
+        limiter.release();
+        assertEquals(0, limiter.active());
+
+        limiter.acquire(System.nanoTime(), 0); // doesn't block when available
+        assertEquals(1, limiter.active());
+    }
+
+    @Test void limiterBlocksUntilReleased() throws Exception {
+        ConnectionPool.Limiter limiter = new ConnectionPool.Limiter(1);
+        limiter.acquire(System.nanoTime(), 0);
+        AtomicInteger state = new AtomicInteger();
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire(System.nanoTime(), 0);
+                state.set(1);
+            } catch (IOException e) {
+                state.set(-1);
+            }
+        });
+        waiter.start();
+        Thread.sleep(50);
+        assertEquals(0, state.get());
+
+        limiter.release();
+        waiter.join(5000);
+        assertEquals(1, state.get());
+        assertEquals(1, limiter.active());
+    }
+
+    @Test void limiterWaitTimesOut() throws Exception {
+        ConnectionPool.Limiter limiter = new ConnectionPool.Limiter(1);
+        limiter.acquire(System.nanoTime(), 0);
+        long start = System.nanoTime();
+        assertThrows(SocketTimeoutException.class, () -> limiter.acquire(start, 100));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        limiter.release(); // the timed out waiter was dequeued, so isn't handed the permit
+        assertEquals(0, limiter.active());
+        limiter.acquire(System.nanoTime(), 100);
+        assertEquals(1, limiter.active());
+    }
+
+    @Test void sharesClientsBySettings() {
+        ConnectionPool pool = new ConnectionPool();
+        AtomicInteger created = new AtomicInteger();
+        RequestAuthenticator auth = ctx -> null;
+
+        Object h2 = pool.client(true, null, () -> "client-" + created.incrementAndGet());
+        assertSame(h2, pool.client(true, null, () -> "client-" + created.incrementAndGet()));
+        assertNotSame(h2, pool.client(false, null, () -> "client-" + created.incrementAndGet()));
+        Object authed = pool.client(true, auth, () -> "client-" + created.incrementAndGet());
+        assertSame(authed, pool.client(true, auth, () -> "client-" + created.incrementAndGet()));
+        assertEquals(3, created.get());
+    }
+
+    @Test void totalLimitServesHostsInTurn() {
+        ConnectionPool pool = new ConnectionPool().maxTotalConnections(1);
+        ConnectionPool.Limiter a = pool.limiter("a.example.com");
+        ConnectionPool.Limiter b = pool.limiter("b.example.com");
+        assertNotNull(a);
+        assertNotNull(b);
+
+        List<String> started = new ArrayList<>();
+        assertTrue(a.acquire(() -> started.add("a0")));
+        assertFalse(a.acquire(() -> started.add("a1")));
+        assertFalse(a.acquire(() -> started.add("a2")));
+        assertFalse(b.acquire(() -> started.add("b1"))); // waits on the total, not its host
+
+        a.release();
+        b.release();
+        a.release();
+        assertEquals("[a1, b1, a2]", started.toString()); // not a1, a2, b1
+        assertEquals(1, a.active());
+        assertEquals(0, b.active());
+    }
+
+    @Test void hostAtMaxDoesNotBlockOthers() {
+        ConnectionPool pool = new ConnectionPool().maxTotalConnections(2)
+            .host("a.example.com", host -> host.maxConnections(1));
+        ConnectionPool.Limiter a = pool.limiter("a.example.com");
+        ConnectionPool.Limiter b = pool.limiter("b.example.com");
+        List<String> started = new ArrayList<>();
+        assertTrue(a.acquire(() -> started.add("a0")));
+        assertTrue(b.acquire(() -> started.add("b0")));
+        assertFalse(a.acquire(() -> started.add("a1")));
+        assertFalse(b.acquire(() -> started.add("b1")));
+
+        b.release(); // a is still at its max, so b's next starts
+        assertEquals("[b1]", started.toString());
+    }
+
+    @Test void tokenBucketAllowsBurstThenRate() {
+        ConnectionPool.TokenBucket bucket = new ConnectionPool.TokenBucket(10, 2);
+        long now = System.nanoTime();
+        assertEquals(0, bucket.reserve(now));
+        assertEquals(0, bucket.reserve(now));
+        assertEquals(100, TimeUnit.NANOSECONDS.toMillis(bucket.reserve(now)));
+        assertEquals(200, TimeUnit.NANOSECONDS.toMillis(bucket.reserve(now))); // queued behind the previous
+
+        long later = now + TimeUnit.SECONDS.toNanos(10); // refilled to the burst
+        assertEquals(0, bucket.reserve(later));
+        bucket.pause(later + TimeUnit.SECONDS.toNanos(5));
+        assertEquals(5000, TimeUnit.NANOSECONDS.toMillis(bucket.reserve(later)));
+    }
+
+    @Test void limiterWaitsForRate() throws IOException {
+        ConnectionPool pool = new ConnectionPool().rateLimit(20, 1);
+        ConnectionPool.Limiter limiter = pool.limiter("example.com");
+        assertNotNull(limiter);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(System.nanoTime(), 0);
+            limiter.release();
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90)); // 2 waits of 50ms
+    }
+
+    @Test void rateWaitDoesNotHoldTotal() throws Exception {
+        ConnectionPool pool = new ConnectionPool().maxTotalConnections(1)
+            .host("a.example.com", host -> host.rateLimit(1, 1));
+        ConnectionPool.Limiter a = pool.limiter("a.example.com");
+        ConnectionPool.Limiter b = pool.limiter("b.example.com");
+        assertNotNull(a);
+        assertNotNull(b);
+        a.acquire(System.nanoTime(), 0); // takes the burst
+        a.release();
+
+        Thread waiter = new Thread(() -> {
+            try {
+                a.acquire(System.nanoTime(), 0); // waits a second for the rate
+            } catch (IOException ignored) {}
+        });
+        waiter.start();
+        Thread.sleep(50);
+        assertEquals(0, a.active()); // not holding the total while waiting
+        assertTrue(b.acquire(() -> {}));
+        b.release();
+        waiter.interrupt();
+        waiter.join(5000);
+        assertEquals(0, a.active());
+    }
+
+    @Test void sweepsIdleLimiters() throws IOException {
+        ConnectionPool pool = new ConnectionPool().maxConnections(2)
+            .host("rated.example.com", host -> host.rateLimit(1, 1));
+        ConnectionPool.Limiter idle = pool.limiter("idle.example.com");
+        ConnectionPool.Limiter active = pool.limiter("active.example.com");
+        ConnectionPool.Limiter rated = pool.limiter("rated.example.com");
+        assertNotNull(active);
+        assertNotNull(rated);
+        active.acquire(System.nanoTime(), 0);
+        rated.acquire(System.nanoTime(), 0);
+        rated.release();
+        rated.pause(System.nanoTime() + ConnectionPool.IdleNanos * 10);
+
+        pool.sweep(System.nanoTime()); // all recently used
+        assertSame(idle, pool.limiter("idle.example.com"));
+
+        pool.sweep(System.nanoTime() + ConnectionPool.IdleNanos * 2);
+        assertNotSame(idle, pool.limiter("idle.example.com")); // dropped, so a new one
+        assertSame(active, pool.limiter("active.example.com")); // has an active request
+        assertSame(rated, pool.limiter("rated.example.com")); // is paused
+        active.release();
+    }
+
+    @Test void rejectsInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPool().rateLimit(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPool().rateLimit(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPool().maxTotalConnections(-1));
+    }
+}
@@ -0,0 +1,171 @@
+package org.jsoup.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CookieJarTest {
+    private static HttpCookie cookie(String name, String value, String domain, String path) {
+        HttpCookie cookie = new HttpCookie(name, value);
+        cookie.setDomain(domain);
+        cookie.setPath(path);
+        cookie.setVersion(0);
+        return cookie;
+    }
+
+    @Test void matchesHostAndParentDomains() {
+        CookieJar jar = new CookieJar();
+        URI uri = URI.create("https://www.example.com/");
+        jar.add(uri, cookie("host", "1", "www.example.com", "/"));
+        jar.add(uri, cookie("parent", "2", ".example.com", "/"));
+        jar.add(uri, cookie("other", "3", "other.example.com", "/"));
+        jar.add(uri, cookie("unrelated", "4", "example.org", "/"));
+
+        assertEquals("host=1; parent=2", jar.header(uri));
+        assertEquals("parent=2", jar.header(URI.create("http://EXAMPLE.com/")));
+        assertEquals("other=3; parent=2", jar.header(URI.create("http://a.other.example.com/")));
+        assertEquals("", jar.header(URI.create("http://notexample.com/")));
+        assertEquals(4, jar.getCookies().size());
+        assertEquals(4, jar.getURIs().size());
+    }
+
+    @Test void domainsAreHostAndParents() {
+        assertEquals(Arrays.asList("a.b.example.com", "b.example.com", "example.com", "com"), CookieJar.domains("a.b.example.com"));
+        assertEquals(Arrays.asList("localhost", "localhost.local", "local"), CookieJar.domains("localhost"));
+        assertEquals(Arrays.asList("127.0.0.1"), CookieJar.domains("127.0.0.1"));
+    }
+
+    @Test void matchesPathsLongestFirst() {
+        CookieJar jar = new CookieJar();
+        URI uri = URI.create("http://example.com/");
+        jar.add(uri, cookie("root", "1", "example.com", "/"));
+        jar.add(uri, cookie("deep", "2", "example.com", "/a/b"));
+        jar.add(uri, cookie("mid", "3", "example.com", "/a"));
+
+        assertEquals("root=1", jar.header(uri));
+        assertEquals("mid=3; root=1", jar.header(URI.create("http://example.com/a")));
+        assertEquals("deep=2; mid=3; root=1", jar.header(URI.create("http://example.com/a/b/c")));
+        assertEquals("root=1", jar.header(URI.create("http://example.com/ab")));
+
+        List<HttpCookie> cookies = jar.get(URI.create("http://example.com/a/b"));
+        assertEquals(3, cookies.size());
+        assertEquals("deep", cookies.get(0).getName());
+
+        assertTrue(CookieJar.pathMatches("/a/b", "/a/"));
+        assertTrue(CookieJar.pathMatches("/a", "/a"));
+        assertFalse(CookieJar.pathMatches("/ab", "/a"));
+        assertFalse(CookieJar.pathMatches("/", "/a"));
+    }
+
+    @Test void secureCookiesOnlyForHttps() {
+        CookieJar jar = new CookieJar();
+        HttpCookie secure = cookie("secure", "1", "example.com", "/");
+        secure.setSecure(true);
+        jar.add(null, secure);
+        jar.add(null, cookie("plain", "2", "example.com", "/"));
+
+        assertEquals("secure=1; plain=2", jar.header(URI.create("https://example.com/")));
+        assertEquals("plain=2", jar.header(URI.create("http://example.com/")));
+    }
+
+    @Test void cachedHeaderIsInvalidatedOnChange() {
+        CookieJar jar = new CookieJar();
+        URI uri = URI.create("http://www.example.com/");
+        jar.add(uri, cookie("a", "1", "example.com", "/"));
+        String header = jar.header(uri);
+        assertEquals("a=1", header);
+        assertSame(header, jar.header(uri)); // reused
+
+        jar.add(uri, cookie("a", "2", "example.com", "/")); // replaces
+        assertEquals("a=2", jar.header(uri));
+
+        HttpCookie delete = cookie("a", "", "example.com", "/");
+        delete.setMaxAge(0);
+        jar.add(uri, delete);
+        assertEquals("", jar.header(uri));
+
+        jar.add(uri, cookie("b", "1", "www.example.com", "/"));
+        assertEquals("b=1", jar.header(uri));
+        assertTrue(jar.remove(uri, cookie("b", "", "www.example.com", "/")));
+        assertFalse(jar.remove(uri, cookie("b", "", "www.example.com", "/")));
+        assertEquals("", jar.header(uri));
+
+        jar.add(uri, cookie("c", "1", "example.com", "/"));
+        assertTrue(jar.removeAll());
+        assertFalse(jar.removeAll());
+        assertEquals("", jar.header(uri));
+    }
+
+    @Test void lookupsDoNotAddDomains() {
+        CookieJar jar = new CookieJar();
+        jar.add(null, cookie("a", "1", "example.com", "/"));
+        for (int i = 0; i < 100; i++)
+            assertEquals("a=1", jar.header(URI.create("http://host" + i + ".example.com/")));
+        assertEquals(1, jar.buckets.size());
+    }
+
+    @Test void cachedHeaderIsInvalidatedByNewDomain() {
+        CookieJar jar = new CookieJar();
+        URI uri = URI.create("http://a.b.example.com/");
+        jar.add(uri, cookie("a", "1", "example.com", "/"));
+        assertEquals("a=1", jar.header(uri));
+
+        jar.add(uri, cookie("b", "2", "b.example.com", "/")); // a domain that had no cookies when cached
+        assertEquals("b=2; a=1", jar.header(uri)); // the more specific domain first
+    }
+
+    @Test void expiredCookiesAreRemoved() throws InterruptedException {
+        CookieJar jar = new CookieJar();
+        URI uri = URI.create("http://example.com/");
+        HttpCookie expiring = cookie("expiring", "1", "example.com", "/");
+        expiring.setMaxAge(1);
+        jar.add(uri, expiring);
+        jar.add(uri, cookie("session", "2", "example.com", "/"));
+        assertEquals("expiring=1; session=2", jar.header(uri));
+
+        Thread.sleep(1100);
+        assertEquals("session=2", jar.header(uri));
+        assertEquals(1, jar.getCookies().size());
+    }
+
+    @Test void cookieWithoutDomainUsesUriHost() {
+        CookieJar jar = new CookieJar();
+        HttpCookie cookie = new HttpCookie("a", "1");
+        cookie.setVersion(0);
+        jar.add(URI.create("http://example.com/"), cookie);
+        assertEquals("a=1", jar.header(URI.create("http://example.com/x")));
+        assertEquals("", jar.header(URI.create("http://www.example.com/x")));
+    }
+
+    @Test void concurrentAddsAndReads() throws Exception {
+        CookieJar jar = new CookieJar();
+        URI uri = URI.create("http://example.com/");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int t = 0; t < futures.length; t++) {
+                int thread = t;
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        jar.add(uri, cookie("t" + thread + "c" + i, "v", "example.com", "/"));
+                        jar.header(uri);
+                    }
+                });
+            }
+            for (Future<?> future : futures) future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1000, jar.getCookies().size());
+        assertEquals(1000, jar.header(uri).split("; ").length);
+    }
+}
@@ -120,6 +120,29 @@ public class DataUtilTest {
         assertEquals("한국어", doc.body().text());
     }
 
+    @Test
+    public void detectsCharsetThenParsesLargeInputOnce() throws IOException {
+        StringBuilder html = new StringBuilder("<html><head><meta charset=iso-8859-1></head><body>");
+        for (int i = 0; i < 1000; i++) html.append("<p>Übergrößenträger ").append(i).append("</p>");
+        ControllableInputStream input = stream(html.toString(), "iso-8859-1");
+
+        Document doc = DataUtil.parseInputStream(input, null, "http://example.com", Parser.htmlParser());
+        assertEquals(1000, doc.select("p").size());
+        assertEquals("Übergrößenträger 999", doc.select("p").last().text());
+        assertEquals("ISO-8859-1", doc.charset().name());
+    }
+
+    @Test
+    public void charsetDetectionRespectsMaxSize() throws IOException {
+        String html = "<html><head><title>One</title>" + "<!-- padding -->" + "<meta charset=iso-8859-1></head><body>Übergrößenträger";
+        ControllableInputStream input = ControllableInputStream.wrap(
+            new ByteArrayInputStream(html.getBytes(StandardCharsets.ISO_8859_1)), 40);
+
+        Document doc = DataUtil.parseInputStream(input, null, "http://example.com", Parser.htmlParser());
+        assertEquals("One", doc.title()); // read to the max, but the meta was not reached
+        assertEquals("UTF-8", doc.charset().name());
+    }
+
     @Test
     public void firstMetaElementWithCharsetShouldBeUsedForDecoding() throws Exception {
         String html = "<html><head>" +
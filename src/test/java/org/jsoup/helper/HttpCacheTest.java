@@ -0,0 +1,171 @@
+package org.jsoup.helper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpCacheTest {
+    private static final long Now = 1_700_000_000_000L;
+
+    private static HttpCache.Entry entry(String url, String body, String... headers) {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (int i = 0; i < headers.length; i += 2)
+            map.put(headers[i], Collections.singletonList(headers[i + 1]));
+        return new HttpCache.Entry(url, 200, "OK", map, Collections.emptyMap(),
+            body.getBytes(StandardCharsets.UTF_8), Now);
+    }
+
+    @Test void maxAgeSetsFreshness() {
+        HttpCache.Entry entry = entry("http://example.com/", "", "Cache-Control", "public, max-age=60");
+        assertTrue(entry.isFresh(Now + 59_000));
+        assertFalse(entry.isFresh(Now + 60_000));
+
+        HttpCache.Entry aged = entry("http://example.com/", "", "Cache-Control", "max-age=60", "Age", "30");
+        assertTrue(aged.isFresh(Now + 29_000));
+        assertFalse(aged.isFresh(Now + 30_000));
+    }
+
+    @Test void expiresSetsFreshnessRelativeToDate() {
+        HttpCache.Entry entry = entry("http://example.com/", "",
+            "Date", HttpCache.formatDate(Now - 1000_000), // server clock is behind
+            "Expires", HttpCache.formatDate(Now - 1000_000 + 120_000));
+        assertTrue(entry.isFresh(Now + 119_000));
+        assertFalse(entry.isFresh(Now + 121_000));
+
+        assertFalse(entry("http://example.com/", "", "Expires", "0").isFresh(Now));
+    }
+
+    @Test void lastModifiedGivesHeuristicFreshness() {
+        HttpCache.Entry entry = entry("http://example.com/", "",
+            "Date", HttpCache.formatDate(Now),
+            "Last-Modified", HttpCache.formatDate(Now - 100_000));
+        assertTrue(entry.isFresh(Now + 9_000));
+        assertFalse(entry.isFresh(Now + 11_000));
+        assertTrue(entry.hasValidator());
+    }
+
+    @Test void noCacheIsNeverFresh() {
+        HttpCache.Entry entry = entry("http://example.com/", "", "cache-control", "No-Cache, max-age=60", "ETag", "\"x\"");
+        assertFalse(entry.isFresh(Now));
+        assertTrue(entry.hasValidator());
+        assertFalse(entry("http://example.com/", "").isFresh(Now));
+    }
+
+    @Test void parsesCacheControl() {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        headers.put("Cache-Control", Arrays.asList("private, max-age=\"30\"", "must-revalidate"));
+        Map<String, String> directives = HttpCache.cacheControl(headers);
+        assertEquals("30", directives.get("max-age"));
+        assertEquals("", directives.get("private"));
+        assertTrue(directives.containsKey("must-revalidate"));
+    }
+
+    @Test void revalidatedUpdatesHeaders() {
+        HttpCache.Entry entry = entry("http://example.com/", "body", "Cache-Control", "max-age=0", "ETag", "\"a\"");
+        Map<String, List<String>> notModified = new LinkedHashMap<>();
+        notModified.put("cache-control", Collections.singletonList("max-age=60"));
+        notModified.put("Set-Cookie", Collections.singletonList("a=b"));
+        HttpCache.Entry updated = entry.revalidated(notModified, Now + 5000);
+
+        assertTrue(updated.isFresh(Now + 60_000));
+        assertEquals("max-age=60", updated.header("Cache-Control"));
+        assertNull(updated.header("Set-Cookie"));
+        assertEquals("\"a\"", updated.header("ETag"));
+        assertSame(entry.body, updated.body);
+    }
+
+    @Test void entryRoundTrips() throws IOException {
+        HttpCache.Entry entry = new HttpCache.Entry("https://example.com/ü", 200, "OK",
+            Collections.singletonMap("Vary", Arrays.asList("Accept-Encoding", "Accept")),
+            Collections.singletonMap("accept-encoding", "gzip"), new byte[] {1, 2, 3}, Now);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entry.write(out);
+        HttpCache.Entry read = HttpCache.Entry.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(entry.url(), read.url());
+        assertEquals(200, read.statusCode);
+        assertEquals("OK", read.statusMessage);
+        assertEquals(entry.headers, read.headers);
+        assertEquals(entry.vary, read.vary);
+        assertArrayEquals(entry.body, read.body);
+        assertEquals(Now, read.responseTime);
+    }
+
+    @Test void memoryCacheEvictsLeastRecentlyUsed() throws IOException {
+        HttpCache.Entry a = entry("http://example.com/a", "a");
+        long size = a.size();
+        HttpCache cache = HttpCache.memory(size * 2);
+        cache.store("http://example.com/a", a);
+        cache.store("http://example.com/b", entry("http://example.com/b", "b"));
+        assertNotNull(cache.load("http://example.com/a")); // a is now more recently used than b
+        cache.store("http://example.com/c", entry("http://example.com/c", "c"));
+
+        assertNotNull(cache.load("http://example.com/a"));
+        assertNull(cache.load("http://example.com/b"));
+        assertNotNull(cache.load("http://example.com/c"));
+
+        cache.remove("http://example.com/a");
+        assertNull(cache.load("http://example.com/a"));
+    }
+
+    @Test void diskCacheStoresAndEvicts(@TempDir Path dir) throws IOException {
+        HttpCache.Entry a = entry("http://example.com/a", "a");
+        HttpCache cache = HttpCache.disk(dir, 1024 * 1024);
+        cache.store("http://example.com/a", a);
+        HttpCache.Entry read = HttpCache.disk(dir, 1024 * 1024).load("http://example.com/a");
+        assertNotNull(read);
+        assertEquals("a", new String(read.body, StandardCharsets.UTF_8));
+        assertNull(cache.load("http://example.com/b"));
+
+        char[] large = new char[600 * 1024];
+        Arrays.fill(large, 'x');
+        cache.store("http://example.com/b", entry("http://example.com/b", new String(large)));
+        cache.store("http://example.com/c", entry("http://example.com/c", new String(large)));
+        assertNull(cache.load("http://example.com/b")); // evicted
+        assertNotNull(cache.load("http://example.com/c"));
+
+        cache.remove("http://example.com/c");
+        assertNull(cache.load("http://example.com/c"));
+    }
+
+    @Test void diskCacheEvictsToLowWaterMark(@TempDir Path dir) throws Exception {
+        HttpCache cache = HttpCache.disk(dir, 1024 * 1024);
+        char[] body = new char[100 * 1024];
+        Arrays.fill(body, 'x');
+        for (int i = 0; i < 11; i++) {
+            String url = "http://example.com/" + i;
+            cache.store(url, entry(url, new String(body)));
+            Thread.sleep(5); // distinct modified times
+        }
+        // the eleventh exceeds the max; evicts down to 90%, so two, and the next stores have room
+        assertNull(cache.load("http://example.com/0"));
+        assertNull(cache.load("http://example.com/1"));
+        for (int i = 2; i < 11; i++)
+            assertNotNull(cache.load("http://example.com/" + i));
+    }
+
+    @Test void countsHitRatio() {
+        HttpCache cache = HttpCache.memory(1024);
+        assertEquals(0, cache.hitRatio());
+        cache.hit();
+        cache.revalidated();
+        cache.miss();
+        cache.miss();
+        assertEquals(0.5, cache.hitRatio());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.revalidatedCount());
+        assertEquals(2, cache.missCount());
+    }
+}
@@ -95,6 +95,19 @@ public class HttpConnectionTest {
         assertEquals("deflate", res.header("accept-Encoding"));
     }
 
+    @Test public void decoderAdvertisesEncoding() {
+        Connection con = HttpConnection.connect("http://example.com");
+        ContentDecoder identity = in -> in;
+        con.decoder("br", identity).decoder("ZSTD", identity).decoder("Br", identity).decoder("gzip", identity);
+        assertEquals("gzip, br, zstd", con.request().header("Accept-Encoding"));
+
+        HttpConnection.Request req = (HttpConnection.Request) con.newRequest().request();
+        assertSame(identity, req.decoder("BR"));
+        assertSame(identity, req.decoder("gzip")); // replaces built-in
+        assertSame(InflaterStreams.Deflate, req.decoder("deflate"));
+        assertNull(req.decoder("compress"));
+    }
+
     @Test public void headers() {
         Connection con = HttpConnection.connect("http://example.com");
         Map<String, String> headers = new HashMap<>();
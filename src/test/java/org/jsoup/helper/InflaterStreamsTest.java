@@ -0,0 +1,135 @@
+package org.jsoup.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InflaterStreamsTest {
+    static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[100];
+        int n;
+        while ((n = in.read(buf)) != -1) out.write(buf, 0, n);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test void decodesGzip() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) content.append("<p>Hello ").append(i).append(" 新</p>");
+        for (int i = 0; i < 3; i++) { // reuses the pooled inflater
+            try (InputStream in = InflaterStreams.Gzip.decode(new ByteArrayInputStream(gzip(content.toString())))) {
+                assertEquals(content.toString(), readAll(in));
+            }
+        }
+    }
+
+    @Test void decodesConcatenatedMembers() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(gzip("One "));
+        out.write(gzip("Two "));
+        out.write(gzip("Three"));
+        try (InputStream in = InflaterStreams.Gzip.decode(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("One Two Three", readAll(in));
+        }
+    }
+
+    @Test void readsHeaderFields() throws IOException {
+        byte[] body = gzip("Named");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(body, 0, 3);
+        out.write(8 | 16); // FNAME, FCOMMENT
+        out.write(body, 4, 6);
+        out.write("name.html\0a comment\0".getBytes(StandardCharsets.US_ASCII));
+        out.write(body, 10, body.length - 10);
+        try (InputStream in = InflaterStreams.Gzip.decode(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("Named", readAll(in));
+        }
+    }
+
+    @Test void checksHeaderCrc() throws IOException {
+        byte[] body = gzip("Checked");
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        header.write(body, 0, 3);
+        header.write(2 | 4); // FHCRC, FEXTRA
+        header.write(body, 4, 6);
+        header.write(new byte[] {3, 0, 'a', 'b', 'c'}); // extra field, of length 3
+        CRC32 crc = new CRC32();
+        crc.update(header.toByteArray());
+        int headerCrc = (int) crc.getValue();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        header.writeTo(out);
+        out.write(headerCrc);
+        out.write(headerCrc >> 8);
+        out.write(body, 10, body.length - 10);
+        byte[] valid = out.toByteArray();
+        try (InputStream in = InflaterStreams.Gzip.decode(new ByteArrayInputStream(valid))) {
+            assertEquals("Checked", readAll(in));
+        }
+
+        valid[header.size()] ^= 1;
+        assertThrows(ZipException.class, () -> InflaterStreams.Gzip.decode(new ByteArrayInputStream(valid)));
+    }
+
+    @Test void disregardsDataAfterLastMember() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(gzip("One "));
+        out.write(gzip("Two"));
+        out.write(new byte[] {0, 0, 0, 0});
+        try (InputStream in = InflaterStreams.Gzip.decode(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("One Two", readAll(in));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test void rejectsTruncatedTrailer() throws IOException {
+        byte[] body = gzip("Truncated");
+        byte[] truncated = Arrays.copyOf(body, body.length - 3);
+        try (InputStream in = InflaterStreams.Gzip.decode(new ByteArrayInputStream(truncated))) {
+            assertThrows(EOFException.class, () -> readAll(in));
+        }
+    }
+
+    @Test void rejectsCorruptInput() throws IOException {
+        assertThrows(ZipException.class, () -> InflaterStreams.Gzip.decode(new ByteArrayInputStream("<p>Not gzip".getBytes())));
+
+        byte[] body = gzip("Corrupted");
+        body[body.length - 5] ^= 1; // the crc
+        try (InputStream in = InflaterStreams.Gzip.decode(new ByteArrayInputStream(body))) {
+            assertThrows(ZipException.class, () -> readAll(in));
+        }
+    }
+
+    @Test void decodesDeflate() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+                deflate.write(("Deflated " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            try (InputStream in = InflaterStreams.Deflate.decode(new ByteArrayInputStream(out.toByteArray()))) {
+                assertEquals("Deflated " + i, readAll(in));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.jsoup.helper;
+
+import org.jsoup.Connection;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryPolicyTest {
+    private static HttpConnection.Response response(int status, String... headers) {
+        HttpConnection.Response res = new HttpConnection.Response();
+        res.statusCode = status;
+        for (int i = 0; i < headers.length; i += 2) res.header(headers[i], headers[i + 1]);
+        return res;
+    }
+
+    @Test void backoffIsJitteredAndCapped() {
+        RetryPolicy retry = new RetryPolicy().backoff(100, 1000);
+        for (int i = 0; i < 100; i++) {
+            long first = retry.backoff(1);
+            assertTrue(first >= 0 && first <= 100);
+            long third = retry.backoff(3);
+            assertTrue(third >= 0 && third <= 400);
+            long later = retry.backoff(40);
+            assertTrue(later >= 0 && later <= 1000);
+        }
+        assertEquals(0, new RetryPolicy().backoff(0, 0).backoff(1));
+    }
+
+    @Test void retriesTransientStatusWithinMax() {
+        RetryPolicy retry = new RetryPolicy().maxRetries(2).backoff(0, 0);
+        assertEquals(0, retry.delay(1, response(503)));
+        assertEquals(0, retry.delay(2, response(500)));
+        assertEquals(-1, retry.delay(3, response(503)));
+        assertEquals(-1, retry.delay(1, response(404)));
+        assertEquals(-1, retry.delay(1, response(200)));
+
+        retry.retryOn(404);
+        assertEquals(0, retry.delay(1, response(404)));
+        assertEquals(-1, retry.delay(1, response(503)));
+    }
+
+    @Test void waitsForRetryAfter() {
+        RetryPolicy retry = new RetryPolicy().backoff(0, 5000);
+        assertEquals(3000, retry.delay(1, response(503, "Retry-After", "3")));
+        assertEquals(-1, retry.delay(1, response(429, "Retry-After", "6")));
+        long date = retry.delay(1, response(429, "Retry-After", HttpCache.formatDate(System.currentTimeMillis() + 4000)));
+        assertTrue(date > 2000 && date <= 4000);
+        assertEquals(0, retry.delay(1, response(503, "Retry-After", "soon"))); // invalid, so ignored
+    }
+
+    @Test void retriesTransientIoErrors() {
+        RetryPolicy retry = new RetryPolicy().backoff(0, 0);
+        assertEquals(0, retry.delay(1, new SocketTimeoutException()));
+        assertEquals(0, retry.delay(1, new IOException("Connection reset")));
+        assertEquals(-1, retry.delay(1, new UnknownHostException()));
+        assertEquals(-1, retry.delay(3, new SocketTimeoutException()));
+    }
+
+    @Test void onlyRetriesReplayableIdempotentRequests() {
+        RetryPolicy retry = new RetryPolicy();
+        HttpConnection.Request req = new HttpConnection.Request();
+        assertTrue(retry.canRetry(req));
+        req.method(Connection.Method.PUT);
+        assertTrue(retry.canRetry(req));
+        req.method(Connection.Method.POST);
+        assertFalse(retry.canRetry(req));
+        retry.retryNonIdempotent(true);
+        assertTrue(retry.canRetry(req));
+
+        req.requestBodyStream(new ByteArrayInputStream(new byte[0]));
+        assertFalse(retry.canRetry(req));
+        assertFalse(new RetryPolicy().maxRetries(0).canRetry(new HttpConnection.Request()));
+    }
+
+    @Test void hedgesAfterPercentileOfSamples() {
+        RetryPolicy retry = new RetryPolicy().hedge(0.9);
+        assertTrue(retry.canHedge(new HttpConnection.Request()));
+        for (int i = 1; i <= 15; i++) retry.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        assertEquals(-1, retry.hedgeDelay()); // not enough samples
+        for (int i = 16; i <= 100; i++) retry.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+
+        // the last 64 samples are 37..100ms; the 90th percentile of those
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(94), retry.hedgeDelay());
+        assertFalse(new RetryPolicy().canHedge(new HttpConnection.Request()));
+    }
+
+    @Test void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy().maxRetries(-1));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy().backoff(100, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy().hedge(1));
+    }
+}
@@ -7,6 +7,8 @@ import org.jsoup.Connection.Method;
 import org.jsoup.TextUtil;
 import org.jsoup.UnsupportedMimeTypeException;
 import org.jsoup.helper.DataUtil;
+import org.jsoup.helper.RequestListener;
+import org.jsoup.helper.RetryPolicy;
 import org.jsoup.helper.W3CDom;
 import org.jsoup.integration.servlets.*;
 import org.jsoup.internal.SharedConstants;
@@ -27,6 +29,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -39,11 +42,21 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import static org.jsoup.helper.AuthenticationHandlerTest.MaxAttempts;
 import static org.jsoup.helper.HttpConnection.CONTENT_TYPE;
@@ -393,6 +406,51 @@ public class ConnectTest {
          */
     }
 
+    @Test
+    public void streamsUploadsOfUnknownLength() throws IOException {
+        int size = 8 * 1024 * 1024;
+        InputStream generated = new InputStream() { // not backed by memory, so length unknown
+            int remaining = size;
+
+            @Override public int read() {
+                return remaining-- > 0 ? 'x' : -1;
+            }
+
+            @Override public int read(byte[] b, int off, int len) {
+                if (remaining <= 0) return -1;
+                int n = Math.min(len, remaining);
+                Arrays.fill(b, off, off + n, (byte) 'x');
+                remaining -= n;
+                return n;
+            }
+        };
+
+        Document res = Jsoup.connect(echoUrl)
+            .data("name", "Jay")
+            .data("upload", "generated.txt", generated, "text/plain")
+            .post();
+        assertEquals("2", ihVal("Parts", res));
+        assertEquals(String.valueOf(size), ihVal("Part upload Size", res));
+        assertEquals("Jay", ihVal("name", res));
+        assertNull(ihVal("Content-Length", res));
+    }
+
+    @Test
+    public void uploadsKnownLengthsWithContentLength() throws IOException {
+        File thumb = ParseTest.getFile("/htmltests/thumb.jpg");
+        byte[] bytes = "Hello".getBytes(StandardCharsets.UTF_8);
+        Document res = Jsoup.connect(echoUrl)
+            .data("file", thumb.getName(), new FileInputStream(thumb), "image/jpeg")
+            .data("bytes", "hello.txt", new ByteArrayInputStream(bytes))
+            .post();
+        assertEquals("2", ihVal("Parts", res));
+        assertEquals("1052", ihVal("Part file Size", res));
+        assertEquals("5", ihVal("Part bytes Size", res));
+        String length = ihVal("Content-Length", res);
+        assertNotNull(length);
+        assertTrue(Integer.parseInt(length) > 1052 + 5);
+    }
+
     @Test
     public void multipleParsesOkAfterReadFully() throws IOException {
         Connection.Response res = Jsoup.connect(echoUrl).execute().readFully();
@@ -491,6 +549,70 @@ public class ConnectTest {
         assertEquals("Hello, World!", doc.selectFirst("p").text());
     }
 
+    @Test
+    public void supportsGzip() throws IOException {
+        Connection.Response res = Jsoup.connect(DeflateServlet.Url).data(DeflateServlet.EncodingParam, "gzip").execute();
+        assertEquals("gzip", res.header("Content-Encoding"));
+        assertEquals("Hello, World!", res.parse().selectFirst("p").text());
+    }
+
+    @Test
+    public void listenerReportsPhases() throws IOException {
+        List<RequestListener.Phase> phases = new ArrayList<>();
+        Map<RequestListener.Phase, Long> bytes = new HashMap<>();
+        Connection session = Jsoup.newSession().listener((req, phase, start, nanos, count) -> {
+            assertTrue(nanos >= 0);
+            assertTrue(start <= System.nanoTime());
+            phases.add(phase);
+            bytes.put(phase, count);
+        });
+
+        Document doc = session.newRequest(FileServlet.urlTo("/htmltests/xwiki-1324.html.gz")).get();
+        assertTrue(doc.title().contains("XWiki"));
+
+        assertEquals(RequestListener.Phase.Dns, phases.get(0));
+        assertEquals(RequestListener.Phase.FirstByte, phases.get(phases.size() - 4));
+        assertEquals(RequestListener.Phase.Download, phases.get(phases.size() - 3));
+        assertEquals(RequestListener.Phase.Decompress, phases.get(phases.size() - 2));
+        assertEquals(RequestListener.Phase.Parse, phases.get(phases.size() - 1));
+
+        long downloaded = bytes.get(RequestListener.Phase.Download);
+        long decompressed = bytes.get(RequestListener.Phase.Decompress);
+        assertEquals(ParseTest.getFile("/htmltests/xwiki-1324.html.gz").length(), downloaded);
+        assertTrue(decompressed > downloaded);
+        assertEquals(decompressed, (long) bytes.get(RequestListener.Phase.Parse));
+        assertEquals(0, (long) bytes.get(RequestListener.Phase.FirstByte)); // no request body
+    }
+
+    @Test
+    public void listenerReportsAsyncPhases() throws Exception {
+        List<RequestListener.Phase> phases = Collections.synchronizedList(new ArrayList<>());
+        Connection session = Jsoup.newSession().listener((req, phase, start, nanos, count) -> phases.add(phase));
+        Document doc = session.newRequest(FileServlet.urlTo("/htmltests/xwiki-1324.html.gz")).getAsync().get(10, TimeUnit.SECONDS);
+        assertTrue(doc.title().contains("XWiki"));
+
+        assertTrue(phases.contains(RequestListener.Phase.FirstByte));
+        assertTrue(phases.contains(RequestListener.Phase.Download));
+        assertTrue(phases.contains(RequestListener.Phase.Decompress));
+        assertEquals(RequestListener.Phase.Parse, phases.get(phases.size() - 1));
+        assertEquals(1, Collections.frequency(phases, RequestListener.Phase.Download));
+    }
+
+    @Test
+    public void usesAddedDecoder() throws IOException {
+        AtomicInteger decoded = new AtomicInteger();
+        Connection con = Jsoup.connect(DeflateServlet.Url)
+            .decoder("Deflate", in -> {
+                decoded.incrementAndGet();
+                return new InflaterInputStream(in, new Inflater(true));
+            });
+        assertEquals("gzip, deflate", con.request().header("Accept-Encoding"));
+
+        Document doc = con.get();
+        assertEquals(1, decoded.get());
+        assertEquals("Hello, World!", doc.selectFirst("p").text());
+    }
+
     @Test
     public void handlesLargerContentLengthParseRead() throws IOException {
         // this handles situations where the remote server sets a content length greater than it actually writes
@@ -537,6 +659,120 @@ public class ConnectTest {
         assertEquals(HelloServlet.Url, doc.location());
     }
 
+    @Test void getAsyncFollowsRedirectAndParses() throws Exception {
+        CompletableFuture<Document> future = Jsoup.connect(RedirectServlet.Url)
+            .data(RedirectServlet.LocationParam, HelloServlet.Url)
+            .getAsync();
+
+        Document doc = future.get(10, TimeUnit.SECONDS);
+        assertEquals("Hello, World!", doc.selectFirst("p").text());
+        assertEquals(HelloServlet.Url, doc.location());
+    }
+
+    @Test void executeAsyncReadsBody() throws Exception {
+        Connection con = Jsoup.connect(DeflateServlet.Url);
+        Connection.Response res = con.executeAsync().get(10, TimeUnit.SECONDS);
+        assertEquals("deflate", res.header("Content-Encoding"));
+        assertSame(res, con.response());
+        assertTrue(res.body().contains("Hello, World!"));
+        assertEquals("Hello, World!", res.parse().selectFirst("p").text());
+    }
+
+    private static String flakyUrl(String... params) {
+        StringBuilder url = new StringBuilder(FlakyServlet.Url).append("?").append(FlakyServlet.KeyParam).append("=")
+            .append(UUID.randomUUID()); // a fresh attempt count
+        for (int i = 0; i < params.length; i += 2)
+            url.append("&").append(params[i]).append("=").append(params[i + 1]);
+        return url.toString();
+    }
+
+    @Test void retriesTransientErrors() throws IOException {
+        RetryPolicy retry = new RetryPolicy().backoff(1, 10);
+        Document doc = Jsoup.connect(flakyUrl(FlakyServlet.FailParam, "2")).retry(retry).get();
+        assertEquals("Attempt 3", doc.text());
+
+        HttpStatusException e = assertThrows(HttpStatusException.class,
+            () -> Jsoup.connect(flakyUrl(FlakyServlet.FailParam, "3")).retry(retry).get());
+        assertEquals(503, e.getStatusCode());
+
+        // 404 is not transient
+        e = assertThrows(HttpStatusException.class, () -> Jsoup.connect(
+            flakyUrl(FlakyServlet.FailParam, "1", FlakyServlet.StatusParam, "404")).retry(retry).get());
+        assertEquals(404, e.getStatusCode());
+    }
+
+    @Test void retriesNonIdempotentOnlyIfAllowed() throws IOException {
+        RetryPolicy retry = new RetryPolicy().backoff(1, 10);
+        assertThrows(HttpStatusException.class,
+            () -> Jsoup.connect(flakyUrl(FlakyServlet.FailParam, "1")).retry(retry).post());
+
+        Document doc = Jsoup.connect(flakyUrl(FlakyServlet.FailParam, "1"))
+            .retry(retry.retryNonIdempotent(true)).post();
+        assertEquals("Attempt 2", doc.text());
+    }
+
+    @Test void retryWaitsForRetryAfter() throws IOException {
+        RetryPolicy retry = new RetryPolicy().backoff(1, 2000);
+        long start = System.nanoTime();
+        Document doc = Jsoup.connect(flakyUrl(FlakyServlet.FailParam, "1", FlakyServlet.StatusParam, "429",
+            FlakyServlet.RetryAfterParam, "1")).retry(retry).get();
+        assertEquals("Attempt 2", doc.text());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(1000));
+
+        // longer than the max delay, so returned as is
+        HttpStatusException e = assertThrows(HttpStatusException.class, () -> Jsoup.connect(flakyUrl(
+            FlakyServlet.FailParam, "1", FlakyServlet.StatusParam, "429", FlakyServlet.RetryAfterParam, "60"))
+            .retry(retry).get());
+        assertEquals(429, e.getStatusCode());
+    }
+
+    @Test void executeAsyncRetries() throws Exception {
+        RetryPolicy retry = new RetryPolicy().backoff(1, 10);
+        Document doc = Jsoup.connect(flakyUrl(FlakyServlet.FailParam, "2")).retry(retry)
+            .getAsync().get(10, TimeUnit.SECONDS);
+        assertEquals("Attempt 3", doc.text());
+    }
+
+    @Test void hedgesSlowRequests() throws IOException {
+        RetryPolicy retry = new RetryPolicy().hedge(0.9);
+        Connection session = Jsoup.newSession().retry(retry);
+        for (int i = 0; i < 20; i++) // warm up the latency samples
+            session.newRequest(flakyUrl()).get();
+
+        long start = System.nanoTime();
+        Document doc = session.newRequest(flakyUrl(FlakyServlet.SlowParam, "5000")).get();
+        assertEquals("Attempt 2", doc.text()); // the hedge won
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(4000));
+    }
+
+    @Test void executeAsyncCompletesExceptionallyOnError() throws Exception {
+        CompletableFuture<Connection.Response> future = Jsoup.connect(EchoServlet.Url)
+            .header(EchoServlet.CodeParam, "404")
+            .executeAsync();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        HttpStatusException cause = (HttpStatusException) e.getCause();
+        assertEquals(404, cause.getStatusCode());
+
+        Connection.Response ignored = Jsoup.connect(EchoServlet.Url)
+            .header(EchoServlet.CodeParam, "404")
+            .ignoreHttpErrors(true)
+            .executeAsync()
+            .get(10, TimeUnit.SECONDS);
+        assertEquals(404, ignored.statusCode());
+    }
+
+    @Test void manyAsyncRequestsInFlight() throws Exception {
+        Connection session = Jsoup.newSession().url(EchoServlet.Url);
+        List<CompletableFuture<Document>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            futures.add(session.newRequest().data("Num", String.valueOf(i)).getAsync());
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        for (int i = 0; i < futures.size(); i++)
+            assertEquals(String.valueOf(i), ihVal("Num", futures.get(i).join()));
+    }
+
     @Test public void handlesEmptyRedirect() {
         boolean threw = false;
         try {
@@ -990,6 +1226,23 @@ public class ConnectTest {
         assertTrue(ihVal("Authorization", doc).startsWith("Basic ")); // tests we set the auth header
     }
 
+    @Test
+    void canAuthenticateStreamedUpload() throws IOException {
+        // the body is resent after the 401 challenge, so a stream upload must be buffered
+        String password = AuthFilter.newServerPassword();
+        InputStream unknownLength = new BufferedInputStream(new ByteArrayInputStream("Hello, upload".getBytes(StandardCharsets.UTF_8)));
+        Document doc = Jsoup.connect(echoUrl)
+            .header(AuthFilter.WantsServerAuthentication, "1")
+            .auth(ctx -> ctx.credentials(AuthFilter.ServerUser, password))
+            .data("name", "Jay")
+            .data("upload", "upload.txt", unknownLength, "text/plain")
+            .post();
+        assertTrue(ihVal("Authorization", doc).startsWith("Basic "));
+        assertEquals("2", ihVal("Parts", doc));
+        assertEquals("13", ihVal("Part upload Size", doc));
+        assertEquals("Jay", ihVal("name", doc));
+    }
+
     @ParameterizedTest @MethodSource("echoUrls")
     void incorrectAuth(String url) throws IOException {
         Connection session = Jsoup.newSession()
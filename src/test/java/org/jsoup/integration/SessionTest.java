@@ -2,19 +2,42 @@ package org.jsoup.integration;
 
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
+import org.jsoup.helper.ConnectionPool;
+import org.jsoup.helper.HttpCache;
+import org.jsoup.integration.servlets.CacheServlet;
 import org.jsoup.integration.servlets.CookieServlet;
 import org.jsoup.integration.servlets.EchoServlet;
 import org.jsoup.integration.servlets.FileServlet;
+import org.jsoup.integration.servlets.HelloServlet;
+import org.jsoup.integration.servlets.RedirectServlet;
 import org.jsoup.nodes.Document;
 import org.jsoup.parser.Parser;
 import org.jsoup.select.Elements;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SessionTest {
@@ -134,4 +157,208 @@ public class SessionTest {
         Document doc3 = session.newRequest().url(xmlUrl).get();
         assertEquals(xmlVal, doc3.html()); // did not blow away xml default
     }
+
+    @Test
+    public void sessionsShareConnectionPool() throws Exception {
+        ConnectionPool pool = new ConnectionPool().host("localhost", host -> host.maxConnections(2));
+        Connection session1 = Jsoup.newSession().pool(pool).url(EchoServlet.Url);
+        Connection session2 = Jsoup.newSession().pool(pool);
+
+        List<CompletableFuture<Document>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Connection session = i % 2 == 0 ? session1 : session2;
+            futures.add(session.newRequest().url(EchoServlet.Url).data("Num", String.valueOf(i)).getAsync());
+        }
+        for (int i = 0; i < futures.size(); i++)
+            assertEquals(String.valueOf(i), keyText("Num", futures.get(i).get(10, TimeUnit.SECONDS)));
+
+        Document doc = session1.newRequest().get();
+        assertEquals(EchoServlet.Url, doc.location());
+        Connection.Response head = session2.newRequest().url(EchoServlet.Url).method(Connection.Method.HEAD).execute();
+        assertEquals(200, head.statusCode());
+
+        // each of those released its connection, so further requests don't wait
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 3; i++)
+                session2.newRequest().url(EchoServlet.Url).get();
+        });
+    }
+
+    @Test
+    public void pooledRequestTimesOutWaitingForConnection() throws Exception {
+        Connection session = Jsoup.newSession().pool(new ConnectionPool().maxConnections(1));
+        Connection.Response unread = session.newRequest(EchoServlet.Url).execute(); // holds the only connection
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThrows(SocketTimeoutException.class, () -> session.newRequest(EchoServlet.Url).timeout(500).execute());
+        });
+
+        unread.body(); // reading the body releases the connection
+        assertEquals(200, session.newRequest(EchoServlet.Url).execute().statusCode());
+    }
+
+    @Test
+    public void pooledRequestsUseCustomSocketFactory() throws Exception {
+        CountingSocketFactory factory = new CountingSocketFactory(SSLContext.getDefault().getSocketFactory());
+        Connection session = Jsoup.newSession().pool(new ConnectionPool().maxConnections(2)).sslSocketFactory(factory);
+        assertEquals("Hello, World!", session.newRequest(HelloServlet.TlsUrl).get().selectFirst("p").text());
+        assertEquals("Hello, World!", session.newRequest(HelloServlet.TlsUrl).getAsync().get(10, TimeUnit.SECONDS).selectFirst("p").text());
+        assertTrue(factory.created.get() > 0); // not bypassed for HttpClient
+    }
+
+    private static class CountingSocketFactory extends SSLSocketFactory {
+        final SSLSocketFactory delegate;
+        final AtomicInteger created = new AtomicInteger();
+
+        CountingSocketFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override public String[] getDefaultCipherSuites() { return delegate.getDefaultCipherSuites(); }
+        @Override public String[] getSupportedCipherSuites() { return delegate.getSupportedCipherSuites(); }
+
+        @Override public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+            created.incrementAndGet();
+            return delegate.createSocket(s, host, port, autoClose);
+        }
+
+        @Override public Socket createSocket() throws IOException {
+            created.incrementAndGet();
+            return delegate.createSocket();
+        }
+
+        @Override public Socket createSocket(String host, int port) throws IOException {
+            created.incrementAndGet();
+            return delegate.createSocket(host, port);
+        }
+
+        @Override public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            created.incrementAndGet();
+            return delegate.createSocket(host, port, localHost, localPort);
+        }
+
+        @Override public Socket createSocket(InetAddress host, int port) throws IOException {
+            created.incrementAndGet();
+            return delegate.createSocket(host, port);
+        }
+
+        @Override public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            created.incrementAndGet();
+            return delegate.createSocket(address, port, localAddress, localPort);
+        }
+    }
+
+    @Test
+    public void poolRateLimitsRequestsAndRedirects() throws Exception {
+        ConnectionPool pool = new ConnectionPool().host("localhost", host -> host.rateLimit(20, 1)); // one per 50ms
+        Connection session = Jsoup.newSession().pool(pool);
+        long start = System.nanoTime();
+        session.newRequest(EchoServlet.Url).get(); // takes the burst token
+
+        List<CompletableFuture<Document>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++)
+            futures.add(session.newRequest(EchoServlet.Url).data("Num", String.valueOf(i)).getAsync());
+        Document redirected = session.newRequest(RedirectServlet.Url)
+            .data(RedirectServlet.LocationParam, EchoServlet.Url).get(); // two requests
+        for (int i = 0; i < futures.size(); i++)
+            assertEquals(String.valueOf(i), keyText("Num", futures.get(i).get(10, TimeUnit.SECONDS)));
+        assertEquals(EchoServlet.Url, redirected.location());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200)); // 4 waits of 50ms after the first
+    }
+
+    @Test
+    public void cacheServesFreshResponses() throws IOException {
+        HttpCache cache = HttpCache.memory(1024 * 1024);
+        Connection session = Jsoup.newSession().cache(cache)
+            .url(CacheServlet.Url + "?" + CacheServlet.MaxAgeParam + "=60");
+
+        Connection.Response first = session.newRequest().execute();
+        String text = first.parse().text();
+        assertNotNull(first.cookie("visit"));
+
+        Connection.Response second = session.newRequest().execute();
+        assertEquals(text, second.parse().text()); // not requested again
+        assertNull(second.cookie("visit")); // set-cookie is not stored
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0.5, cache.hitRatio());
+
+        // requests with other data are other entries; and no-cache requests revalidate
+        assertNotEquals(text, session.newRequest(CacheServlet.Url + "?" + CacheServlet.MaxAgeParam + "=61").get().text());
+        assertNotEquals(text, session.newRequest().header("Cache-Control", "no-cache").get().text());
+        assertEquals(3, cache.missCount());
+    }
+
+    @Test
+    public void cacheHitsSkipPoolRateLimit() throws Exception {
+        ConnectionPool pool = new ConnectionPool().host("localhost", host -> host.rateLimit(1, 1)); // one per second
+        HttpCache cache = HttpCache.memory(1024 * 1024);
+        Connection session = Jsoup.newSession().pool(pool).cache(cache)
+            .url(CacheServlet.Url + "?" + CacheServlet.MaxAgeParam + "=60");
+        String text = session.newRequest().get().text(); // takes the burst token
+
+        long start = System.nanoTime();
+        assertEquals(text, session.newRequest().get().text());
+        assertEquals(text, session.newRequest().getAsync().get(10, TimeUnit.SECONDS).text());
+        assertEquals(2, cache.hitCount());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(900)); // didn't wait for the rate
+    }
+
+    @Test
+    public void cacheServesAsyncRequests() throws Exception {
+        HttpCache cache = HttpCache.memory(1024 * 1024);
+        Connection session = Jsoup.newSession().cache(cache)
+            .url(CacheServlet.Url + "?" + CacheServlet.MaxAgeParam + "=60");
+
+        String text = session.newRequest().getAsync().get(10, TimeUnit.SECONDS).text(); // stored from the buffered body
+        assertEquals(1, cache.missCount());
+
+        CompletableFuture<Document> hit = session.newRequest().getAsync();
+        assertTrue(hit.isDone()); // served without a worker thread
+        assertEquals(text, hit.get().text());
+        assertEquals(text, session.newRequest().get().text());
+        assertEquals(2, cache.hitCount());
+
+        // and stale responses are revalidated
+        Connection revalidating = Jsoup.newSession().cache(cache).url(CacheServlet.Url + "?" + CacheServlet.EtagParam + "=async");
+        String tagged = revalidating.newRequest().getAsync().get(10, TimeUnit.SECONDS).text();
+        assertEquals(tagged, revalidating.newRequest().getAsync().get(10, TimeUnit.SECONDS).text());
+        assertEquals(1, cache.revalidatedCount());
+    }
+
+    @Test
+    public void cacheRevalidatesStaleResponses() throws IOException {
+        HttpCache cache = HttpCache.memory(1024 * 1024);
+        Connection session = Jsoup.newSession().cache(cache)
+            .url(CacheServlet.Url + "?" + CacheServlet.EtagParam + "=v1");
+
+        String text = session.newRequest().get().text();
+        Connection.Response res = session.newRequest().execute();
+        assertEquals(200, res.statusCode());
+        assertEquals("\"v1\"", res.header("ETag"));
+        assertEquals(text, res.parse().text());
+        assertEquals(1, cache.revalidatedCount());
+        assertEquals(0, cache.hitCount());
+
+        // a different resource is a miss, and then revalidated
+        String other = CacheServlet.Url + "?" + CacheServlet.EtagParam + "=v2";
+        String changed = session.newRequest(other).get().text();
+        assertNotEquals(text, changed);
+        assertEquals(changed, session.newRequest(other).get().text());
+        assertEquals(2, cache.revalidatedCount());
+    }
+
+    @Test
+    public void diskCacheSharedBetweenSessions(@TempDir Path dir) throws Exception {
+        HttpCache cache = HttpCache.disk(dir, 1024 * 1024);
+        Connection session1 = Jsoup.newSession().cache(cache);
+        Connection session2 = Jsoup.newSession().cache(HttpCache.disk(dir, 1024 * 1024)); // same store
+
+        String url = CacheServlet.Url + "?" + CacheServlet.MaxAgeParam + "=60&" + CacheServlet.GzipParam + "=1";
+        String text = session1.newRequest(url).getAsync().get(10, TimeUnit.SECONDS).text();
+        assertTrue(text.startsWith("Request "));
+        assertEquals(text, session2.newRequest(url).get().text());
+        assertEquals(text, session1.newRequest(url).get().text());
+        assertEquals(1, cache.hitCount());
+    }
 }
@@ -0,0 +1,55 @@
+package org.jsoup.integration.servlets;
+
+import org.jsoup.integration.TestServer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ Serves a page with the count of requests made to this servlet, with caching headers set by the request parameters.
+ */
+public class CacheServlet extends BaseServlet {
+    public static final String Url;
+    public static final String TlsUrl;
+    static {
+        TestServer.ServletUrls urls = TestServer.map(CacheServlet.class);
+        Url = urls.url;
+        TlsUrl = urls.tlsUrl;
+    }
+    public static final String MaxAgeParam = "maxAge"; // sends Cache-Control: max-age; otherwise no-cache
+    public static final String EtagParam = "etag"; // sends the ETag, and a 304 if it matches If-None-Match
+    public static final String GzipParam = "gzip"; // gzips the body
+
+    private static final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    protected void doIt(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        int num = count.incrementAndGet();
+        String maxAge = req.getParameter(MaxAgeParam);
+        res.setHeader("Cache-Control", maxAge != null ? "max-age=" + maxAge : "no-cache");
+        res.setHeader("Set-Cookie", "visit=" + num);
+        String etag = req.getParameter(EtagParam);
+        if (etag != null) {
+            res.setHeader("ETag", '"' + etag + '"');
+            if (('"' + etag + '"').equals(req.getHeader("If-None-Match"))) {
+                res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        res.setContentType(TextHtml);
+        res.setStatus(HttpServletResponse.SC_OK);
+        OutputStream out = res.getOutputStream();
+        if (req.getParameter(GzipParam) != null) {
+            res.setHeader("Content-Encoding", "gzip");
+            out = new GZIPOutputStream(out);
+        }
+        out.write(("<p>Request " + num).getBytes(StandardCharsets.UTF_8));
+        out.close();
+    }
+}
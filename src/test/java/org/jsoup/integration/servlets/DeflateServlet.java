@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class DeflateServlet extends BaseServlet {
     public static final String Url;
@@ -17,16 +18,18 @@ public class DeflateServlet extends BaseServlet {
         Url = urls.url;
         TlsUrl = urls.tlsUrl;
     }
+    public static final String EncodingParam = "encoding"; // deflate (default), or gzip
 
     @Override
     protected void doIt(HttpServletRequest req, HttpServletResponse res) throws IOException {
         res.setContentType(TextHtml);
         res.setStatus(HttpServletResponse.SC_OK);
-        res.setHeader("Content-Encoding", "deflate");
+        boolean gzip = "gzip".equals(req.getParameter(EncodingParam));
+        res.setHeader("Content-Encoding", gzip ? "gzip" : "deflate");
 
         String doc = "<p>Hello, World!<p>That should be enough, right?<p>Hello, World!<p>That should be enough, right?";
 
-        DeflaterOutputStream stream = new DeflaterOutputStream(
+        DeflaterOutputStream stream = gzip ? new GZIPOutputStream(res.getOutputStream()) : new DeflaterOutputStream(
             res.getOutputStream(),
             new Deflater(Deflater.BEST_COMPRESSION, true)); // true = nowrap zlib headers
 
@@ -0,0 +1,57 @@
+package org.jsoup.integration.servlets;
+
+import org.jsoup.integration.TestServer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ Fails the first requests for a key with an error status, then succeeds with the attempt number. For testing retries.
+ */
+public class FlakyServlet extends BaseServlet {
+    public static final String Url;
+    public static final String TlsUrl;
+    static {
+        TestServer.ServletUrls urls = TestServer.map(FlakyServlet.class);
+        Url = urls.url;
+        TlsUrl = urls.tlsUrl;
+    }
+    public static final String KeyParam = "key"; // counts attempts per key
+    public static final String FailParam = "fail"; // the number of attempts to fail
+    public static final String StatusParam = "status"; // the failure status; default 503
+    public static final String RetryAfterParam = "retryAfter"; // a Retry-After header for failures
+    public static final String SlowParam = "slow"; // millis to pause the first attempt before responding
+
+    private static final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doIt(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        int attempt = attempts.computeIfAbsent(req.getParameter(KeyParam), k -> new AtomicInteger()).incrementAndGet();
+        String slow = req.getParameter(SlowParam);
+        if (slow != null && attempt == 1) {
+            try {
+                Thread.sleep(Integer.parseInt(slow));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        res.setContentType(TextHtml);
+        String fail = req.getParameter(FailParam);
+        if (fail != null && attempt <= Integer.parseInt(fail)) {
+            String status = req.getParameter(StatusParam);
+            res.setStatus(status != null ? Integer.parseInt(status) : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            String retryAfter = req.getParameter(RetryAfterParam);
+            if (retryAfter != null) res.setHeader("Retry-After", retryAfter);
+            res.getWriter().write("<p>Failed " + attempt);
+            return;
+        }
+
+        res.setStatus(HttpServletResponse.SC_OK);
+        res.getWriter().write("<p>Attempt " + attempt);
+    }
+}
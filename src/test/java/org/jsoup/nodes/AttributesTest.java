@@ -386,4 +386,73 @@ public class AttributesTest {
         assertNotEquals(one, two);
 
     }
+
+    @Test void compactSharesKeysAndCopiesOnWrite() {
+        Document doc = Jsoup.parse("<a href=1 title=One>1</a><a href=2 title=Two>2</a><a href=3 title=Three>3</a><p class=x>")
+            .compact();
+        Element[] as = doc.select("a").toArray(new Element[0]);
+        Attributes one = as[0].attributes(), two = as[1].attributes(), three = as[2].attributes();
+        assertSame(one.keys, two.keys);
+        assertSame(one.keys, three.keys);
+        assertEquals(2, one.keys.length);
+        assertEquals(2, one.vals.length);
+        assertEquals(1, doc.expectFirst("p").attributes().keys.length);
+
+        one.put("href", "one"); // value changes don't touch the shared keys
+        assertSame(one.keys, two.keys);
+        one.remove("title");
+        one.attribute("href").setKey("src");
+        two.putIgnoreCase("HREF", "two");
+        three.add("rel", "x");
+
+        assertEquals("<a src=\"one\">1</a><a HREF=\"two\" title=\"Two\">2</a><a href=\"3\" title=\"Three\" rel=\"x\">3</a><p class=\"x\"></p>",
+            doc.body().html().replace("\n", ""));
+        assertEquals(1, doc.expectFirst("p").attributes().keys.length);
+
+        Element p = doc.expectFirst("p"); // the trimmed child list still takes appends
+        p.appendElement("b").text("Bold");
+        assertEquals("<p class=\"x\"><b>Bold</b></p>", p.outerHtml());
+    }
+
+    @Test void cloneSharesArraysUntilModified() {
+        Attributes a = new Attributes().add("one", "1").add("two", "2");
+        Attributes b = a.clone();
+        assertSame(a.keys, b.keys);
+        assertSame(a.vals, b.vals);
+
+        b.put("one", "One"); // a value change copies only the values
+        assertSame(a.keys, b.keys);
+        assertNotSame(a.vals, b.vals);
+        a.add("three", "3");
+        b.attribute("two").setKey("Two");
+        assertNotSame(a.keys, b.keys);
+
+        assertEquals(" one=\"1\" two=\"2\" three=\"3\"", a.html());
+        assertEquals(" one=\"One\" Two=\"2\"", b.html());
+
+        Document doc = Jsoup.parse("<p id=1 class=x>One</p>").freeze();
+        Document clone = doc.clone();
+        Element p = clone.expectFirst("p");
+        assertSame(doc.expectFirst("p").attributes().keys, p.attributes().keys);
+        p.removeAttr("class").attr("id", "2");
+        assertEquals("<p id=\"1\" class=\"x\">One</p>", doc.expectFirst("p").outerHtml());
+        assertEquals("<p id=\"2\">One</p>", p.outerHtml());
+    }
+
+    @Test void userDataHeldAsInternalAttribute() {
+        Attributes a = new Attributes();
+        a.put("one", "1");
+        assertNull(a.userData("key"));
+        assertEquals(1, a.size());
+
+        a.userData("key", "A");
+        assertEquals("A", a.userData("key"));
+        assertEquals(" one=\"1\"", a.html()); // not output
+        assertEquals(1, a.asList().size());
+
+        Attributes b = a.clone();
+        b.userData("key", "B"); // the clone has its own user data
+        assertEquals("A", a.userData("key"));
+        assertEquals("B", b.userData("key"));
+    }
 }
@@ -15,7 +15,9 @@ import org.junit.jupiter.api.Test;
 import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -196,6 +198,33 @@ public class DocumentTest {
     	assertEquals(htmlContent, document.html(new StringWriter()).toString());
     }
 
+    @Test void writeToOutputStream() throws IOException {
+        StringBuilder sb = new StringBuilder("<title>Ünïcödé</title>");
+        for (int i = 0; i < 2000; i++) sb.append("<p class=x>Para ").append(i).append(" £ 新 𝕙 &amp; &lt;</p>");
+        Document doc = Jsoup.parse(sb.toString());
+
+        for (String charset : new String[]{"UTF-8", "US-ASCII", "ISO-8859-1", "Shift_JIS", "UTF-16"}) {
+            doc.outputSettings().charset(charset);
+            for (boolean pretty : new boolean[]{true, false}) {
+                doc.outputSettings().prettyPrint(pretty);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                doc.writeTo(out);
+                String written = new String(out.toByteArray(), doc.charset());
+                assertEquals(doc.outerHtml(), pretty ? written.trim() : written, charset);
+                if (!pretty) assertArrayEquals(doc.outerHtml().getBytes(doc.charset()), out.toByteArray(), charset);
+            }
+        }
+    }
+
+    @Test void writeToPropagatesIOException() {
+        Document doc = Jsoup.parse("<p>One");
+        OutputStream failing = new OutputStream() {
+            @Override public void write(int b) throws IOException { throw new IOException("Boom"); }
+        };
+        IOException ex = assertThrows(IOException.class, () -> doc.writeTo(failing));
+        assertEquals("Boom", ex.getMessage());
+    }
+
     @Test public void testOverflowClone() {
         StringBuilder sb = new StringBuilder();
         sb.append("<head><base href='https://jsoup.org/'>");
@@ -566,4 +595,104 @@ public class DocumentTest {
         assertTrue(threw);
 
     }
+
+    @Test public void frozenDocumentRejectsModification() {
+        Document doc = Jsoup.parse("<div id=1><p class=a>One <b>Two</b></p><p>Three</p></div>");
+        String html = doc.html();
+        assertSame(doc, doc.freeze());
+        assertTrue(doc.isFrozen());
+
+        Element div = doc.expectFirst("div");
+        Element p = doc.expectFirst("p");
+        TextNode text = (TextNode) p.childNode(0);
+        Element free = new Element("span");
+        List<Runnable> edits = Arrays.asList(
+            () -> div.appendElement("p"),
+            () -> div.appendChild(free),
+            () -> div.prependText("Zero"),
+            () -> p.remove(),
+            () -> p.text("Replaced"),
+            () -> p.empty(),
+            () -> p.attr("class", "b"),
+            () -> p.removeAttr("class"),
+            () -> p.addClass("c"),
+            () -> p.attributes().iterator().next().setValue("b"),
+            () -> div.child(1).attr("title", "x"),
+            () -> div.child(1).clearAttributes().attributes().put("title", "x"),
+            () -> p.tagName("span"),
+            () -> p.setBaseUri("https://example.com/"),
+            () -> p.wrap("<i></i>"),
+            () -> text.text("Changed"),
+            () -> text.splitText(1),
+            () -> text.attr("data", "x"),
+            () -> doc.title("Title"),
+            () -> doc.textCache(true),
+            () -> doc.compact()
+        );
+        for (Runnable edit : edits) {
+            assertThrows(UnsupportedOperationException.class, edit::run);
+        }
+
+        assertEquals(html, doc.html());
+        assertNull(free.parent());
+        assertFalse(div.child(1).hasAttributes());
+    }
+
+    @Test public void frozenDocumentCanBeRead() {
+        Document doc = Jsoup.parse("<div id=1><p class=a>One <b>Two</b></p><p>Three</p></div><p>Four</p>").freeze();
+        Element div = doc.expectFirst("div");
+        assertEquals(2, div.children().size());
+        assertEquals("Three", div.child(0).nextElementSibling().text());
+        assertEquals(1, div.child(1).elementSiblingIndex());
+        assertEquals("One Two Three Four", doc.text());
+        assertEquals(3, doc.select("div p, body > p").size());
+        assertEquals(1, doc.select("div:has(b)").size());
+        assertEquals(0, div.child(1).attributes().size());
+        assertEquals("Three", div.child(1).childNode(0).attr("#text"));
+        assertEquals("Three", div.child(1).childNode(0).attributes().get("#text"));
+        assertEquals("<p>Four</p>", doc.body().child(1).outerHtml());
+    }
+
+    @Test public void cloneOfFrozenDocumentIsModifiable() {
+        Document doc = Jsoup.parse("<p class=a>One</p>").freeze();
+        Document clone = doc.clone();
+        assertFalse(clone.isFrozen());
+        Element p = clone.expectFirst("p");
+        p.attr("class", "b").append("<b>Two</b>");
+        p.child(0).text("Three");
+        assertEquals("<p class=\"b\">One<b>Three</b></p>", p.outerHtml());
+        assertEquals("<p class=\"a\">One</p>", doc.expectFirst("p").outerHtml());
+
+        Element shallow = doc.expectFirst("p").shallowClone();
+        shallow.appendText("Two").attr("id", "1");
+        assertEquals("<p class=\"a\" id=\"1\">Two</p>", shallow.outerHtml());
+    }
+
+    @Test public void frozenDocumentIsReadConcurrently() throws InterruptedException {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            html.append("<div class=d").append(i % 5).append("><p>Para ").append(i).append(" <a href=/").append(i)
+                .append(">link</a></p></div>");
+        }
+        Document doc = Jsoup.parse(html.toString(), "https://example.com/").freeze();
+        String text = doc.text();
+        String out = doc.outerHtml();
+
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int loop = 0; loop < 20; loop++) {
+                    if (doc.select("div.d3 > p:has(a) ~ *, div:nth-child(odd) a[href]").size() != 25
+                        || !text.equals(doc.text())
+                        || !out.equals(doc.outerHtml())
+                        || !doc.select("a").last().absUrl("href").equals("https://example.com/49"))
+                        failures.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(0, failures.get());
+    }
 }
@@ -203,6 +203,113 @@ public class ElementTest {
         assertEquals("OneTwo",Jsoup.parse("<span>One</span><span>Two</span>").text());
     }
 
+    @Test void textToAppendable() {
+        Document doc = Jsoup.parse("<div> One <b>Two</b></div><p>Three\u00AD\u200B<br>Four</p>\u00A0<pre>\n  Five  \n</pre>\n ");
+        String text = doc.body().text();
+        assertEquals("One Two Three Four   Five", text); // pre content is not normalized
+
+        StringBuilder sb = new StringBuilder("> ");
+        assertSame(sb, doc.body().text(sb));
+        assertEquals("> " + text, sb.toString());
+
+        java.nio.CharBuffer buf = java.nio.CharBuffer.allocate(64);
+        doc.select("p").first().text(buf);
+        buf.flip();
+        assertEquals("Three Four", buf.toString());
+        assertEquals("", new Element("div").text(new StringBuilder()).toString());
+    }
+
+    @Test void textToAppendableStreams() {
+        String[] htmls = {
+            "<p>  One  <b> Two </b>  </p>", "<div><p>One</p>Two<br><span>Three</span></div>  ", "<pre>\n One \n</pre> <p> </p>",
+            "<p>One<br><br>Two</p><div> </div>", " ", "<ul><li>One<li> <li>Two</ul>\u00A0", "<p>One<pre>  Two\n\n</pre>Three </p>"
+        };
+        for (String html : htmls) {
+            Element body = Jsoup.parse(html).body();
+            assertEquals(body.text(), String.join("", body.text(new RecordingAppendable()).appends), html);
+        }
+
+        Element div = Jsoup.parse("<div><p>One</p><p>Two</p><p>Three</p></div>").expectFirst("div");
+        assertEquals("[One,  Two,  Three]", div.text(new RecordingAppendable()).appends.toString()); // written as each text node is read
+    }
+
+    private static class RecordingAppendable implements Appendable {
+        final List<String> appends = new ArrayList<>();
+
+        @Override public Appendable append(CharSequence csq) {
+            appends.add(csq.toString());
+            return this;
+        }
+
+        @Override public Appendable append(CharSequence csq, int start, int end) {
+            return append(csq.subSequence(start, end));
+        }
+
+        @Override public Appendable append(char c) {
+            return append(String.valueOf(c));
+        }
+    }
+
+    @Test void cachedTextIsInvalidatedOnMutation() {
+        Document doc = Jsoup.parse("<div id=1><p>One <b>Two</b></p><p>Three</p></div><pre id=pre></pre>").textCache(true);
+        Element div = doc.expectFirst("#1");
+        Element b = doc.expectFirst("b");
+        assertEquals("One Two Three", div.text());
+        assertSame(div.text(), div.text());
+        assertEquals("One Two", b.parent().text());
+
+        ((TextNode) b.childNode(0)).text("2");
+        assertEquals("One 2 Three", div.text());
+        b.after("<i> and</i>");
+        assertEquals("One 2 and Three", div.text());
+        div.child(1).remove();
+        assertEquals("One 2 and", div.text());
+        b.tagName("div");
+        assertEquals("One 2 and", div.text());
+        assertEquals("One", div.child(0).ownText());
+        div.child(0).prependText("Zero ");
+        assertEquals("Zero One", div.child(0).ownText());
+
+        // moving an element with cached text into a pre changes its whitespace context
+        Element p = new Element("p").appendText("  a   b  ");
+        doc.body().appendChild(p);
+        assertEquals("a b", p.text());
+        doc.expectFirst("#pre").appendChild(p);
+        assertEquals("a   b", p.text());
+        assertEquals("a b", p.clone().text()); // the clone is not in the pre
+
+        assertEquals(1, doc.select("div:contains(2 and)").size());
+        b.text("X");
+        assertEquals(0, doc.select("div:contains(2 and)").size());
+        assertEquals(1, doc.select("div:matches(X and$)").size());
+
+        doc.textCache(false);
+        assertNull(div.textSlot());
+        assertEquals("Zero One X and", div.text());
+        assertNull(div.textSlot());
+    }
+
+    @Test void internalMetadataDoesNotCreateAttributes() {
+        Document doc = Jsoup.parse("<div><p>One</p><p>Two</p></div>", "https://example.com/");
+        doc.textCache(true);
+        Element div = doc.expectFirst("div");
+        assertEquals(2, div.children().size());
+        assertEquals("One Two", div.text());
+        assertEquals("https://example.com/", div.baseUri());
+        div.setBaseUri("https://example.com/div/");
+        assertEquals("https://example.com/div/", div.child(0).baseUri());
+
+        assertFalse(doc.hasAttributes());
+        assertFalse(div.hasAttributes());
+        assertFalse(div.child(0).hasAttributes());
+
+        div.attr("id", "1");
+        assertEquals(1, div.attributes().size());
+        assertEquals(" id=\"1\"", div.attributes().html());
+        div.clearAttributes();
+        assertFalse(div.hasAttributes());
+    }
+
     @Test
     public void testWholeText() {
         Document doc = Jsoup.parse("<p> Hello\nthere &nbsp;  </p>");
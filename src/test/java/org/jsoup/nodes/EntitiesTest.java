@@ -40,6 +40,19 @@ public class EntitiesTest {
         assertEquals("Hello &amp;&lt;&gt; Å å π 新 there ¾ © » &apos; &quot;", escaped);
     }
 
+    @Test public void escapesRunsAndNormalisesWhitespace() {
+        // plain runs are appended in bulk; check the boundaries between runs and escapes, and whitespace normalisation
+        Document doc = Jsoup.parse("<p>  One  &amp;\n two\t<b>three</b>  four &lt;  </p><p title='a \"b\" c'>  新\u00A0x  </p>");
+        assertEquals("<p>One &amp; two <b>three</b> four &lt;</p>\n<p title=\"a &quot;b&quot; c\">新&nbsp;x</p>", doc.body().html());
+
+        doc.outputSettings().prettyPrint(false);
+        assertEquals("<p>  One  &amp;\n two\t<b>three</b>  four &lt;  </p><p title=\"a &quot;b&quot; c\">  新&nbsp;x  </p>", doc.body().html());
+
+        doc.outputSettings().charset("ascii");
+        assertEquals("<p>  One  &amp;\n two\t<b>three</b>  four &lt;  </p><p title=\"a &quot;b&quot; c\">  &#x65b0;&nbsp;x  </p>", doc.body().html());
+        assertEquals("Tab\tLF\nCR\r&#x1;", Entities.escape("Tab\tLF\nCR\r\u0001"));
+    }
+
     @Test public void escapedSupplementary() {
         String text = "\uD835\uDD59";
         String escapedAscii = Entities.escape(text, new OutputSettings().charset("ascii").escapeMode(base));
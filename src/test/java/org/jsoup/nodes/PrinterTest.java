@@ -1,6 +1,7 @@
 package org.jsoup.nodes;
 
 import org.jsoup.Jsoup;
+import org.jsoup.internal.StringUtil;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
@@ -78,4 +79,18 @@ public class PrinterTest {
         assertEquals("<div>\n <span>Span</span> Text <span>Follow</span>\n</div>\n<p><span>Span</span> Text <span>Follow</span></p>", body.html());
     }
 
+    @Test void singleSpacesAroundEscapesAndTrimmedEnds() {
+        // single spaces within text continue the unescaped run; check at the boundaries of escapes and trimmed ends
+        Document doc = Jsoup.parse("<div> a &amp; b <b>c</b> d &lt;e&gt; f <p>g </p> h</div>");
+        assertEquals("<div>\n a &amp; b <b>c</b> d &lt;e&gt; f\n <p>g</p>\n h\n</div>", doc.body().html());
+    }
+
+    @Test void deepIndentsBeyondCache() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 70; i++) sb.append("<div>");
+        Document doc = Jsoup.parse(sb.toString());
+        doc.outputSettings().maxPaddingWidth(-1);
+        String html = doc.body().html();
+        assertTrue(html.contains("\n" + StringUtil.padding(69, -1) + "<div></div>\n"));
+    }
 }
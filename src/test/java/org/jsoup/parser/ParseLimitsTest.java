@@ -0,0 +1,226 @@
+package org.jsoup.parser;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParseLimitsTest {
+
+    private static String nested(String tag, int depth) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) sb.append('<').append(tag).append('>');
+        return sb.toString();
+    }
+
+    @Test void defaultsAreUnlimited() {
+        ParseLimits limits = Parser.htmlParser().limits();
+        assertEquals(Integer.MAX_VALUE, limits.maxElements());
+        assertEquals(Integer.MAX_VALUE, limits.maxDepth());
+        assertEquals(ParseLimits.DefaultMaxAttributes, limits.maxAttributes());
+        assertEquals(Integer.MAX_VALUE, limits.maxTextLength());
+        assertEquals(0, limits.timeout());
+        assertFalse(limits.throwOnLimit());
+
+        Document doc = Jsoup.parse(nested("div", 1000));
+        assertEquals(1004, doc.getAllElements().size()); // + #root, html, head, body
+        assertTrue(doc.parser().getErrors().isEmpty());
+    }
+
+    @Test void truncatesOnMaxElements() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxElements(10);
+        Document doc = Jsoup.parse("<p>One</p><p>Two</p>" + nested("div", 100) + "<p>Last</p>", parser);
+
+        assertEquals(11, doc.getAllElements().size()); // the 10 elements + #root document
+        assertEquals(0, doc.select("p:contains(Last)").size());
+        assertEquals("One Two", doc.text());
+
+        ParseErrorList errors = parser.getErrors();
+        assertEquals(1, errors.size()); // recorded even though not tracking errors
+        assertEquals("Element limit of [10] exceeded; parse truncated", errors.get(0).getErrorMessage());
+    }
+
+    @Test void truncatesOnMaxDepth() {
+        Parser parser = Parser.htmlParser().setTrackErrors(10);
+        parser.limits().maxDepth(20);
+        Document doc = Jsoup.parse(nested("div", 100) + "Deep", parser);
+
+        assertEquals(18, doc.select("div").size()); // html + body + 18 divs
+        assertEquals("", doc.text());
+        ParseErrorList errors = parser.getErrors();
+        assertEquals(2, errors.size()); // the limit, and then the regular EOF error, as tracking errors
+        assertEquals("Element depth limit of [20] exceeded; parse truncated", errors.get(0).getErrorMessage());
+    }
+
+    @Test void allowsExactlyMaxElements() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxElements(4).throwOnLimit(true); // html, head, body, p
+        Document doc = Jsoup.parse("<p>Hi", parser);
+        assertEquals("Hi", doc.text());
+        assertTrue(parser.getErrors().isEmpty());
+
+        ParseLimitException ex = assertThrows(ParseLimitException.class, () -> Jsoup.parse("<p>Hi<b>There", parser));
+        assertEquals(ParseLimits.Limit.Elements, ex.limit());
+
+        parser.limits().throwOnLimit(false);
+        Document truncated = Jsoup.parse("<p>Hi<b>There", parser);
+        assertEquals("Hi", truncated.text());
+        assertEquals(5, truncated.getAllElements().size()); // #root + the 4 elements; not the b that exceeded
+    }
+
+    @Test void allowsExactlyMaxDepth() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxDepth(3).throwOnLimit(true); // html, body, p
+        Document doc = Jsoup.parse("<p>Hi", parser);
+        assertEquals("Hi", doc.text());
+        assertTrue(parser.getErrors().isEmpty());
+
+        ParseLimitException ex = assertThrows(ParseLimitException.class, () -> Jsoup.parse("<p>Hi<b>There", parser));
+        assertEquals(ParseLimits.Limit.Depth, ex.limit());
+
+        parser.limits().throwOnLimit(false);
+        Document truncated = Jsoup.parse("<p>Hi<b>There</b></p><p>Next", parser);
+        assertEquals("Hi", truncated.text());
+        assertNull(truncated.selectFirst("b"));
+    }
+
+    @Test void throwsWhenConfigured() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxDepth(20).throwOnLimit(true);
+        ParseLimitException ex = assertThrows(ParseLimitException.class, () -> Jsoup.parse(nested("div", 100), parser));
+        assertEquals(ParseLimits.Limit.Depth, ex.limit());
+        assertEquals("Element depth limit of [20] exceeded; parse truncated", ex.error().getErrorMessage());
+
+        // parser can be reused after a throw
+        Document doc = Jsoup.parse("<p>Hello", parser);
+        assertEquals("Hello", doc.text());
+        assertTrue(parser.getErrors().isEmpty());
+    }
+
+    @Test void dropsAttributesOverLimit() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxAttributes(2);
+        Document doc = Jsoup.parse("<p a=1 b=2 c=3 d=4>One</p><p e=5>Two</p>", parser);
+
+        Element p = doc.expectFirst("p");
+        assertEquals(2, p.attributesSize());
+        assertEquals("1", p.attr("a"));
+        assertEquals("2", p.attr("b"));
+        assertFalse(p.hasAttr("c"));
+        assertEquals("One Two", doc.text()); // does not truncate
+        assertEquals(1, parser.getErrors().size());
+        assertEquals("Attribute limit of [2] exceeded in tag [p]; further attributes dropped", parser.getErrors().get(0).getErrorMessage());
+    }
+
+    @Test void truncatesTextOverLimit() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxTextLength(5);
+        Document doc = Jsoup.parse("<p>Hello there</p><p>Now</p><script>console.log(1)</script>", parser);
+        assertEquals("Hello Now", doc.text());
+        assertEquals("conso", doc.expectFirst("script").data());
+
+        Parser xmlParser = Parser.xmlParser();
+        xmlParser.limits().maxTextLength(5);
+        Document xml = Jsoup.parse("<doc>Hello there</doc>", xmlParser);
+        assertEquals("<doc>Hello</doc>", xml.html());
+        assertEquals(1, xmlParser.getErrors().size());
+    }
+
+    @Test void doesNotSplitSurrogates() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxTextLength(3);
+        Document doc = Jsoup.parse("<p>ab😀c</p>", parser);
+        TextNode text = (TextNode) doc.expectFirst("p").childNode(0);
+        assertEquals("ab", text.getWholeText());
+    }
+
+    @Test void truncatesOnTimeout() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().timeout(10);
+
+        Reader slow = new Reader() {
+            int count = 0;
+            @Override public int read(char[] cbuf, int off, int len) {
+                if (count++ > 10_000) return -1; // would be a long parse
+                try { Thread.sleep(1); } catch (InterruptedException e) { throw new RuntimeException(e); }
+                String chunk = "<p>x</p>";
+                int n = Math.min(len, chunk.length());
+                chunk.getChars(0, n, cbuf, off);
+                return n;
+            }
+            @Override public void close() {}
+        };
+
+        Document doc = parser.parseInput(slow, "");
+        assertTrue(doc.select("p").size() < 10_000);
+        assertEquals(1, parser.getErrors().size());
+        assertEquals("Parse time budget exceeded; parse truncated", parser.getErrors().get(0).getErrorMessage());
+    }
+
+    @Test void limitsCopiedToNewInstance() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxElements(5).throwOnLimit(true);
+        Parser copy = parser.newInstance();
+        assertEquals(5, copy.limits().maxElements());
+        assertTrue(copy.limits().throwOnLimit());
+        assertNotSame(parser.limits(), copy.limits());
+    }
+
+    @Test void streamParserHonorsLimits() {
+        Parser parser = Parser.xmlParser();
+        parser.limits().maxElements(3);
+        StreamParser streamer = new StreamParser(parser).parse("<a><b/><b/><b/><b/></a>", "");
+        int count = 0;
+        Iterator<Element> it = streamer.iterator();
+        while (it.hasNext()) { it.next(); count++; }
+        assertEquals(4, count); // #root, a, b, b
+    }
+
+    @Test void droppedElementsAreNotSeenByListener() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxElements(1);
+        List<String> events = new ArrayList<>();
+        parser.getTreeBuilder().nodeListener(recorder(events));
+        Document doc = parser.parseInput("<div><p>One", "");
+
+        // the implied head exceeds the limit, and the body implied at EOF is not inserted either
+        assertEquals("<html></html>", doc.html().replaceAll("\\s", ""));
+        assertEquals("+#document +html -html -#document", String.join(" ", events));
+        assertEquals(1, parser.getErrors().size());
+    }
+
+    @Test void droppedEmptyElementIsNotClosed() {
+        Parser parser = Parser.htmlParser();
+        parser.limits().maxElements(4); // html, head, body, div
+        List<String> events = new ArrayList<>();
+        parser.getTreeBuilder().nodeListener(recorder(events));
+        Document doc = parser.parseInput("<div>One<br>Two", "");
+
+        assertNull(doc.selectFirst("br"));
+        assertEquals("One", doc.text());
+        assertEquals("+#document +html +head -head +body +div +#text -div -body -html -#document", String.join(" ", events));
+    }
+
+    private static NodeVisitor recorder(List<String> events) {
+        return new NodeVisitor() {
+            @Override public void head(Node node, int depth) {
+                events.add("+" + node.nodeName());
+            }
+
+            @Override public void tail(Node node, int depth) {
+                if (!(node instanceof TextNode)) events.add("-" + node.nodeName());
+            }
+        };
+    }
+}
@@ -2,14 +2,23 @@ package org.jsoup.parser;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.Selector;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class ParserTest {
 
@@ -58,4 +67,90 @@ public class ParserTest {
         assertEquals(xmlParser.settings().preserveTagCase(), xmlClone.settings().preserveTagCase());
         assertEquals(xmlParser.settings().preserveAttributeCase(), xmlClone.settings().preserveAttributeCase());
     }
+
+    @Test
+    public void skipContent() {
+        String html = "<head><title>Title</title><script>var a = '<div>';</script><style>p { color: red }</style></head>" +
+            "<body><p>One<svg><g><svg><rect /></svg></g><text>SVG</text></svg> Two</p>" +
+            "<noscript><img src=x></noscript><p>Three</p><SCRIPT type=module>if (a</b) { }</SCRIPT ></body>";
+        Parser parser = Parser.htmlParser().skipContent("script", "STYLE", "svg", "noscript");
+        Document doc = Jsoup.parse(html, parser);
+        doc.outputSettings().prettyPrint(false);
+
+        assertEquals("<title>Title</title><script></script><style></style>", doc.head().html());
+        assertEquals("<p>One<svg></svg> Two</p><noscript></noscript><p>Three</p><script type=\"module\"></script>", doc.body().html());
+        assertEquals("Title One Two Three", doc.text());
+        assertEquals(0, doc.select("img, rect, g").size());
+    }
+
+    @Test
+    public void skipContentWithEvaluator() {
+        String html = "<div class=ad><p>Buy<div>Now</div></p></div><div class=content><p>Hello</p></div>";
+        Parser parser = Parser.htmlParser().skipContent(Selector.evaluatorOf("div.ad"));
+        Document doc = Jsoup.parse(html, parser);
+        doc.outputSettings().prettyPrint(false);
+        assertEquals("<div class=\"ad\"></div><div class=\"content\"><p>Hello</p></div>", doc.body().html());
+
+        Parser copy = parser.newInstance();
+        assertSame(parser.skipContent(), copy.skipContent());
+        assertNull(parser.skipContent((Evaluator) null).skipContent());
+    }
+
+    @Test
+    public void skipContentToEofWhenUnclosed() {
+        Parser parser = Parser.htmlParser().skipContent("svg");
+        Document doc = Jsoup.parse("<p>One<svg><rect><p>Two", parser);
+        doc.outputSettings().prettyPrint(false);
+        assertEquals("<p>One<svg></svg></p>", doc.body().html());
+    }
+
+    @Test
+    public void skipContentInXml() {
+        Parser parser = Parser.xmlParser().skipContent("Big");
+        Document doc = Jsoup.parse("<doc><Big><x><Big>Nested</Big><big>x</big></x></Big><small>Hi</small><Big/></doc>", parser);
+        assertEquals("<doc><Big /><small>Hi</small><Big /></doc>", doc.html()); // empty as Big was seen self-closing
+    }
+
+    @Test
+    public void onElementClosed() {
+        String html = "<head><title>Title</title><meta property=og:title content=One><meta property=og:type content=article></head>" +
+            "<body><p>One</p><p>Two</p>";
+        Parser parser = Parser.htmlParser();
+        Map<String, String> meta = new LinkedHashMap<>();
+        StringBuilder seen = new StringBuilder();
+        parser
+            .onElementClosed(Selector.evaluatorOf("meta[property]"), el -> meta.put(el.attr("property"), el.attr("content")))
+            .onElementClosed(Selector.evaluatorOf("title, p"), el -> seen.append(el.text()).append(";"));
+
+        Document doc = Jsoup.parse(html, parser);
+        assertEquals("{og:title=One, og:type=article}", meta.toString());
+        assertEquals("Title;One;Two;", seen.toString());
+        assertEquals(2, doc.select("p").size());
+    }
+
+    @Test
+    public void onElementClosedCanStop() {
+        Parser parser = Parser.htmlParser();
+        List<String> found = new ArrayList<>();
+        parser.onElementClosed(Selector.evaluatorOf("p"), el -> {
+            found.add(el.text());
+            if (found.size() == 2) el.ownerDocument().parser().stop(); // vs parser.stop(), so that works in the copy too
+        });
+
+        Document doc = Jsoup.parse("<p>One<p>Two<p>Three<p>Four", parser);
+        assertEquals("[One, Two]", found.toString());
+        assertEquals("One Two", doc.text()); // truncated
+        assertNotNull(doc.body()); // and well-formed
+
+        // the stop only applies to the current parse; hooks copy to new instances
+        Parser copy = parser.newInstance();
+        found.clear();
+        Document doc2 = Jsoup.parse("<p>Five<p>Six<p>Seven", copy);
+        assertEquals("[Five, Six]", found.toString());
+        assertEquals("Five Six", doc2.text());
+
+        found.clear();
+        Document doc3 = Jsoup.parse("<p>Eight", parser);
+        assertEquals("Eight", doc3.text());
+    }
 }
@@ -506,6 +506,27 @@ class PositionTest {
         assertEquals("h1:0-9~12-17; id:4-6=7-8; #text:9-12; #text:17-18; h2:18-27~30-35; id:22-24=25-26; #text:27-30; h10:35-40~43-49; #text:40-43; ", track.toString());
     }
 
+    @Test void tracksLinesAcrossBuffers() {
+        // the reader rolls its newline window per buffer; the document index must retain all lines for lazy lookups
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= 2000; i++) sb.append("<p>Line ").append(i).append("</p>\n");
+        Document doc = Jsoup.parse(sb.toString(), TrackingHtmlParser);
+
+        Elements ps = doc.select("p");
+        assertEquals("1,1:0-1,4:3", ps.first().sourceRange().toString());
+        Element last = ps.last();
+        assertEquals(2000, last.sourceRange().start().lineNumber());
+        assertEquals(1, last.sourceRange().start().columnNumber());
+        assertEquals(2000, last.endSourceRange().end().lineNumber());
+        assertEquals(17, last.endSourceRange().end().columnNumber());
+
+        TextNode text = (TextNode) last.childNode(0);
+        assertEquals("2000,4", text.sourceRange().start().lineNumber() + "," + text.sourceRange().start().columnNumber());
+
+        Element clone = last.clone();
+        assertEquals(last.sourceRange(), clone.sourceRange());
+    }
+
     @Test void tracksAfterPSelfClose() {
         // https://github.com/jhy/jsoup/issues/2175
         String html = "foo<p/>bar &amp; 2";
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -484,4 +485,52 @@ class StreamParserTest {
         }
     }
 
+
+    @Test void streamPathEmitsAndDiscardsMatches() {
+        String xml = "<?xml version=\"1.0\"?>\n<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">\n" +
+            "  <url><loc>https://example.com/1</loc><image:image><image:loc>https://example.com/1.png</image:loc></image:image></url>\n" +
+            "  <url><loc>https://example.com/2</loc></url>\n" +
+            "  <other><url><loc>https://example.com/nested</loc></url></other>\n" +
+            "</urlset>";
+
+        try (StreamParser parser = new StreamParser(Parser.xmlParser()).parse(xml, "")) {
+            List<Element> urls = new ArrayList<>();
+            parser.streamPath("urlset/url").forEach(url -> {
+                assertNull(url.parent()); // detached
+                Document doc = parser.document();
+                assertEquals(0, doc.select("urlset > url").size()); // discarded from the doc
+                urls.add(url);
+            });
+
+            assertEquals(2, urls.size());
+            Element first = urls.get(0);
+            assertEquals("https://example.com/1", first.expectFirst("loc").text());
+            assertEquals("http://www.sitemaps.org/schemas/sitemap/0.9", first.tag().namespace());
+            Element image = first.expectFirst("image|image");
+            assertEquals("http://www.google.com/schemas/sitemap-image/1.1", image.tag().namespace());
+            assertEquals("https://example.com/2", urls.get(1).expectFirst("loc").text());
+
+            // non matching elements remain
+            Document doc = parser.document();
+            assertEquals("<?xml version=\"1.0\"?>\n<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">\n" +
+                "  <other><url><loc>https://example.com/nested</loc></url></other>\n</urlset>", doc.html());
+        }
+    }
+
+    @Test void streamPathWildcard() {
+        String xml = "<rss><channel><title>Feed</title><item><title>One</title></item><item><title>Two</title></item></channel></rss>";
+        try (StreamParser parser = new StreamParser(Parser.xmlParser()).parse(xml, "")) {
+            StringBuilder seen = new StringBuilder();
+            parser.streamPath("rss/*/item").forEach(el -> trackSeen(el, seen));
+            assertEquals("item;item;", seen.toString());
+            assertEquals("<rss><channel><title>Feed</title></channel></rss>", parser.document().html());
+        }
+    }
+
+    @Test void streamPathRequiresXml() {
+        StreamParser parser = new StreamParser(Parser.htmlParser()).parse("<p>", "");
+        assertThrows(IllegalArgumentException.class, () -> parser.streamPath("html/body/p"));
+        StreamParser xmlParser = new StreamParser(Parser.xmlParser()).parse("<p>", "");
+        assertThrows(IllegalArgumentException.class, () -> xmlParser.streamPath(" / "));
+    }
 }
@@ -0,0 +1,150 @@
+package org.jsoup.parser;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamRewriterTest {
+
+    static String rewrite(StreamRewriter rewriter, String html) throws IOException {
+        StringBuilder out = new StringBuilder();
+        rewriter.rewrite(new StringReader(html), "https://example.com/", out);
+        return out.toString();
+    }
+
+    static String parsed(String html) {
+        Document doc = Jsoup.parse(html);
+        doc.outputSettings().prettyPrint(false);
+        return doc.outerHtml();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "<p>One</p><p>Two",
+        "<!doctype html><html><head><title>T</title></head><body><div id=1><p>A &amp; <b>B</b></p>tail</div></body></html>",
+        "<div><p>One<p>Two<br>Three<img src=x></div>After <!-- comment --> end",
+        "<p><b>Bold <i>both</b> italic</i> plain</p>",
+        "<b>1<p>2</b>3</p>",
+        "<ul><li>One<li>Two</ul><pre>\n  pre  </pre><script>a < b && c</script>",
+        "<table><tr><td>One<td>Two</table><select><option>A<option>B</select>",
+        "Text only",
+        "",
+    })
+    void matchesFullParseWithoutHandlers(String html) throws IOException {
+        assertEquals(parsed(html), rewrite(new StreamRewriter(Parser.htmlParser()), html));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "<div><b><i><p>x</b>y</i>z</div>",
+        "<table>foster<tr><td>x</td></tr>after</table><p>a<table><p>in</table>",
+    })
+    void keepsContentRelocatedByParser(String html) throws IOException {
+        // the tree builder may move content that has already been written; output stays well-formed and complete
+        String out = rewrite(new StreamRewriter(Parser.htmlParser()), html);
+        assertEquals(Jsoup.parse(html).text().replace(" ", ""), Jsoup.parse(out).text().replace(" ", ""));
+        assertEquals(1, Jsoup.parse(out).select("body").size());
+    }
+
+    @Test
+    void rewritesMatchedElements() throws IOException {
+        String html = "<div><a href=/one>One</a> <p>Para <a href=two>Two</a><a>Three</a></p><script>bad()</script></div>";
+        StreamRewriter rewriter = new StreamRewriter(Parser.htmlParser())
+            .on("a[href]", el -> el.attr("href", el.absUrl("href")))
+            .on("script", Element::remove)
+            .on("p", el -> el.appendText("!"));
+
+        assertEquals("<html><head></head><body><div><a href=\"https://example.com/one\">One</a> <p>Para " +
+            "<a href=\"https://example.com/two\">Two</a><a>Three</a>!</p></div></body></html>",
+            rewrite(rewriter, html));
+    }
+
+    @Test
+    void handlersSeeCompleteSubtreeInnerFirst() throws IOException {
+        List<String> seen = new ArrayList<>();
+        StreamRewriter rewriter = new StreamRewriter(Parser.htmlParser())
+            .on("div", el -> seen.add(el.tagName() + ":" + el.text()))
+            .on("span", el -> {
+                seen.add(el.tagName() + ":" + el.text());
+                el.replaceWith(new Element("em").text(el.text().toUpperCase()));
+            });
+
+        String out = rewrite(rewriter, "<div>One <span>two</span> three</div><div><span>four</span></div>");
+        assertEquals("span:two, div:One TWO three, span:four, div:FOUR", String.join(", ", seen));
+        assertEquals("<html><head></head><body><div>One <em>TWO</em> three</div><div><em>FOUR</em></div></body></html>", out);
+    }
+
+    @Test
+    void writesCompletedContentAsItGoes() throws IOException {
+        // by the time the second p closes, the first has been written out and removed from the DOM
+        StringBuilder out = new StringBuilder();
+        List<String> atClose = new ArrayList<>();
+        StreamRewriter rewriter = new StreamRewriter(Parser.htmlParser())
+            .on("p.two", el -> atClose.add(out.toString() + "|" + el.parent().childNodeSize()));
+        rewriter.rewrite(new StringReader("<div><p>One</p><p class=two>Two</p></div>"), "", out);
+
+        assertEquals("<html><head></head><body><div><p>One</p>|1", atClose.get(0));
+        assertEquals("<html><head></head><body><div><p>One</p><p class=\"two\">Two</p></div></body></html>", out.toString());
+    }
+
+    @Test
+    void rewritesToOutputStream() throws IOException {
+        String html = "<p title='Å'>Hello 新 there</p>";
+        StreamRewriter rewriter = new StreamRewriter(Parser.htmlParser()).on("p", el -> el.attr("class", "x"));
+
+        ByteArrayOutputStream utf = new ByteArrayOutputStream();
+        rewriter.rewrite(new StringReader(html), "", utf, StandardCharsets.UTF_8);
+        assertEquals("<html><head></head><body><p title=\"Å\" class=\"x\">Hello 新 there</p></body></html>",
+            new String(utf.toByteArray(), StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream ascii = new ByteArrayOutputStream();
+        rewriter.rewrite(new StringReader(html), "", ascii, StandardCharsets.US_ASCII);
+        assertEquals("<html><head></head><body><p title=\"&Aring;\" class=\"x\">Hello &#x65b0; there</p></body></html>",
+            new String(ascii.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void rewritesXml() throws IOException {
+        String xml = "<?xml version=\"1.0\"?><feed><item id=1><link>one</link></item><item id='2'/></feed>";
+        StreamRewriter rewriter = new StreamRewriter(Parser.xmlParser())
+            .on("item", el -> el.attr("seen", "yes"));
+
+        assertEquals("<?xml version=\"1.0\"?><feed><item id=\"1\" seen=\"yes\"><link>one</link></item><item id=\"2\" seen=\"yes\" /></feed>",
+            rewrite(rewriter, xml));
+    }
+
+    @Test
+    void canStopEarly() throws IOException {
+        Parser parser = Parser.htmlParser();
+        StreamRewriter rewriter = new StreamRewriter(parser).on("p.last", el -> parser.stop());
+        String out = rewrite(rewriter, "<p>One</p><p class=last>Two</p><p>Three</p>");
+        assertEquals("<html><head></head><body><p>One</p><p class=\"last\">Two</p></body></html>", out);
+    }
+
+    @Test
+    void writesHeldElementWithManyChildren() throws IOException {
+        StringBuilder html = new StringBuilder("<div>");
+        StringBuilder expected = new StringBuilder("<html><head></head><body><div class=\"x\">");
+        for (int i = 0; i < 20_000; i++) {
+            html.append("<i>").append(i).append("</i>");
+            expected.append("<i>").append(i).append("</i>");
+        }
+        html.append("</div>");
+        expected.append("</div></body></html>");
+
+        StreamRewriter rewriter = new StreamRewriter(Parser.htmlParser()).on("div", el -> el.addClass("x"));
+        assertEquals(expected.toString(), rewrite(rewriter, html.toString()));
+    }
+}
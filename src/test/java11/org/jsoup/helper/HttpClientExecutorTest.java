@@ -23,6 +23,19 @@ public class HttpClientExecutorTest {
         assertInstanceOf(UrlConnectionExecutor.class, executor);
     }
 
+    @Test void poolSelectsHttpClient() {
+        HttpConnection.Request req = new HttpConnection.Request();
+        req.pool = new ConnectionPool();
+        RequestExecutor executor = RequestDispatch.get(req, null);
+        assertEquals("org.jsoup.helper.HttpClientExecutor", executor.getClass().getName());
+    }
+
+    @Test void asyncSelectsHttpClient() {
+        HttpConnection.Request req = new HttpConnection.Request();
+        assertEquals("org.jsoup.helper.HttpClientExecutor", RequestDispatch.get(req, null, true).getClass().getName());
+        assertInstanceOf(UrlConnectionExecutor.class, RequestDispatch.get(req, null, false));
+    }
+
     public static void enableHttpClient() {
         System.setProperty(SharedConstants.UseHttpClient, "true");
     }